@@ -18,6 +18,7 @@
 
 package org.apache.avro;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
@@ -29,6 +30,7 @@ import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericEnumSymbol;
 import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.Encoder;
 
 public class Conversions {
 
@@ -60,6 +62,13 @@ public class Conversions {
   }
 
   public static class DecimalConversion extends Conversion<BigDecimal> {
+    /**
+     * Unscaled values of up to this many bytes, or decimal digits, fit in a long
+     * and are converted without a {@link BigInteger}.
+     */
+    private static final int MAX_LONG_BYTES = 8;
+    private static final int MAX_LONG_PRECISION = 18;
+
     @Override
     public Class<BigDecimal> getConvertedType() {
       return BigDecimal.class;
@@ -78,25 +87,60 @@ public class Conversions {
     @Override
     public BigDecimal fromBytes(ByteBuffer value, Schema schema, LogicalType type) {
       int scale = ((LogicalTypes.Decimal) type).getScale();
+      int length = value.remaining();
+      if (length > 0 && length <= MAX_LONG_BYTES) {
+        long unscaled = value.get(value.position()); // sign extended
+        for (int i = value.position() + 1; i < value.limit(); i++) {
+          unscaled = (unscaled << 8) | (value.get(i) & 0xFF);
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+      }
       // always copy the bytes out because BigInteger has no offset/length ctor
-      byte[] bytes = new byte[value.remaining()];
+      byte[] bytes = new byte[length];
       value.duplicate().get(bytes);
       return new BigDecimal(new BigInteger(bytes), scale);
     }
 
     @Override
     public ByteBuffer toBytes(BigDecimal value, Schema schema, LogicalType type) {
+      return ByteBuffer.wrap(toByteArray(value, type));
+    }
+
+    /**
+     * Writes a decimal as bytes, as {@code out.writeBytes(toBytes(value, schema,
+     * type))} would, but without a {@link ByteBuffer}.
+     */
+    public void writeBytes(BigDecimal value, Schema schema, LogicalType type, Encoder out) throws IOException {
+      out.writeBytes(toByteArray(value, type));
+    }
+
+    private static byte[] toByteArray(BigDecimal value, LogicalType type) {
       int scale = ((LogicalTypes.Decimal) type).getScale();
       if (scale != value.scale()) {
         throw new AvroTypeException("Cannot encode decimal with scale " + value.scale() + " as scale " + scale);
       }
-      return ByteBuffer.wrap(value.unscaledValue().toByteArray());
+      if (value.precision() <= MAX_LONG_PRECISION) {
+        long unscaled = value.scaleByPowerOfTen(scale).longValueExact();
+        // the fewest bytes that hold the value and its sign, as in BigInteger
+        byte[] bytes = new byte[(Long.SIZE - Long.numberOfLeadingZeros(unscaled ^ (unscaled >> 63))) / 8 + 1];
+        fill(bytes, unscaled);
+        return bytes;
+      }
+      return value.unscaledValue().toByteArray();
     }
 
     @Override
     public BigDecimal fromFixed(GenericFixed value, Schema schema, LogicalType type) {
       int scale = ((LogicalTypes.Decimal) type).getScale();
-      return new BigDecimal(new BigInteger(value.bytes()), scale);
+      byte[] bytes = value.bytes();
+      if (bytes.length > 0 && bytes.length <= MAX_LONG_BYTES) {
+        long unscaled = bytes[0]; // sign extended
+        for (int i = 1; i < bytes.length; i++) {
+          unscaled = (unscaled << 8) | (bytes[i] & 0xFF);
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+      }
+      return new BigDecimal(new BigInteger(bytes), scale);
     }
 
     @Override
@@ -106,9 +150,14 @@ public class Conversions {
         throw new AvroTypeException("Cannot encode decimal with scale " + value.scale() + " as scale " + scale);
       }
 
+      byte[] bytes = new byte[schema.getFixedSize()];
+      if (value.precision() <= MAX_LONG_PRECISION && bytes.length >= MAX_LONG_BYTES) {
+        fill(bytes, value.scaleByPowerOfTen(scale).longValueExact());
+        return new GenericData.Fixed(schema, bytes);
+      }
+
       byte fillByte = (byte) (value.signum() < 0 ? 0xFF : 0x00);
       byte[] unscaled = value.unscaledValue().toByteArray();
-      byte[] bytes = new byte[schema.getFixedSize()];
       int offset = bytes.length - unscaled.length;
 
       // Fill the front of the array and copy remaining with unscaled values
@@ -117,6 +166,14 @@ public class Conversions {
 
       return new GenericData.Fixed(schema, bytes);
     }
+
+    /** Sets bytes to the big endian two's complement of a value, sign extended. */
+    private static void fill(byte[] bytes, long unscaled) {
+      for (int i = bytes.length - 1; i >= 0; i--) {
+        bytes[i] = (byte) unscaled;
+        unscaled >>= 8;
+      }
+    }
   }
 
   /**
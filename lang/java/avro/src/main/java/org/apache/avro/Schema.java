@@ -401,6 +401,31 @@ public abstract class Schema extends JsonProperties implements Serializable {
     }
   }
 
+  /**
+   * Render this as <a href="https://json.org/">JSON</a>, writing the given named
+   * schemas by name only. The result is parsed by a {@link Parser} to which these
+   * schemas were added.
+   *
+   * @param referencedSchemas the named schemas to refer to by name.
+   * @param pretty            if true, pretty-print JSON.
+   */
+  public String toString(Collection<Schema> referencedSchemas, boolean pretty) {
+    try {
+      Names names = new Names();
+      for (Schema s : referencedSchemas)
+        names.add(s);
+      StringWriter writer = new StringWriter();
+      JsonGenerator gen = FACTORY.createGenerator(writer);
+      if (pretty)
+        gen.useDefaultPrettyPrinter();
+      toJson(names, gen);
+      gen.flush();
+      return writer.toString();
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    }
+  }
+
   void toJson(Names names, JsonGenerator gen) throws IOException {
     if (!hasProps()) { // no props defined
       gen.writeString(getName()); // just write name
@@ -1318,6 +1343,16 @@ public abstract class Schema extends JsonProperties implements Serializable {
       return this;
     }
 
+    /**
+     * Adds the provided types to the set of defined, named types known to this
+     * parser.
+     */
+    public Parser addTypes(Iterable<Schema> types) {
+      for (Schema s : types)
+        names.add(s);
+      return this;
+    }
+
     /** Returns the set of defined, named types known to this parser. */
     public Map<String, Schema> getTypes() {
       Map<String, Schema> result = new LinkedHashMap<>();
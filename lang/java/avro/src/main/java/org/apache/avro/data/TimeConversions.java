@@ -173,10 +173,9 @@ public class TimeConversions {
 
     @Override
     public Instant fromLong(Long microsFromEpoch, Schema schema, LogicalType type) {
-      long epochSeconds = microsFromEpoch / (1_000_000);
-      long nanoAdjustment = (microsFromEpoch % (1_000_000)) * 1_000;
-
-      return Instant.ofEpochSecond(epochSeconds, nanoAdjustment);
+      long micros = microsFromEpoch;
+      // with the nanoseconds already in range, Instant has nothing to adjust
+      return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000);
     }
 
     @Override
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+
+/**
+ * Reads a data file without blocking, one block at a time. File reads use an
+ * {@link AsynchronousFileChannel}, and blocks are decompressed and decoded on a
+ * supplied {@link Executor}. Nothing is read ahead of a call to
+ * {@link #nextBlock()}, so a consumer controls the rate at which blocks are
+ * read: backpressure has the granularity of a block.
+ * <p/>
+ * To adapt this to a reactive API, request one block per unit of demand and
+ * deliver its entries when the returned future completes.
+ *
+ * @see AsyncDataFileWriter
+ */
+public class AsyncDataFileReader<D> implements Closeable {
+  private static final int READ_SIZE = 64 * 1024;
+
+  private final AsynchronousFileChannel channel;
+  private final Executor executor;
+  private final DataFileReader<D> reader;
+  private final BlockInput input;
+  private final AtomicBoolean reading = new AtomicBoolean();
+  private long position; // of the next block
+  private ByteBuffer pending; // bytes read from position, not yet decoded
+
+  private AsyncDataFileReader(AsynchronousFileChannel channel, Executor executor, DatumReader<D> datumReader,
+      DataFileReader<D> headerReader, byte[] head) throws IOException {
+    this.channel = channel;
+    this.executor = executor;
+    this.input = new BlockInput();
+    this.reader = new DataFileReader<>(input, datumReader, headerReader.getHeader());
+    this.position = headerReader.previousSync();
+    this.pending = ByteBuffer.wrap(head, (int) position, head.length - (int) position);
+  }
+
+  /**
+   * Open a data file, reading its header without blocking.
+   *
+   * @param file        the file to read.
+   * @param datumReader used to decode entries.
+   * @param executor    runs decompression and decoding.
+   */
+  public static <D> CompletableFuture<AsyncDataFileReader<D>> open(Path file, DatumReader<D> datumReader,
+      Executor executor) {
+    AsynchronousFileChannel channel;
+    try {
+      channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+    } catch (IOException e) {
+      return failed(e);
+    }
+    CompletableFuture<AsyncDataFileReader<D>> opened = readHeader(channel, new byte[0], datumReader, executor);
+    opened.whenComplete((reader, e) -> {
+      if (e != null) {
+        closeQuietly(channel);
+      }
+    });
+    return opened;
+  }
+
+  /** Read until the bytes read hold a complete header. */
+  private static <D> CompletableFuture<AsyncDataFileReader<D>> readHeader(AsynchronousFileChannel channel, byte[] head,
+      DatumReader<D> datumReader, Executor executor) {
+    return read(channel, ByteBuffer.allocate(Math.max(READ_SIZE, head.length)), head.length)
+        .thenComposeAsync(buffer -> {
+          byte[] more = Arrays.copyOf(head, head.length + buffer.remaining());
+          buffer.get(more, head.length, buffer.remaining());
+          try {
+            DataFileReader<D> headerReader = new DataFileReader<>(new SeekableByteArrayInput(more), datumReader);
+            return CompletableFuture
+                .completedFuture(new AsyncDataFileReader<>(channel, executor, datumReader, headerReader, more));
+          } catch (IOException e) {
+            boolean truncated = e instanceof EOFException || e.getCause() instanceof EOFException;
+            if (!truncated || more.length == head.length) {
+              throw new CompletionException(e);
+            }
+            return readHeader(channel, more, datumReader, executor);
+          }
+        }, executor);
+  }
+
+  /** Return the schema used in this file. */
+  public Schema getSchema() {
+    return reader.getSchema();
+  }
+
+  /** Return the value of a metadata property. */
+  public byte[] getMeta(String key) {
+    return reader.getMeta(key);
+  }
+
+  /**
+   * Read and decode the next block. Only one block may be requested at a time:
+   * call this again once the returned future has completed.
+   *
+   * @return the block's entries, or null at the end of the file.
+   */
+  public CompletableFuture<List<D>> nextBlock() {
+    if (!reading.compareAndSet(false, true)) {
+      throw new IllegalStateException("A block is already being read");
+    }
+    return readBlock().thenApplyAsync(this::decode, executor).whenComplete((entries, e) -> reading.set(false));
+  }
+
+  /** Read the bytes of the next block, or null at the end of the file. */
+  private CompletableFuture<ByteBuffer> readBlock() {
+    if (pending.remaining() == 0) {
+      return read(channel, ByteBuffer.allocate(READ_SIZE), position).thenCompose(buffer -> {
+        if (buffer.remaining() == 0) {
+          return CompletableFuture.completedFuture(null);
+        }
+        pending = buffer;
+        return readBlock();
+      });
+    }
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(pending.array(),
+        pending.arrayOffset() + pending.position(), pending.remaining(), null);
+    long length;
+    try {
+      decoder.readLong(); // entry count
+      long size = decoder.readLong();
+      if (size < 0 || size > Integer.MAX_VALUE) {
+        throw new IOException("Block size invalid or too large for this implementation: " + size);
+      }
+      length = pending.remaining() - decoder.inputStream().available() + size + DataFileConstants.SYNC_SIZE;
+    } catch (EOFException e) {
+      return readMore(pending.remaining() + READ_SIZE);
+    } catch (IOException e) {
+      return failed(e);
+    }
+    if (length > pending.remaining()) {
+      return readMore(Math.max(length, READ_SIZE));
+    }
+    ByteBuffer block = pending.duplicate();
+    block.limit(block.position() + (int) length);
+    pending.position(pending.position() + (int) length);
+    position += length;
+    return CompletableFuture.completedFuture(block);
+  }
+
+  /** Extend the pending bytes to a length, then read a block from them. */
+  private CompletableFuture<ByteBuffer> readMore(long length) {
+    if (length > Integer.MAX_VALUE) {
+      return failed(new IOException("Block too large: " + length));
+    }
+    ByteBuffer head = pending.slice();
+    int have = head.remaining();
+    return read(channel, ByteBuffer.allocate((int) length - have), position + have).thenCompose(more -> {
+      if (more.remaining() == 0) {
+        throw new CompletionException(new EOFException("Truncated block at " + position));
+      }
+      pending = ByteBuffer.allocate(have + more.remaining());
+      pending.put(head).put(more).flip();
+      return readBlock();
+    });
+  }
+
+  /** Decompress and decode a block's entries. */
+  private List<D> decode(ByteBuffer block) {
+    if (block == null) {
+      return null;
+    }
+    input.set(block.array(), block.arrayOffset() + block.position(), block.remaining());
+    try {
+      reader.seek(0);
+      List<D> entries = new ArrayList<>();
+      while (reader.hasNext()) {
+        entries.add(reader.next());
+      }
+      return entries;
+    } catch (IOException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  /** Read into a buffer until it is full or the end of file, then flip it. */
+  private static CompletableFuture<ByteBuffer> read(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+    CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+    channel.read(buffer, position, buffer, new CompletionHandler<Integer, ByteBuffer>() {
+      @Override
+      public void completed(Integer read, ByteBuffer b) {
+        if (read < 0 || !b.hasRemaining()) {
+          b.flip();
+          result.complete(b);
+        } else {
+          channel.read(b, position + b.position(), b, this);
+        }
+      }
+
+      @Override
+      public void failed(Throwable e, ByteBuffer b) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable e) {
+    CompletableFuture<T> failed = new CompletableFuture<>();
+    failed.completeExceptionally(e);
+    return failed;
+  }
+
+  private static void closeQuietly(AsynchronousFileChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /** The bytes of the block being decoded. */
+  private static class BlockInput implements SeekableInput {
+    private byte[] buf = new byte[0];
+    private int start;
+    private int length;
+    private int position;
+
+    void set(byte[] buf, int start, int length) {
+      this.buf = buf;
+      this.start = start;
+      this.length = length;
+      this.position = 0;
+    }
+
+    @Override
+    public void seek(long p) throws IOException {
+      if (p > length) {
+        throw new EOFException();
+      }
+      position = (int) p;
+    }
+
+    @Override
+    public long tell() throws IOException {
+      return position;
+    }
+
+    @Override
+    public long length() throws IOException {
+      return length;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (position >= length) {
+        return -1;
+      }
+      int n = Math.min(len, length - position);
+      System.arraycopy(buf, start + position, b, off, n);
+      position += n;
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+  }
+}
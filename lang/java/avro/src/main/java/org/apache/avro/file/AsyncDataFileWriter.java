@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+
+/**
+ * Writes a data file without blocking. Entries are appended a block at a time:
+ * each batch is encoded and compressed on a supplied {@link Executor}, then
+ * written with an {@link AsynchronousFileChannel}. Batches are written in the
+ * order they are appended, and the future returned for each completes once it
+ * is written, so a producer can bound the number of blocks in flight.
+ * <p/>
+ * The codec, sync interval and other settings are taken from the
+ * {@link DataFileWriter} this wraps, which must not be used directly
+ * afterwards.
+ *
+ * @see AsyncDataFileReader
+ */
+public class AsyncDataFileWriter<D> {
+  private final DataFileWriter<D> writer;
+  private final Executor executor;
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+  private AsynchronousFileChannel channel;
+  private boolean isOpen;
+  private CompletableFuture<byte[]> encoded; // the last batch encoded
+  private CompletableFuture<Void> written; // the last batch written
+  private long position;
+
+  /**
+   * Construct a writer.
+   *
+   * @param writer   configured, but not yet created, to encode blocks.
+   * @param executor runs encoding and compression.
+   */
+  public AsyncDataFileWriter(DataFileWriter<D> writer, Executor executor) {
+    this.writer = writer;
+    this.executor = executor;
+  }
+
+  /** Open a new file for data matching a schema, and start writing its header. */
+  public synchronized AsyncDataFileWriter<D> create(Schema schema, Path file) throws IOException {
+    if (channel != null) {
+      throw new AvroRuntimeException("already created");
+    }
+    writer.setFlushOnEveryBlock(true);
+    writer.create(schema, buffer);
+    channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    isOpen = true;
+    encoded = CompletableFuture.completedFuture(drain());
+    written = encoded.thenCompose(this::write);
+    return this;
+  }
+
+  /**
+   * Append entries as a block, or as several if they exceed the sync interval.
+   *
+   * @return a future that completes once the entries have been written.
+   */
+  public synchronized CompletableFuture<Void> append(Collection<? extends D> entries) {
+    assertOpen();
+    CompletableFuture<byte[]> block = encoded.thenApplyAsync(previous -> {
+      try {
+        for (D entry : entries) {
+          writer.append(entry);
+        }
+        writer.flush();
+        return drain();
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+    encoded = block;
+    written = written.thenCombine(block, (v, bytes) -> bytes).thenCompose(this::write);
+    return written;
+  }
+
+  /** Return a future that completes once everything appended has been written. */
+  public synchronized CompletableFuture<Void> flush() {
+    assertOpen();
+    return written;
+  }
+
+  /**
+   * Return a future that completes once everything appended has been written and
+   * forced to the storage device.
+   */
+  public synchronized CompletableFuture<Void> fSync() {
+    assertOpen();
+    return written.thenRun(() -> {
+      try {
+        channel.force(false);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    });
+  }
+
+  /** Close the file once everything appended has been written. */
+  public synchronized CompletableFuture<Void> close() {
+    if (!isOpen) {
+      return CompletableFuture.completedFuture(null);
+    }
+    isOpen = false;
+    return written.whenComplete((v, e) -> {
+      try {
+        writer.close();
+        channel.close();
+      } catch (IOException x) {
+        throw new CompletionException(x);
+      }
+    });
+  }
+
+  private void assertOpen() {
+    if (!isOpen) {
+      throw new AvroRuntimeException("not open");
+    }
+  }
+
+  private byte[] drain() {
+    byte[] bytes = buffer.toByteArray();
+    buffer.reset();
+    return bytes;
+  }
+
+  /** Write bytes at the end of the file. Called in order, one at a time. */
+  private CompletableFuture<Void> write(byte[] bytes) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    ByteBuffer source = ByteBuffer.wrap(bytes);
+    channel.write(source, position, source, new CompletionHandler<Integer, ByteBuffer>() {
+      @Override
+      public void completed(Integer count, ByteBuffer b) {
+        position += count;
+        if (b.hasRemaining()) {
+          channel.write(b, position, b, this);
+        } else {
+          result.complete(null);
+        }
+      }
+
+      @Override
+      public void failed(Throwable e, ByteBuffer b) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+}
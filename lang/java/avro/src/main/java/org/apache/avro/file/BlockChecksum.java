@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import org.apache.avro.AvroRuntimeException;
+
+/**
+ * The optional checksum stored at the end of each block of a data file whose
+ * metadata contains {@link DataFileConstants#BLOCK_CHECKSUM}. The checksum is
+ * computed over the block as stored, i.e. after compression, so that it can be
+ * verified without decompressing the block. It is written as a 4-byte
+ * big-endian value and included in the block's size.
+ */
+final class BlockChecksum {
+  static final int SIZE = 4;
+
+  private final String name;
+  private final Checksum checksum;
+  private final byte[] bytes = new byte[SIZE];
+
+  private BlockChecksum(String name, Checksum checksum) {
+    this.name = name;
+    this.checksum = checksum;
+  }
+
+  /**
+   * The checksum to use when writing: CRC32C where the JVM provides it (Java 9
+   * and later), CRC32 otherwise. Both are hardware accelerated on common
+   * platforms.
+   */
+  static BlockChecksum best() {
+    Checksum crc32c = newCrc32c();
+    if (crc32c != null) {
+      return new BlockChecksum(DataFileConstants.CRC32C_CHECKSUM, crc32c);
+    }
+    return new BlockChecksum(DataFileConstants.CRC32_CHECKSUM, new CRC32());
+  }
+
+  /**
+   * The checksum with the given metadata name, or null if name is null. A CRC32C
+   * checksum that cannot be computed on this JVM is returned as unavailable: its
+   * blocks can still be read, but not verified.
+   */
+  static BlockChecksum forName(String name) {
+    if (name == null) {
+      return null;
+    } else if (DataFileConstants.CRC32_CHECKSUM.equals(name)) {
+      return new BlockChecksum(name, new CRC32());
+    } else if (DataFileConstants.CRC32C_CHECKSUM.equals(name)) {
+      return new BlockChecksum(name, newCrc32c());
+    }
+    throw new AvroRuntimeException("Unrecognized block checksum: " + name);
+  }
+
+  private static Checksum newCrc32c() {
+    try {
+      return Class.forName("java.util.zip.CRC32C").asSubclass(Checksum.class).getConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /** True if this checksum can be computed on this JVM. */
+  boolean isAvailable() {
+    return checksum != null;
+  }
+
+  int compute(byte[] data, int offset, int length) {
+    checksum.reset();
+    checksum.update(data, offset, length);
+    return (int) checksum.getValue();
+  }
+
+  /** Compute the checksum of a range, returning it in its stored form. */
+  byte[] computeBytes(byte[] data, int offset, int length) {
+    int value = compute(data, offset, length);
+    bytes[0] = (byte) (value >>> 24);
+    bytes[1] = (byte) (value >>> 16);
+    bytes[2] = (byte) (value >>> 8);
+    bytes[3] = (byte) value;
+    return bytes;
+  }
+
+  /** Return true if the checksum stored after a range matches the range. */
+  boolean matches(byte[] data, int offset, int length) {
+    int stored = ((data[offset + length] & 0xff) << 24) | ((data[offset + length + 1] & 0xff) << 16)
+        | ((data[offset + length + 2] & 0xff) << 8) | (data[offset + length + 3] & 0xff);
+    return stored == compute(data, offset, length);
+  }
+}
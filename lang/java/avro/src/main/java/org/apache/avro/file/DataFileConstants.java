@@ -40,4 +40,8 @@ public class DataFileConstants {
   public static final String XZ_CODEC = "xz";
   public static final String ZSTANDARD_CODEC = "zstandard";
 
+  public static final String BLOCK_CHECKSUM = "avro.block.checksum";
+  public static final String CRC32_CHECKSUM = "crc32";
+  public static final String CRC32C_CHECKSUM = "crc32c";
+
 }
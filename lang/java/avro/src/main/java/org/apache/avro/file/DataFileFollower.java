@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+
+/**
+ * Reads a data file that is still being written, like <tt>tail -f</tt>. When
+ * all complete blocks have been read, the follower waits for the writer to
+ * append more, then continues decoding from where it stopped, without reopening
+ * the file or parsing its header again. Only complete blocks are read, so the
+ * writer should flush after each block, see
+ * {@link DataFileWriter#setFlushOnEveryBlock(boolean)}.
+ * <p/>
+ * New data is noticed through a {@link WatchService} on the file's directory
+ * where the platform supports it, and by polling the file's length. The poll
+ * interval starts at a minimum and doubles while nothing changes, up to a
+ * maximum that bounds the latency when no change notification arrives.
+ * <p/>
+ * {@link #hasNext()} blocks until an entry is available, returning false only
+ * once the follower is closed. Use {@link #poll(long, TimeUnit)} or
+ * {@link #nextBatch(Collection, int, long, TimeUnit)} to wait with a timeout.
+ *
+ * @see DataFileReader
+ */
+public class DataFileFollower<D> implements Iterator<D>, Iterable<D>, Closeable {
+  private static final int MAX_BLOCK_HEADER = 20; // two longs
+
+  private final DataFileReader<D> reader;
+  private final FileChannel channel;
+  private final ByteBuffer headerBuffer = ByteBuffer.allocate(MAX_BLOCK_HEADER);
+  private BinaryDecoder headerDecoder;
+  private WatchService watcher;
+  private long complete; // end of the last known complete block
+  private long minPollNanos = TimeUnit.MILLISECONDS.toNanos(1);
+  private long maxPollNanos = TimeUnit.MILLISECONDS.toNanos(100);
+  private volatile boolean closed;
+
+  /**
+   * Construct a follower for a data file. The file's header must already have
+   * been written.
+   */
+  public DataFileFollower(File file, DatumReader<D> reader) throws IOException {
+    this.reader = new DataFileReader<>(file, reader);
+    try {
+      this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      this.complete = this.reader.previousSync();
+      this.watcher = watch(file.toPath());
+    } catch (IOException | RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private static WatchService watch(Path file) {
+    Path dir = file.toAbsolutePath().getParent();
+    try {
+      WatchService watcher = dir.getFileSystem().newWatchService();
+      dir.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY);
+      return watcher;
+    } catch (IOException | UnsupportedOperationException e) {
+      return null; // poll only
+    }
+  }
+
+  /**
+   * Set the interval between checks for new data, starting at a minimum and
+   * backing off to a maximum while the file does not change. The maximum bounds
+   * the latency of noticing new blocks. Defaults to 1ms and 100ms.
+   */
+  public DataFileFollower<D> setPollInterval(long min, long max, TimeUnit unit) {
+    if (min <= 0 || max < min) {
+      throw new IllegalArgumentException("Invalid poll interval: " + min + ", " + max);
+    }
+    this.minPollNanos = unit.toNanos(min);
+    this.maxPollNanos = unit.toNanos(max);
+    return this;
+  }
+
+  /** Return the schema used in this file. */
+  public Schema getSchema() {
+    return reader.getSchema();
+  }
+
+  /** Return the value of a metadata property. */
+  public byte[] getMeta(String key) {
+    return reader.getMeta(key);
+  }
+
+  /** Return the last synchronization point before the next entry. */
+  public long previousSync() {
+    return reader.previousSync();
+  }
+
+  /**
+   * Wait up to a timeout for an entry to be available.
+   *
+   * @return true if an entry can be read without waiting, false if the timeout
+   *         elapsed or the follower was closed.
+   */
+  public boolean await(long timeout, TimeUnit unit) throws IOException {
+    return await(unit.toNanos(timeout), false);
+  }
+
+  private boolean await(long timeoutNanos, boolean forever) throws IOException {
+    if (available()) {
+      return true;
+    }
+    long deadline = System.nanoTime() + timeoutNanos;
+    long interval = minPollNanos;
+    while (!closed) {
+      long remaining = forever ? interval : deadline - System.nanoTime();
+      if (remaining <= 0 || !sleep(Math.min(interval, remaining))) {
+        return false;
+      }
+      if (available()) {
+        return true;
+      }
+      interval = Math.min(interval * 2, maxPollNanos);
+    }
+    return false;
+  }
+
+  /**
+   * Return the next entry, waiting up to a timeout for one to become available.
+   *
+   * @return the entry, or null if none was available in time.
+   */
+  public D poll(long timeout, TimeUnit unit) throws IOException {
+    return await(timeout, unit) ? reader.next() : null;
+  }
+
+  /**
+   * Add up to a number of entries to a batch, waiting up to a timeout for the
+   * first. Further entries are added only while they are available without
+   * waiting.
+   *
+   * @return the number of entries added.
+   */
+  public int nextBatch(Collection<? super D> batch, int max, long timeout, TimeUnit unit) throws IOException {
+    int added = 0;
+    if (max > 0 && await(timeout, unit)) {
+      do {
+        batch.add(reader.next());
+        added++;
+      } while (added < max && available());
+    }
+    return added;
+  }
+
+  /** Wait until an entry is available, returning false only once closed. */
+  @Override
+  public boolean hasNext() {
+    try {
+      return await(0, true);
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    }
+  }
+
+  /** Return the next entry, waiting until one is available. */
+  @Override
+  public D next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return reader.next();
+  }
+
+  @Override
+  public Iterator<D> iterator() {
+    return this;
+  }
+
+  /** Return true if an entry can be read from the complete blocks. */
+  private boolean available() throws IOException {
+    if (closed) {
+      return false;
+    }
+    if (reader.blockRemaining > 0) {
+      return true;
+    }
+    long position = reader.previousSync();
+    if (position >= complete) {
+      long end = complete;
+      scan();
+      if (complete == end) {
+        return false;
+      }
+      reader.seek(position); // the decoder may have seen the old end of file
+    }
+    return reader.hasNext();
+  }
+
+  /** Advance past the blocks that have been completely written. */
+  private void scan() throws IOException {
+    long length = channel.size();
+    while (complete < length) {
+      headerBuffer.clear();
+      int n = 0;
+      while (headerBuffer.hasRemaining()) {
+        int read = channel.read(headerBuffer, complete + n);
+        if (read < 0) {
+          break;
+        }
+        n += read;
+      }
+      headerDecoder = DecoderFactory.get().binaryDecoder(headerBuffer.array(), 0, n, headerDecoder);
+      long size;
+      try {
+        headerDecoder.readLong(); // block count
+        size = headerDecoder.readLong();
+      } catch (EOFException e) {
+        return; // header not yet written
+      }
+      long end = complete + (n - headerDecoder.inputStream().available()) + size + DataFileConstants.SYNC_SIZE;
+      if (size < 0 || end > length) {
+        return; // not yet completely written
+      }
+      complete = end;
+    }
+  }
+
+  /** Wait for a change to the file, or the interval. */
+  private boolean sleep(long nanos) throws IOException {
+    try {
+      if (watcher == null) {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+        return !closed;
+      }
+      WatchKey key = watcher.poll(nanos, TimeUnit.NANOSECONDS);
+      if (key != null) {
+        key.pollEvents();
+        key.reset();
+      }
+      return !closed;
+    } catch (ClosedWatchServiceException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while following data file");
+    }
+  }
+
+  /**
+   * Close the file. Threads waiting for entries return within the maximum poll
+   * interval.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      if (watcher != null) {
+        watcher.close();
+      }
+      if (channel != null) {
+        channel.close();
+      }
+    } finally {
+      reader.close();
+    }
+  }
+}
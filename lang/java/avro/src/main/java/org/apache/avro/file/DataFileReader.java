@@ -18,12 +18,18 @@
 package org.apache.avro.file;
 
 import java.io.IOException;
-import java.io.EOFException;
 import java.io.InputStream;
 import java.io.File;
 import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.InvalidAvroMagicException;
+import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.avro.io.DatumReader;
@@ -38,6 +44,7 @@ import static org.apache.avro.file.DataFileConstants.MAGIC;
 public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D> {
   private SeekableInputStream sin;
   private long blockStart;
+  private SyncMarkerScanner syncScanner;
 
   /** Open a reader for a file. */
   public static <D> FileReader<D> openReader(File file, DatumReader<D> reader) throws IOException {
@@ -150,29 +157,13 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
       initialize(sin); // re-init to skip header
       return;
     }
-    try {
-      int i = 0, b;
-      InputStream in = vin.inputStream();
-      vin.readFixed(syncBuffer);
-      do {
-        int j = 0;
-        for (; j < SYNC_SIZE; j++) {
-          if (getHeader().sync[j] != syncBuffer[(i + j) % SYNC_SIZE])
-            break;
-        }
-        if (j == SYNC_SIZE) { // matched a complete sync
-          blockStart = position + i + SYNC_SIZE;
-          return;
-        }
-        b = in.read();
-        syncBuffer[i++ % SYNC_SIZE] = (byte) b;
-      } while (b != -1);
-    } catch (EOFException e) {
-      // fall through
+    if (syncScanner == null) {
+      syncScanner = new SyncMarkerScanner(getHeader());
     }
-    // if no match or EOF set start to the end position
-    blockStart = sin.tell();
-    // System.out.println("block start location after EOF: " + blockStart );
+    long length = sin.length();
+    long found = syncScanner.find(sin, position, length);
+    // if no match set start to the end position
+    seek(found < 0 ? length : found + SYNC_SIZE);
   }
 
   @Override
@@ -196,6 +187,56 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
     return sin.tell();
   }
 
+  /**
+   * Return a sequential stream of the entries not yet read. Closing the stream
+   * does not close this reader.
+   */
+  public Stream<D> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
+  }
+
+  /**
+   * Return a parallel stream of the entries from {@link #previousSync()} to the
+   * end of the file. The file is split into byte ranges at sync markers, each
+   * read with its own view of the input, decompressor and {@link DatumReader}.
+   * Readers for the ranges are created like this reader, which must be a
+   * {@link GenericDatumReader}; otherwise use {@link #parallelStream(Supplier)}.
+   * <p/>
+   * Files and byte arrays can be split; other inputs are decoded sequentially.
+   * This reader's position is undefined while and after the stream is used.
+   */
+  @SuppressWarnings("unchecked")
+  public Stream<D> parallelStream() {
+    if (!(getDatumReader() instanceof GenericDatumReader)) {
+      throw new UnsupportedOperationException("Can't create readers like " + getDatumReader().getClass());
+    }
+    GenericDatumReader<D> reader = (GenericDatumReader<D>) getDatumReader();
+    return parallelStream(() -> (DatumReader<D>) reader.getData().createDatumReader(getSchema(), reader.getExpected()));
+  }
+
+  /**
+   * Return a parallel stream of the entries from {@link #previousSync()} to the
+   * end of the file, creating a {@link DatumReader} for each range of the file
+   * read in parallel.
+   *
+   * @see #parallelStream()
+   */
+  public Stream<D> parallelStream(Supplier<? extends DatumReader<D>> readers) {
+    long start = previousSync();
+    DataFileSpliterator.Views views = DataFileSpliterator.viewsOf(sin.in);
+    try {
+      if (views == null) {
+        seek(start);
+        return stream().parallel();
+      }
+      return StreamSupport.stream(
+          new DataFileSpliterator<>(getHeader(), views, readers, start, sin.length(), DataFileSpliterator.MIN_SPLIT),
+          true);
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    }
+  }
+
   static class SeekableInputStream extends InputStream implements SeekableInput {
     private final byte[] oneByte = new byte[1];
     private SeekableInput in;
@@ -247,12 +288,11 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
       long length = in.length();
       long remaining = length - position;
       if (remaining > skip) {
-        in.seek(skip);
-        return in.tell() - position;
+        in.seek(position + skip);
       } else {
-        in.seek(remaining);
-        return in.tell() - position;
+        in.seek(length);
       }
+      return in.tell() - position;
     }
 
     @Override
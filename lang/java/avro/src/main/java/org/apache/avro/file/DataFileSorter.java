@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryComparator;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+
+/**
+ * Sorts the entries of data files by their binary encoding, without decoding
+ * them into objects. Entries are ordered as by
+ * {@link org.apache.avro.io.BinaryData#compare(byte[], int, int, byte[], int, int, Schema)},
+ * i.e. following the <tt>order</tt> attributes of the schema's fields.
+ * <p/>
+ * Input is read into memory in chunks, which are sorted in parallel and spilled
+ * to temporary data files ("runs"). The runs are then merged, at most
+ * {@link #setMergeFactor(int) a number} at a time, into the output. Memory use
+ * is bounded by the memory limit plus one block per merged run. Input that fits
+ * in a single chunk is sorted in memory without temporary files.
+ */
+public class DataFileSorter {
+  private final Schema schema;
+  private long memoryLimit = 64L * 1024 * 1024;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private int mergeFactor = 64;
+  private File tempDirectory;
+
+  /** Construct a sorter for entries of a schema. */
+  public DataFileSorter(Schema schema) {
+    this.schema = schema;
+  }
+
+  /**
+   * Set the number of bytes of encoded entries to hold in memory, shared by all
+   * chunks being sorted concurrently. Defaults to 64 MiB.
+   */
+  public DataFileSorter setMemoryLimit(long memoryLimit) {
+    if (memoryLimit < 1024) {
+      throw new IllegalArgumentException("Memory limit too small: " + memoryLimit);
+    }
+    this.memoryLimit = memoryLimit;
+    return this;
+  }
+
+  /**
+   * Set the number of chunks sorted concurrently. Defaults to the number of
+   * available processors.
+   */
+  public DataFileSorter setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of runs merged at once. If there are more runs, they
+   * are first merged into fewer, larger runs. Defaults to 64.
+   */
+  public DataFileSorter setMergeFactor(int mergeFactor) {
+    if (mergeFactor < 2) {
+      throw new IllegalArgumentException("Invalid merge factor: " + mergeFactor);
+    }
+    this.mergeFactor = mergeFactor;
+    return this;
+  }
+
+  /**
+   * Set the directory for temporary run files. Defaults to the system's temporary
+   * directory.
+   */
+  public DataFileSorter setTempDirectory(File tempDirectory) {
+    this.tempDirectory = tempDirectory;
+    return this;
+  }
+
+  /**
+   * Sort all entries of the inputs into an output. The inputs are read to their
+   * end but not closed, the output is synced but not closed.
+   *
+   * @throws IOException if an input's schema differs from the sorter's.
+   */
+  public void sort(List<? extends DataFileStream<?>> inputs, DataFileWriter<?> output) throws IOException {
+    for (DataFileStream<?> input : inputs) {
+      if (!schema.equals(input.getSchema())) {
+        throw new IOException("Schema from file " + input + " does not match");
+      }
+    }
+
+    List<File> runs = new ArrayList<>();
+    try {
+      Chunk single = generateRuns(inputs, runs);
+      if (single != null) { // everything fit in memory
+        single.sort(new BinaryComparator(schema));
+        single.writeTo(output);
+      } else {
+        while (runs.size() > mergeFactor) {
+          List<File> merged = new ArrayList<>();
+          for (int i = 0; i < runs.size(); i += mergeFactor) {
+            List<File> group = runs.subList(i, Math.min(runs.size(), i + mergeFactor));
+            File run = newRunFile();
+            merged.add(run);
+            try (DataFileWriter<Object> writer = newRunWriter(run)) {
+              merge(group, writer);
+            }
+            delete(group);
+          }
+          runs = merged;
+        }
+        merge(runs, output);
+      }
+      output.sync();
+    } finally {
+      delete(runs);
+    }
+  }
+
+  /**
+   * Read the inputs into chunks, sorting and spilling each to a run file. If all
+   * entries fit into a single chunk, return it instead.
+   */
+  private Chunk generateRuns(List<? extends DataFileStream<?>> inputs, List<File> runs) throws IOException {
+    long chunkLimit = Math.max(1024, memoryLimit / parallelism);
+    Semaphore chunks = new Semaphore(parallelism); // bounds the chunks in memory
+    ExecutorService executor = null;
+    List<Future<File>> results = new ArrayList<>();
+    Chunk chunk = new Chunk();
+    try {
+      chunks.acquire();
+      for (DataFileStream<?> input : inputs) {
+        while (input.hasNext()) {
+          ByteBuffer block = input.nextBlock();
+          chunk.add(block, input.getBlockCount());
+          if (chunk.size() >= chunkLimit) {
+            if (executor == null) {
+              executor = Executors.newFixedThreadPool(parallelism);
+            }
+            final Chunk full = chunk;
+            results.add(executor.submit(() -> {
+              try {
+                return spill(full);
+              } finally {
+                chunks.release();
+              }
+            }));
+            chunks.acquire(); // wait for an earlier chunk to be spilled
+            chunk = new Chunk();
+          }
+        }
+      }
+      if (executor == null) {
+        return chunk;
+      }
+      if (chunk.count > 0) {
+        runs.add(spill(chunk));
+      }
+      for (Future<File> result : results) {
+        runs.add(result.get());
+      }
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while sorting", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new AvroRuntimeException(e.getCause());
+    } finally {
+      if (executor != null) {
+        executor.shutdown();
+        for (Future<File> result : results) { // clean up runs not yet in the list
+          try {
+            File run = result.get();
+            if (!runs.contains(run))
+              run.delete();
+          } catch (InterruptedException | ExecutionException e) {
+            // nothing to clean up
+          }
+        }
+      }
+    }
+  }
+
+  private File spill(Chunk chunk) throws IOException {
+    chunk.sort(new BinaryComparator(schema));
+    File run = newRunFile();
+    try (DataFileWriter<Object> writer = newRunWriter(run)) {
+      chunk.writeTo(writer);
+    } catch (IOException | RuntimeException e) {
+      run.delete();
+      throw e;
+    }
+    return run;
+  }
+
+  private File newRunFile() throws IOException {
+    return File.createTempFile("avro-sort-", ".avro", tempDirectory);
+  }
+
+  private DataFileWriter<Object> newRunWriter(File run) throws IOException {
+    DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema));
+    writer.setFlushOnEveryBlock(false);
+    return writer.create(schema, run);
+  }
+
+  private static void delete(List<File> files) {
+    for (File file : files) {
+      file.delete();
+    }
+  }
+
+  /** Merge sorted runs into an output. */
+  private void merge(List<File> runs, DataFileWriter<?> output) throws IOException {
+    BinaryComparator comparator = new BinaryComparator(schema);
+    PriorityQueue<RunCursor> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+        (a, b) -> comparator.compare(a.buf, a.start, a.length, b.buf, b.start, b.length));
+    List<RunCursor> cursors = new ArrayList<>();
+    try {
+      for (File run : runs) {
+        RunCursor cursor = new RunCursor(run);
+        cursors.add(cursor);
+        if (cursor.next()) {
+          queue.add(cursor);
+        }
+      }
+      RunCursor cursor;
+      while ((cursor = queue.poll()) != null) {
+        output.appendEncoded(ByteBuffer.wrap(cursor.buf, cursor.start, cursor.length));
+        if (cursor.next()) {
+          queue.add(cursor);
+        }
+      }
+    } finally {
+      for (RunCursor c : cursors) {
+        c.close();
+      }
+    }
+  }
+
+  /** Iterates over the encoded entries of a run file, one block in memory. */
+  private class RunCursor {
+    private final DataFileStream<Void> in;
+    private BinaryDecoder decoder;
+    private long remaining;
+    private int end;
+    byte[] buf;
+    int start;
+    int length;
+
+    RunCursor(File run) throws IOException {
+      this.in = new DataFileStream<>(new FileInputStream(run), new GenericDatumReader<>());
+    }
+
+    /** Advance to the next entry, returning false at the end of the run. */
+    boolean next() throws IOException {
+      if (remaining == 0) {
+        if (!in.hasNext()) {
+          return false;
+        }
+        ByteBuffer block = in.nextBlock();
+        remaining = in.getBlockCount();
+        buf = block.array();
+        start = block.arrayOffset() + block.position();
+        end = start + block.remaining();
+        length = 0;
+        decoder = DecoderFactory.get().binaryDecoder(buf, start, end - start, decoder);
+      }
+      start += length;
+      GenericDatumReader.skip(schema, decoder);
+      length = end - decoder.inputStream().available() - start;
+      remaining--;
+      return true;
+    }
+
+    void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /** Encoded entries held in memory, with the offset and length of each. */
+  private class Chunk {
+    private byte[] buf = new byte[64 * 1024];
+    private int size;
+    private int[] starts = new int[1024];
+    private int[] lengths = new int[1024];
+    private int[] order;
+    int count;
+
+    int size() {
+      return size;
+    }
+
+    /** Copy a block of entries into this chunk. */
+    void add(ByteBuffer block, long entries) throws IOException {
+      int length = block.remaining();
+      if (buf.length - size < length) {
+        buf = Arrays.copyOf(buf,
+            (int) Math.min(Integer.MAX_VALUE - 8, Math.max(2L * buf.length, (long) size + length)));
+        if (buf.length - size < length) {
+          throw new IOException("Chunk too large to sort in memory");
+        }
+      }
+      block.duplicate().get(buf, size, length);
+      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(buf, size, length, null);
+      int end = size + length;
+      int position = size;
+      for (long i = 0; i < entries; i++) {
+        GenericDatumReader.skip(schema, decoder);
+        int next = end - decoder.inputStream().available();
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, count * 2);
+          lengths = Arrays.copyOf(lengths, count * 2);
+        }
+        starts[count] = position;
+        lengths[count] = next - position;
+        count++;
+        position = next;
+      }
+      size = end;
+    }
+
+    /** Sort the entries, stably, by an index merge sort. */
+    void sort(BinaryComparator comparator) {
+      order = new int[count];
+      for (int i = 0; i < count; i++) {
+        order[i] = i;
+      }
+      mergeSort(order, new int[count], 0, count, comparator);
+    }
+
+    private void mergeSort(int[] a, int[] tmp, int from, int to, BinaryComparator comparator) {
+      if (to - from < 2) {
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      mergeSort(a, tmp, from, mid, comparator);
+      mergeSort(a, tmp, mid, to, comparator);
+      if (compare(a[mid - 1], a[mid], comparator) <= 0) {
+        return; // already in order
+      }
+      System.arraycopy(a, from, tmp, from, to - from);
+      for (int i = from, l = from, r = mid; i < to; i++) {
+        if (r >= to || (l < mid && compare(tmp[l], tmp[r], comparator) <= 0)) {
+          a[i] = tmp[l++];
+        } else {
+          a[i] = tmp[r++];
+        }
+      }
+    }
+
+    private int compare(int i, int j, BinaryComparator comparator) {
+      return comparator.compare(buf, starts[i], lengths[i], buf, starts[j], lengths[j]);
+    }
+
+    void writeTo(DataFileWriter<?> writer) throws IOException {
+      for (int i = 0; i < count; i++) {
+        int e = order[i];
+        writer.appendEncoded(ByteBuffer.wrap(buf, starts[e], lengths[e]));
+      }
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.avro.file.DataFileStream.Header;
+import org.apache.avro.io.DatumReader;
+
+/**
+ * A {@link Spliterator} over the entries of a range of a data file. Ranges are
+ * split at byte offsets and, like Hadoop input splits, a range holds the blocks
+ * whose preceding sync marker starts within it. Each range is read through its
+ * own view of the input, decompressor and {@link DatumReader}, so ranges can be
+ * traversed in parallel.
+ *
+ * @see DataFileReader#parallelStream()
+ */
+class DataFileSpliterator<D> implements Spliterator<D> {
+  static final long MIN_SPLIT = 1024 * 1024;
+
+  /** Opens independent views of the same input. */
+  interface Views {
+    SeekableInput open() throws IOException;
+  }
+
+  private final Header header;
+  private final Views views;
+  private final Supplier<? extends DatumReader<D>> readers;
+  private final long minSplit;
+  private long start;
+  private final long end;
+  private boolean atBlock; // whether start is known to be a block boundary
+  private DataFileReader<D> reader;
+
+  DataFileSpliterator(Header header, Views views, Supplier<? extends DatumReader<D>> readers, long start, long end,
+      long minSplit) {
+    this(header, views, readers, start, end, minSplit, true);
+  }
+
+  private DataFileSpliterator(Header header, Views views, Supplier<? extends DatumReader<D>> readers, long start,
+      long end, long minSplit, boolean atBlock) {
+    this.header = header;
+    this.views = views;
+    this.readers = readers;
+    this.start = start;
+    this.end = end;
+    this.minSplit = minSplit;
+    this.atBlock = atBlock;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super D> action) {
+    try {
+      if (reader == null) {
+        SeekableInput in = views.open();
+        in.seek(start);
+        reader = DataFileReader.openReader(in, readers.get(), header, !atBlock);
+      }
+      if (reader.pastSync(end) || !reader.hasNext()) {
+        return false;
+      }
+      action.accept(reader.next());
+      return true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Spliterator<D> trySplit() {
+    if (views == null || reader != null || end - start < 2 * minSplit) {
+      return null;
+    }
+    long mid = start + (end - start) / 2;
+    Spliterator<D> prefix = new DataFileSpliterator<>(header, views, readers, start, mid, minSplit, atBlock);
+    start = mid;
+    atBlock = false;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return end - start; // bytes, not entries
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED;
+  }
+
+  /** Return views for an input if it can have several, or else null. */
+  static Views viewsOf(SeekableInput in) {
+    if (in instanceof SeekableFileInput) {
+      FileChannel channel = ((SeekableFileInput) in).getChannel();
+      return () -> new ChannelInput(channel);
+    }
+    if (in instanceof SeekableByteArrayInput) {
+      return ((SeekableByteArrayInput) in)::view;
+    }
+    return null;
+  }
+
+  /**
+   * Reads a file channel at its own position, without moving the channel's, so
+   * that several can read the same channel concurrently. Closing it leaves the
+   * channel open.
+   */
+  static class ChannelInput implements SeekableInput {
+    private final FileChannel channel;
+    private long position;
+
+    ChannelInput(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void seek(long p) throws IOException {
+      position = p;
+    }
+
+    @Override
+    public long tell() throws IOException {
+      return position;
+    }
+
+    @Override
+    public long length() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = channel.read(ByteBuffer.wrap(b, off, len), position);
+      if (read > 0) {
+        position += read;
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+  }
+}
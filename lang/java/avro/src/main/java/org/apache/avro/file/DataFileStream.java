@@ -79,6 +79,8 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
   long blockRemaining; // # entries remaining in block
   byte[] syncBuffer = new byte[DataFileConstants.SYNC_SIZE];
   private Codec codec;
+  private BlockChecksum checksum;
+  private boolean verifyChecksums = true;
 
   /**
    * Construct a reader for an input stream. For file-based input, use
@@ -129,6 +131,7 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     header.metaKeyList = Collections.unmodifiableList(header.metaKeyList);
     header.schema = new Schema.Parser().setValidate(false).parse(getMetaString(DataFileConstants.SCHEMA));
     this.codec = resolveCodec();
+    this.checksum = BlockChecksum.forName(getMetaString(DataFileConstants.BLOCK_CHECKSUM));
     reader.setSchema(header.schema);
   }
 
@@ -136,6 +139,7 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
   void initialize(InputStream in, Header header) throws IOException {
     this.header = header;
     this.codec = resolveCodec();
+    this.checksum = BlockChecksum.forName(getMetaString(DataFileConstants.BLOCK_CHECKSUM));
     reader.setSchema(header.schema);
   }
 
@@ -148,6 +152,20 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     }
   }
 
+  /**
+   * Set whether block checksums are verified as blocks are read, for files
+   * written with {@link DataFileWriter#setBlockChecksum(boolean)}. True by
+   * default. Files without block checksums are not affected.
+   */
+  public void setVerifyBlockChecksums(boolean verifyChecksums) {
+    this.verifyChecksums = verifyChecksums;
+  }
+
+  /** True if this file stores a checksum with each block. */
+  public boolean hasBlockChecksums() {
+    return checksum != null;
+  }
+
   /**
    * A handle that can be used to reopen this stream without rereading the head.
    */
@@ -155,6 +173,11 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     return header;
   }
 
+  /** The reader used to decode entries. */
+  DatumReader<D> getDatumReader() {
+    return reader;
+  }
+
   /** Return the schema used in this file. */
   public Schema getSchema() {
     return header.schema;
@@ -262,6 +285,7 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
       throw new IllegalStateException("Not at block start.");
     blockRemaining = 0;
     datumIn = null;
+    blockFinished();
     return blockBuffer;
   }
 
@@ -270,11 +294,44 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     return blockCount;
   }
 
-  /** Expert: Return the size in bytes (uncompressed) of the current block. */
+  /**
+   * Expert: Return the size in bytes of the current block as stored in the file,
+   * i.e. after compression by the file's codec.
+   */
   public long getBlockSize() {
     return blockSize;
   }
 
+  /**
+   * Expert: Skip the next block in the file without decompressing or decoding it.
+   * Only the block header and the trailing sync marker are read, the payload is
+   * skipped over. Afterwards {@link #getBlockCount()} and {@link #getBlockSize()}
+   * describe the skipped block. This is a cheap way to count the entries of a
+   * file or to gather per-block statistics.
+   *
+   * @return false if no more blocks remain in the file.
+   * @throws IllegalStateException if entries of the current block have already
+   *                               been read.
+   */
+  public boolean skipBlock() throws IOException {
+    if (blockRemaining != 0) { // the block was already loaded by hasNext()
+      if (blockRemaining != blockCount)
+        throw new IllegalStateException("Not at block start.");
+    } else {
+      if (!hasNextBlock())
+        return false;
+      vin.skipFixed((int) blockSize);
+      vin.readFixed(syncBuffer);
+      availableBlock = false;
+      if (!Arrays.equals(syncBuffer, header.sync))
+        throw new IOException("Invalid sync!");
+    }
+    blockRemaining = 0;
+    datumIn = null;
+    blockFinished();
+    return true;
+  }
+
   protected void blockFinished() throws IOException {
     // nothing for the stream impl
   }
@@ -300,6 +357,44 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     }
   }
 
+  /**
+   * Expert: Read the next block in the file and verify its checksum, without
+   * decompressing or decoding it. For files without block checksums only the
+   * block framing and sync marker are checked. If verification fails the stream
+   * is positioned after the block, so that the following blocks can still be
+   * verified.
+   *
+   * @return false if no more blocks remain in the file.
+   * @throws IOException           if the block's checksum or sync marker does not
+   *                               match.
+   * @throws IllegalStateException if entries of the current block have already
+   *                               been read.
+   */
+  public boolean verifyBlock() throws IOException {
+    if (blockRemaining != 0) { // the block was already loaded, and verified, by hasNext()
+      if (blockRemaining != blockCount)
+        throw new IllegalStateException("Not at block start.");
+    } else {
+      if (!hasNextBlock())
+        return false;
+      boolean verify = verifyChecksums;
+      verifyChecksums = true;
+      try {
+        block = nextRawBlock(block);
+      } finally {
+        verifyChecksums = verify;
+        blockRemaining = 0;
+        datumIn = null;
+        blockFinished();
+      }
+      return true;
+    }
+    blockRemaining = 0;
+    datumIn = null;
+    blockFinished();
+    return true;
+  }
+
   DataBlock nextRawBlock(DataBlock reuse) throws IOException {
     if (!hasNextBlock()) {
       throw new NoSuchElementException();
@@ -316,6 +411,14 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     availableBlock = false;
     if (!Arrays.equals(syncBuffer, header.sync))
       throw new IOException("Invalid sync!");
+    if (checksum != null) {
+      try {
+        reuse.removeChecksum(checksum, verifyChecksums);
+      } catch (IOException e) {
+        blockRemaining = 0; // skip the corrupt block, the following blocks are intact
+        throw e;
+      }
+    }
     return reuse;
   }
 
@@ -387,10 +490,30 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
       blockSize = result.remaining();
     }
 
-    void writeBlockTo(BinaryEncoder e, byte[] sync) throws IOException {
+    /**
+     * Strip the checksum from the end of this block, first verifying it if
+     * requested and possible on this JVM.
+     */
+    void removeChecksum(BlockChecksum checksum, boolean verify) throws IOException {
+      if (blockSize < BlockChecksum.SIZE) {
+        throw new IOException("Block too small to hold a checksum: " + blockSize);
+      }
+      blockSize -= BlockChecksum.SIZE;
+      if (verify && checksum.isAvailable() && !checksum.matches(data, offset, blockSize)) {
+        throw new IOException("Block checksum failure");
+      }
+    }
+
+    void writeBlockTo(BinaryEncoder e, byte[] sync, BlockChecksum checksum) throws IOException {
       e.writeLong(this.numEntries);
-      e.writeLong(this.blockSize);
-      e.writeFixed(this.data, offset, this.blockSize);
+      if (checksum == null) {
+        e.writeLong(this.blockSize);
+        e.writeFixed(this.data, offset, this.blockSize);
+      } else {
+        e.writeLong(this.blockSize + BlockChecksum.SIZE);
+        e.writeFixed(this.data, offset, this.blockSize);
+        e.writeFixed(checksum.computeBytes(this.data, offset, this.blockSize));
+      }
       e.writeFixed(sync);
       if (flushOnWrite) {
         e.flush();
@@ -75,6 +75,7 @@ public class DataFileWriter<D> implements Closeable, Flushable {
 
   private boolean isOpen;
   private Codec codec;
+  private BlockChecksum checksum;
 
   private boolean flushOnEveryBlock = true;
 
@@ -104,6 +105,32 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     return this;
   }
 
+  /**
+   * Configures this writer to store a checksum with each block, so that readers
+   * can detect corrupt blocks without decompressing or decoding them. CRC32C is
+   * used where the JVM provides it, CRC32 otherwise. May not be reset after
+   * writes have begun.
+   * <p/>
+   * Off by default. Checksums change the container layout, as each block is
+   * followed by its checksum, so files written with them can only be read by
+   * readers that support the {@value DataFileConstants#BLOCK_CHECKSUM} metadata
+   * key that records the checksum used. When appending to an existing file, the
+   * setting of that file is kept.
+   *
+   * @see DataFileStream#verifyBlock()
+   */
+  public DataFileWriter<D> setBlockChecksum(boolean enabled) {
+    assertNotOpen();
+    if (enabled) {
+      this.checksum = BlockChecksum.best();
+      setMetaInternal(DataFileConstants.BLOCK_CHECKSUM, checksum.getName());
+    } else {
+      this.checksum = null;
+      meta.remove(DataFileConstants.BLOCK_CHECKSUM);
+    }
+    return this;
+  }
+
   /**
    * Set the synchronization interval for this file, in bytes. Valid values range
    * from 32 to 2^30 Suggested values are between 2K and 2M
@@ -228,6 +255,17 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     } else {
       this.codec = CodecFactory.nullCodec().createInstance();
     }
+    // blocks must match the file's header, whatever was set before
+    byte[] checksumBytes = reader.getHeader().meta.get(DataFileConstants.BLOCK_CHECKSUM);
+    if (checksumBytes != null) {
+      this.checksum = BlockChecksum.forName(new String(checksumBytes, StandardCharsets.UTF_8));
+      if (!checksum.isAvailable()) {
+        throw new AvroRuntimeException("Block checksum not supported by this JVM: " + checksum.getName());
+      }
+    } else {
+      this.checksum = null;
+      this.meta.remove(DataFileConstants.BLOCK_CHECKSUM);
+    }
 
     init(out);
 
@@ -385,14 +423,14 @@ public class DataFileWriter<D> implements Closeable, Flushable {
       // copy raw bytes
       while (otherFile.hasNextBlock()) {
         nextBlockRaw = otherFile.nextRawBlock(nextBlockRaw);
-        nextBlockRaw.writeBlockTo(vout, sync);
+        nextBlockRaw.writeBlockTo(vout, sync, checksum);
       }
     } else {
       while (otherFile.hasNextBlock()) {
         nextBlockRaw = otherFile.nextRawBlock(nextBlockRaw);
         nextBlockRaw.decompressUsing(otherCodec);
         nextBlockRaw.compressUsing(codec);
-        nextBlockRaw.writeBlockTo(vout, sync);
+        nextBlockRaw.writeBlockTo(vout, sync, checksum);
       }
     }
   }
@@ -405,7 +443,7 @@ public class DataFileWriter<D> implements Closeable, Flushable {
         DataBlock block = new DataBlock(uncompressed, blockCount);
         block.setFlushOnWrite(flushOnEveryBlock);
         block.compressUsing(codec);
-        block.writeBlockTo(vout, sync);
+        block.writeBlockTo(vout, sync, checksum);
       } finally {
         buffer.reset();
         blockCount = 0;
@@ -413,6 +451,17 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     }
   }
 
+  /**
+   * Write a block that was encoded and compressed elsewhere, e.g. by a
+   * {@link ShardedDataFileWriter}. Must not be mixed with {@link #append(Object)}
+   * between syncs.
+   */
+  void writeRawBlock(DataBlock block) throws IOException {
+    assertOpen();
+    block.setFlushOnWrite(flushOnEveryBlock);
+    block.writeBlockTo(vout, sync, checksum);
+  }
+
   /**
    * Return the current position as a value that may be passed to
    * {@link DataFileReader#seek(long)}. Forces the end of the current block,
@@ -444,6 +493,8 @@ public class DataFileWriter<D> implements Closeable, Flushable {
    * writer to disk. In other cases, this method behaves exactly like
    * {@linkplain #flush()}.
    *
+   * To share syncs between many writers, use a {@linkplain GroupCommitter}.
+   *
    * @throws IOException
    */
   public void fSync() throws IOException {
@@ -453,6 +504,19 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     }
   }
 
+  /** The output to sync to make this writer's data durable, or null if none. */
+  Syncable getSyncable() {
+    return underlyingStream instanceof Syncable ? (Syncable) underlyingStream : null;
+  }
+
+  /**
+   * The position in the file at which the next block will start, counting blocks
+   * not yet flushed. Changes only when a block is written.
+   */
+  long position() {
+    return out.tell() + vout.bytesBuffered();
+  }
+
   /** Flush and close the file. */
   @Override
   public void close() throws IOException {
@@ -500,7 +564,7 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     }
   }
 
-  private static class NonCopyingByteArrayOutputStream extends ByteArrayOutputStream {
+  static class NonCopyingByteArrayOutputStream extends ByteArrayOutputStream {
     NonCopyingByteArrayOutputStream(int initialSize) {
       super(initialSize);
     }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.AvroRuntimeException;
+
+/**
+ * Coalesces {@link DataFileWriter#fSync()} requests from many writers. Each
+ * writer calls {@link #commit(DataFileWriter)} instead of
+ * {@link DataFileWriter#fSync()}: its buffered data is flushed to the operating
+ * system right away, while forcing it to disk is left to a background thread.
+ * That thread waits until either a number of requests are pending or the oldest
+ * pending request has waited for a maximum delay, and then syncs each file of
+ * the group once, however many requests it has pending. The future returned by
+ * {@link #commit(DataFileWriter)} completes once the data is durable.
+ * <p/>
+ * Writers themselves are still not thread-safe: a writer must only be used by
+ * one thread at a time, but many writers, each on its own thread, may share a
+ * single committer.
+ */
+public class GroupCommitter implements Closeable {
+
+  /** Notified after each group commit, on the committer's thread. */
+  public interface Listener {
+    /**
+     * @param requests     the number of commit requests completed.
+     * @param files        the number of distinct files that were synced.
+     * @param latencyNanos the time from the oldest request of the group until its
+     *                     data was durable.
+     */
+    void committed(int requests, int files, long latencyNanos);
+  }
+
+  private static class Request {
+    final Syncable out;
+    final long position;
+    final long startNanos;
+    final CompletableFuture<Long> future = new CompletableFuture<>();
+
+    Request(Syncable out, long position, long startNanos) {
+      this.out = out;
+      this.position = position;
+      this.startNanos = startNanos;
+    }
+  }
+
+  private final long maxDelayNanos;
+  private final int maxRequests;
+  private final Listener listener;
+  private final Thread thread;
+
+  private final Object lock = new Object();
+  private List<Request> pending = new ArrayList<>();
+  private boolean closed;
+
+  /**
+   * Construct a committer and start its thread.
+   *
+   * @param maxDelay    the longest time a request waits for other requests to
+   *                    join its group.
+   * @param unit        the unit of maxDelay.
+   * @param maxRequests the number of pending requests that triggers a commit
+   *                    without waiting for maxDelay.
+   */
+  public GroupCommitter(long maxDelay, TimeUnit unit, int maxRequests) {
+    this(maxDelay, unit, maxRequests, null);
+  }
+
+  /**
+   * Construct a committer that reports each commit to a listener.
+   *
+   * @see #GroupCommitter(long, TimeUnit, int)
+   */
+  public GroupCommitter(long maxDelay, TimeUnit unit, int maxRequests, Listener listener) {
+    if (maxDelay < 0 || maxRequests < 1) {
+      throw new IllegalArgumentException("Invalid maxDelay or maxRequests: " + maxDelay + ", " + maxRequests);
+    }
+    this.maxDelayNanos = unit.toNanos(maxDelay);
+    this.maxRequests = maxRequests;
+    this.listener = listener;
+    this.thread = new Thread(this::run, "avro-group-commit");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Flush a writer's data to the operating system and request that it be synced
+   * to disk with the next group. This is called by the writer's thread in place
+   * of {@link DataFileWriter#fSync()}. If the writer's output is not
+   * {@link Syncable} the returned future is already complete.
+   *
+   * @return a future that completes with the position returned by
+   *         {@link DataFileWriter#sync()} once the data up to it is durable, or
+   *         exceptionally if syncing the file failed.
+   */
+  public CompletableFuture<Long> commit(DataFileWriter<?> writer) throws IOException {
+    long position = writer.sync();
+    writer.flush();
+    Syncable out = writer.getSyncable();
+    if (out == null) {
+      return CompletableFuture.completedFuture(position);
+    }
+    Request request = new Request(out, position, System.nanoTime());
+    synchronized (lock) {
+      if (closed) {
+        throw new AvroRuntimeException("Group committer is closed");
+      }
+      pending.add(request);
+      if (pending.size() == 1 || pending.size() >= maxRequests) {
+        lock.notifyAll();
+      }
+    }
+    return request.future;
+  }
+
+  private void run() {
+    while (true) {
+      List<Request> group;
+      synchronized (lock) {
+        try {
+          while (!ready()) {
+            if (pending.isEmpty()) {
+              lock.wait();
+            } else {
+              long waited = System.nanoTime() - pending.get(0).startNanos;
+              TimeUnit.NANOSECONDS.timedWait(lock, maxDelayNanos - waited);
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          closed = true;
+        }
+        if (pending.isEmpty()) {
+          return; // closed
+        }
+        group = pending;
+        pending = new ArrayList<>();
+      }
+      try {
+        commitGroup(group);
+      } catch (Throwable t) { // such as from the listener: keep committing
+        for (Request request : group) {
+          request.future.completeExceptionally(t); // unless already complete
+        }
+      }
+    }
+  }
+
+  /** True if the pending requests should be committed now. Holds lock. */
+  private boolean ready() {
+    if (closed) {
+      return true;
+    }
+    if (pending.isEmpty()) {
+      return false;
+    }
+    return pending.size() >= maxRequests || System.nanoTime() - pending.get(0).startNanos >= maxDelayNanos;
+  }
+
+  private void commitGroup(List<Request> group) {
+    Map<Syncable, Throwable> synced = new IdentityHashMap<>();
+    for (Request request : group) {
+      if (!synced.containsKey(request.out)) {
+        Throwable failure = null;
+        try {
+          request.out.sync();
+        } catch (Throwable t) {
+          failure = t;
+        }
+        synced.put(request.out, failure);
+      }
+    }
+    long latency = System.nanoTime() - group.get(0).startNanos;
+    for (Request request : group) {
+      Throwable failure = synced.get(request.out);
+      if (failure == null) {
+        request.future.complete(request.position);
+      } else {
+        request.future.completeExceptionally(failure);
+      }
+    }
+    if (listener != null) {
+      listener.committed(group.size(), synced.size(), latency);
+    }
+  }
+
+  /**
+   * Commit any pending requests and stop the committer's thread. Further calls to
+   * {@link #commit(DataFileWriter)} fail.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while closing group committer", e);
+    }
+  }
+}
@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+
+/**
+ * Writes a sequence of data files, rolling over to a new file once the current
+ * one holds a number of bytes or entries, or has been open for some time. So
+ * that rolling over does not stall appends, the next file is created ahead of
+ * time and completed files are closed on a background thread, after which a
+ * {@link Listener} is told about them. The background thread can also flush the
+ * current file periodically.
+ * <p/>
+ * Size is checked as blocks are written, so files may exceed the maximum size
+ * by up to a block.
+ */
+public class RollingDataFileWriter<D> implements Closeable, Flushable {
+
+  /** Notified when a file is complete, on a background thread. */
+  public interface Listener {
+    /**
+     * @param file           the completed file.
+     * @param blockPositions the start of each block, for
+     *                       {@link DataFileReader#seek(long)}.
+     * @param records        the number of entries in the file.
+     */
+    void completed(File file, long[] blockPositions, long records);
+  }
+
+  /** A file being written, and an index of its blocks. */
+  private static class Current<D> {
+    final File file;
+    final DataFileWriter<D> writer;
+    long openedNanos;
+    long records;
+    long[] blocks = new long[16];
+    int blockCount;
+    long position;
+
+    Current(File file, DataFileWriter<D> writer) {
+      this.file = file;
+      this.writer = writer;
+      this.position = writer.position();
+    }
+
+    /** Record the start of the block just written, if any. */
+    void indexBlocks() {
+      long p = writer.position();
+      if (p != position) {
+        if (blockCount == blocks.length) {
+          blocks = Arrays.copyOf(blocks, blockCount * 2);
+        }
+        blocks[blockCount++] = position;
+        position = p;
+      }
+    }
+  }
+
+  private final Schema schema;
+  private final Supplier<DataFileWriter<D>> writers;
+  private final LongFunction<File> files;
+  private long maxBytes = Long.MAX_VALUE;
+  private long maxRecords = Long.MAX_VALUE;
+  private long maxAgeNanos = Long.MAX_VALUE;
+  private long flushIntervalNanos;
+  private Listener listener;
+
+  private ExecutorService creator; // creates files ahead of time
+  private ScheduledExecutorService background; // completes files in order, and flushes
+  private Current<D> current;
+  private Future<Current<D>> next;
+  private long sequence;
+  private boolean isOpen;
+  private volatile Throwable failure;
+
+  /**
+   * Construct a rolling writer.
+   *
+   * @param schema  the schema of the entries.
+   * @param writers creates a writer for each file, configured but not yet
+   *                created.
+   * @param files   names the file with a sequence number, starting at zero.
+   */
+  public RollingDataFileWriter(Schema schema, Supplier<DataFileWriter<D>> writers, LongFunction<File> files) {
+    this.schema = schema;
+    this.writers = writers;
+    this.files = files;
+  }
+
+  /** Roll over once a file holds at least this many bytes. */
+  public RollingDataFileWriter<D> setMaxBytes(long maxBytes) {
+    assertNotOpen();
+    this.maxBytes = maxBytes;
+    return this;
+  }
+
+  /** Roll over once a file holds this many entries. */
+  public RollingDataFileWriter<D> setMaxRecords(long maxRecords) {
+    assertNotOpen();
+    this.maxRecords = maxRecords;
+    return this;
+  }
+
+  /**
+   * Roll over once a file has been open this long. Without a flush interval, this
+   * is only checked on append.
+   */
+  public RollingDataFileWriter<D> setMaxAge(long maxAge, TimeUnit unit) {
+    assertNotOpen();
+    this.maxAgeNanos = unit.toNanos(maxAge);
+    return this;
+  }
+
+  /**
+   * Flush the current file from a background thread at an interval, and roll it
+   * over there if it is too old. By default, files are only flushed as blocks
+   * fill.
+   */
+  public RollingDataFileWriter<D> setFlushInterval(long interval, TimeUnit unit) {
+    assertNotOpen();
+    this.flushIntervalNanos = unit.toNanos(interval);
+    return this;
+  }
+
+  /** Set the listener to notify of completed files. */
+  public RollingDataFileWriter<D> setListener(Listener listener) {
+    assertNotOpen();
+    this.listener = listener;
+    return this;
+  }
+
+  /** Create the first file, and start creating the next in the background. */
+  public synchronized RollingDataFileWriter<D> open() throws IOException {
+    assertNotOpen();
+    ThreadFactory threads = r -> {
+      Thread thread = new Thread(r, "avro-rolling-writer");
+      thread.setDaemon(true);
+      return thread;
+    };
+    creator = Executors.newSingleThreadExecutor(threads);
+    background = Executors.newSingleThreadScheduledExecutor(threads);
+    try {
+      current = create(sequence++);
+    } catch (IOException | RuntimeException e) {
+      creator.shutdown();
+      background.shutdown();
+      throw e;
+    }
+    current.openedNanos = System.nanoTime();
+    prepareNext();
+    if (flushIntervalNanos > 0) {
+      background.scheduleWithFixedDelay(this::backgroundFlush, flushIntervalNanos, flushIntervalNanos,
+          TimeUnit.NANOSECONDS);
+    }
+    isOpen = true;
+    return this;
+  }
+
+  /** Append an entry, rolling over to the next file if the current is full. */
+  public synchronized void append(D datum) throws IOException {
+    assertOpen();
+    current.writer.append(datum);
+    current.records++;
+    current.indexBlocks();
+    if (current.records >= maxRecords || current.position >= maxBytes
+        || System.nanoTime() - current.openedNanos >= maxAgeNanos) {
+      roll();
+    }
+  }
+
+  /** Flush the current file. */
+  @Override
+  public synchronized void flush() throws IOException {
+    assertOpen();
+    current.writer.flush();
+    current.indexBlocks();
+  }
+
+  /** Return the file currently being written. */
+  public synchronized File getCurrentFile() {
+    if (!isOpen) {
+      throw new AvroRuntimeException("not open");
+    }
+    return current.file;
+  }
+
+  /** Close the current file, and return once all files are complete. */
+  @Override
+  public void close() throws IOException {
+    Current<D> last;
+    Future<Current<D>> unused;
+    synchronized (this) {
+      if (!isOpen) {
+        return;
+      }
+      isOpen = false;
+      last = current;
+      unused = next;
+      current = null;
+      next = null;
+    }
+    creator.shutdown();
+    background.shutdown();
+    try {
+      background.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      complete(last);
+      Current<D> created = unused.get();
+      created.writer.close();
+      if (!created.file.delete()) {
+        throw new IOException("Could not delete unused file " + created.file);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while closing rolling writer");
+    } catch (ExecutionException e) {
+      failed(e.getCause());
+    }
+    checkFailure();
+  }
+
+  private Current<D> create(long number) throws IOException {
+    File file = files.apply(number);
+    DataFileWriter<D> writer = writers.get();
+    writer.create(schema, file);
+    return new Current<>(file, writer);
+  }
+
+  private void prepareNext() {
+    long number = sequence++;
+    next = creator.submit(() -> create(number));
+  }
+
+  /** Switch to the next file, completing the current in the background. */
+  private void roll() throws IOException {
+    Current<D> done = current;
+    try {
+      current = next.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while rolling over");
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+    current.openedNanos = System.nanoTime();
+    prepareNext();
+    background.execute(() -> {
+      try {
+        complete(done);
+      } catch (IOException | RuntimeException e) {
+        failed(e);
+      }
+    });
+  }
+
+  /** Close a file and notify the listener. */
+  private void complete(Current<D> done) throws IOException {
+    done.writer.flush();
+    done.indexBlocks();
+    done.writer.close();
+    if (listener != null) {
+      listener.completed(done.file, Arrays.copyOf(done.blocks, done.blockCount), done.records);
+    }
+  }
+
+  private synchronized void backgroundFlush() {
+    if (!isOpen || failure != null) {
+      return;
+    }
+    try {
+      if (current.records > 0 && System.nanoTime() - current.openedNanos >= maxAgeNanos) {
+        roll();
+      } else {
+        current.writer.flush();
+        current.indexBlocks();
+      }
+    } catch (IOException | RuntimeException e) {
+      failed(e);
+    }
+  }
+
+  private void failed(Throwable e) {
+    if (failure == null) {
+      failure = e;
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    Throwable e = failure;
+    if (e != null) {
+      throw new IOException("Background write failed", e);
+    }
+  }
+
+  private void assertOpen() throws IOException {
+    if (!isOpen) {
+      throw new AvroRuntimeException("not open");
+    }
+    checkFailure();
+  }
+
+  private void assertNotOpen() {
+    if (isOpen) {
+      throw new AvroRuntimeException("already open");
+    }
+  }
+}
@@ -42,4 +42,9 @@ public class SeekableByteArrayInput extends ByteArrayInputStream implements Seek
   public long tell() throws IOException {
     return this.pos;
   }
+
+  /** Return an independent input over the same data. */
+  SeekableByteArrayInput view() {
+    return new SeekableByteArrayInput(this.buf);
+  }
 }
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileStream.DataBlock;
+import org.apache.avro.file.DataFileWriter.AppendWriteException;
+import org.apache.avro.file.DataFileWriter.NonCopyingByteArrayOutputStream;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+
+/**
+ * A {@link DataFileWriter} that may be appended to by many threads at once.
+ * Each appending thread encodes into its own block buffer, with its own
+ * {@link DatumWriter} and codec, so threads do not contend while encoding or
+ * compressing. Finished blocks are handed off through a lock-free queue and
+ * written to the single output file by whichever thread finds the output idle.
+ * All writes to the output file are made while holding one lock.
+ * <p/>
+ * Entries appended by one thread appear in the file in the order they were
+ * appended, but blocks from different threads are interleaved in no particular
+ * order.
+ *
+ * @see DataFileWriter
+ */
+public class ShardedDataFileWriter<D> implements Closeable, Flushable {
+  private final Supplier<DatumWriter<D>> datumWriters;
+  private final DataFileWriter<D> out;
+  private CodecFactory codecFactory = CodecFactory.nullCodec();
+  private int syncInterval = DataFileConstants.DEFAULT_SYNC_INTERVAL;
+  private Schema schema;
+
+  private final ThreadLocal<Stripe> stripe = ThreadLocal.withInitial(this::newStripe);
+  private final Queue<Stripe> stripes = new ConcurrentLinkedQueue<>();
+  private final Queue<DataBlock> finished = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock writing = new ReentrantLock(); // guards out
+
+  /**
+   * Construct a writer, not yet open.
+   *
+   * @param datumWriters creates the {@link DatumWriter} for each appending
+   *                     thread.
+   */
+  public ShardedDataFileWriter(Supplier<DatumWriter<D>> datumWriters) {
+    this.datumWriters = datumWriters;
+    this.out = new DataFileWriter<>(datumWriters.get());
+  }
+
+  /** @see DataFileWriter#setCodec(CodecFactory) */
+  public ShardedDataFileWriter<D> setCodec(CodecFactory c) {
+    out.setCodec(c);
+    this.codecFactory = c;
+    return this;
+  }
+
+  /**
+   * Set the synchronization interval, in bytes. Each appending thread fills
+   * blocks of about this size.
+   *
+   * @see DataFileWriter#setSyncInterval(int)
+   */
+  public ShardedDataFileWriter<D> setSyncInterval(int syncInterval) {
+    out.setSyncInterval(syncInterval);
+    this.syncInterval = syncInterval;
+    return this;
+  }
+
+  /** @see DataFileWriter#setBlockChecksum(boolean) */
+  public ShardedDataFileWriter<D> setBlockChecksum(boolean enabled) {
+    out.setBlockChecksum(enabled);
+    return this;
+  }
+
+  /** @see DataFileWriter#setFlushOnEveryBlock(boolean) */
+  public void setFlushOnEveryBlock(boolean flushOnEveryBlock) {
+    out.setFlushOnEveryBlock(flushOnEveryBlock);
+  }
+
+  /** Set a metadata property. */
+  public ShardedDataFileWriter<D> setMeta(String key, byte[] value) {
+    out.setMeta(key, value);
+    return this;
+  }
+
+  /** Set a metadata property. */
+  public ShardedDataFileWriter<D> setMeta(String key, String value) {
+    out.setMeta(key, value);
+    return this;
+  }
+
+  /** Open a new file for data matching a schema with a random sync. */
+  public ShardedDataFileWriter<D> create(Schema schema, File file) throws IOException {
+    out.create(schema, file);
+    this.schema = schema;
+    return this;
+  }
+
+  /** Open a new file for data matching a schema with a random sync. */
+  public ShardedDataFileWriter<D> create(Schema schema, OutputStream outs) throws IOException {
+    out.create(schema, outs);
+    this.schema = schema;
+    return this;
+  }
+
+  /**
+   * Append a datum to the calling thread's current block.
+   *
+   * @see AppendWriteException
+   */
+  public void append(D datum) throws IOException {
+    if (stripe.get().append(datum)) {
+      writeFinishedIfIdle();
+    }
+  }
+
+  /**
+   * Finish the current block of every thread and write all blocks, returning the
+   * position of the end of the last one.
+   *
+   * @see DataFileWriter#sync()
+   */
+  public long sync() throws IOException {
+    writing.lock();
+    try {
+      for (Stripe s : stripes) {
+        s.finishBlock();
+      }
+      writeFinished();
+      return out.sync();
+    } finally {
+      writing.unlock();
+    }
+  }
+
+  /**
+   * Calls {@linkplain #sync()} and then flushes the current state of the file.
+   */
+  @Override
+  public void flush() throws IOException {
+    writing.lock();
+    try {
+      sync();
+      out.flush();
+    } finally {
+      writing.unlock();
+    }
+  }
+
+  /** @see DataFileWriter#fSync() */
+  public void fSync() throws IOException {
+    writing.lock();
+    try {
+      sync();
+      out.fSync();
+    } finally {
+      writing.unlock();
+    }
+  }
+
+  /**
+   * Write all blocks and close the file. No thread may append while or after this
+   * is called.
+   */
+  @Override
+  public void close() throws IOException {
+    writing.lock();
+    try {
+      sync();
+      out.close();
+    } finally {
+      writing.unlock();
+    }
+  }
+
+  /**
+   * Write the finished blocks, unless another thread is already writing to the
+   * output. That thread re-checks the queue after it is done.
+   */
+  private void writeFinishedIfIdle() throws IOException {
+    while (!finished.isEmpty() && writing.tryLock()) {
+      try {
+        writeFinished();
+      } finally {
+        writing.unlock();
+      }
+    }
+  }
+
+  /** Write the finished blocks. The caller must hold the lock. */
+  private void writeFinished() throws IOException {
+    DataBlock block;
+    while ((block = finished.poll()) != null) {
+      out.writeRawBlock(block);
+    }
+  }
+
+  private Stripe newStripe() {
+    Stripe s = new Stripe();
+    stripes.add(s);
+    return s;
+  }
+
+  /** The block buffer of one appending thread. */
+  private class Stripe {
+    private final DatumWriter<D> dout = datumWriters.get();
+    private final Codec codec = codecFactory.createInstance();
+    private NonCopyingByteArrayOutputStream buffer = newBuffer();
+    private BinaryEncoder bufOut = EncoderFactory.get().binaryEncoder(buffer, null);
+    private long blockCount;
+
+    Stripe() {
+      if (schema == null) {
+        throw new IllegalStateException("not open");
+      }
+      dout.setSchema(schema);
+    }
+
+    private NonCopyingByteArrayOutputStream newBuffer() {
+      return new NonCopyingByteArrayOutputStream(Math.min((int) (syncInterval * 1.25), Integer.MAX_VALUE / 2 - 1));
+    }
+
+    /** Append a datum, returning true if this finished a block. */
+    synchronized boolean append(D datum) throws IOException {
+      int usedBuffer = buffer.size() + bufOut.bytesBuffered();
+      try {
+        dout.write(datum, bufOut);
+      } catch (IOException | RuntimeException e) {
+        bufOut.flush();
+        byte[] data = buffer.toByteArray();
+        buffer.reset();
+        buffer.write(data, 0, usedBuffer);
+        throw new AppendWriteException(e);
+      }
+      blockCount++;
+      if (buffer.size() + bufOut.bytesBuffered() >= syncInterval) {
+        finishBlock();
+        return true;
+      }
+      return false;
+    }
+
+    /** Compress the current block and queue it for writing. */
+    synchronized void finishBlock() throws IOException {
+      if (blockCount > 0) {
+        bufOut.flush();
+        DataBlock block = new DataBlock(buffer.getByteArrayAsByteBuffer(), blockCount);
+        block.compressUsing(codec);
+        finished.add(block);
+        // the queued block may share the buffer's array, so start a new one
+        buffer = newBuffer();
+        bufOut = EncoderFactory.get().binaryEncoder(buffer, bufOut);
+        blockCount = 0;
+      }
+    }
+  }
+}
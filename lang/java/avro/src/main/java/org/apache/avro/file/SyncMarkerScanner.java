@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.apache.avro.file.DataFileConstants.SYNC_SIZE;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Locates the sync markers of a data file without decoding it. Input is read in
+ * large chunks which are searched with a Boyer-Moore-Horspool skip table, so
+ * that most bytes are never compared. Disjoint ranges of a file can be scanned
+ * in parallel with {@link #findAll(File, long, long, int)}, e.g. to compute
+ * split starts or to recover a corrupt file.
+ *
+ * @see DataFileReader#sync(long)
+ */
+public class SyncMarkerScanner {
+  /** Chunk size when looking for the next marker, about one sync interval. */
+  private static final int FIND_CHUNK_SIZE = 64 * 1024;
+  /** Chunk size when collecting every marker in a range. */
+  private static final int FIND_ALL_CHUNK_SIZE = 1024 * 1024;
+  /** Ranges smaller than this are not worth splitting across threads. */
+  private static final long MIN_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+  private final byte[] sync;
+  private final int[] shift = new int[256];
+
+  /** Construct a scanner for the sync marker of a file's header. */
+  public SyncMarkerScanner(DataFileStream.Header header) {
+    this(header.sync);
+  }
+
+  /** Construct a scanner for the given sync marker. */
+  public SyncMarkerScanner(byte[] sync) {
+    if (sync.length != SYNC_SIZE)
+      throw new IllegalArgumentException("Sync marker must be " + SYNC_SIZE + " bytes: " + sync.length);
+    this.sync = sync.clone();
+    Arrays.fill(shift, SYNC_SIZE);
+    for (int i = 0; i < SYNC_SIZE - 1; i++) {
+      shift[this.sync[i] & 0xff] = SYNC_SIZE - 1 - i;
+    }
+  }
+
+  /**
+   * Return the index of the first marker that lies entirely within
+   * <tt>buf[from, to)</tt>, or -1 if there is none.
+   */
+  public int indexOf(byte[] buf, int from, int to) {
+    final byte last = sync[SYNC_SIZE - 1];
+    for (int i = from; i <= to - SYNC_SIZE;) {
+      byte b = buf[i + SYNC_SIZE - 1];
+      if (b == last) {
+        int j = SYNC_SIZE - 2;
+        while (j >= 0 && buf[i + j] == sync[j]) {
+          j--;
+        }
+        if (j < 0) {
+          return i;
+        }
+      }
+      i += shift[b & 0xff];
+    }
+    return -1;
+  }
+
+  /**
+   * Return the position of the first marker that starts in <tt>[start, end)</tt>
+   * and lies entirely within the input, or -1 if there is none. The position of
+   * the input is left unspecified.
+   */
+  public long find(SeekableInput in, long start, long end) throws IOException {
+    long[] found = scan(in, start, end, FIND_CHUNK_SIZE, true);
+    return found.length == 0 ? -1 : found[0];
+  }
+
+  /**
+   * Return the positions of all markers that start in <tt>[start, end)</tt>, in
+   * ascending order. The position of the input is left unspecified.
+   */
+  public long[] findAll(SeekableInput in, long start, long end) throws IOException {
+    return scan(in, start, end, FIND_ALL_CHUNK_SIZE, false);
+  }
+
+  /**
+   * Return the positions of all markers that start in <tt>[start, end)</tt> of a
+   * file, in ascending order. The range is divided into segments that are scanned
+   * concurrently, each through its own {@link SeekableFileInput}.
+   *
+   * @param parallelism the maximum number of threads to use.
+   */
+  public long[] findAll(File file, long start, long end, int parallelism) throws IOException {
+    end = Math.min(end, file.length());
+    int segments = (int) Math.max(1, Math.min(parallelism, (end - start) / MIN_SEGMENT_SIZE));
+    if (segments <= 1) {
+      try (SeekableFileInput in = new SeekableFileInput(file)) {
+        return findAll(in, start, end);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(segments);
+    try {
+      List<Future<long[]>> results = new ArrayList<>(segments);
+      long segmentSize = (end - start + segments - 1) / segments;
+      for (long s = start; s < end; s += segmentSize) {
+        final long segmentStart = s;
+        final long segmentEnd = Math.min(end, s + segmentSize);
+        results.add(executor.submit(() -> {
+          try (SeekableFileInput in = new SeekableFileInput(file)) {
+            return findAll(in, segmentStart, segmentEnd);
+          }
+        }));
+      }
+      long[] all = new long[0];
+      for (Future<long[]> result : results) {
+        long[] found = result.get();
+        int n = all.length;
+        all = Arrays.copyOf(all, n + found.length);
+        System.arraycopy(found, 0, all, n, found.length);
+      }
+      return all;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while scanning for sync markers", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IOException("Failed to scan for sync markers", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long[] scan(SeekableInput in, long start, long end, int chunkSize, boolean firstOnly) throws IOException {
+    long[] found = new long[0];
+    int count = 0;
+    byte[] buf = new byte[chunkSize + SYNC_SIZE - 1];
+    in.seek(start);
+    long bufStart = start; // file position of buf[0]
+    int filled = 0;
+    while (true) {
+      // markers starting before end may extend up to SYNC_SIZE - 1 bytes past it
+      long wanted = end + SYNC_SIZE - 1 - (bufStart + filled);
+      int n = wanted <= 0 ? -1 : in.read(buf, filled, (int) Math.min(buf.length - filled, wanted));
+      if (n > 0) {
+        filled += n;
+        if (filled < buf.length && n < wanted)
+          continue; // fill the whole chunk before searching
+      }
+      int i = 0;
+      while ((i = indexOf(buf, i, filled)) >= 0 && bufStart + i < end) {
+        if (count == found.length)
+          found = Arrays.copyOf(found, Math.max(4, count * 2));
+        found[count++] = bufStart + i;
+        if (firstOnly)
+          return Arrays.copyOf(found, count);
+        i += SYNC_SIZE;
+      }
+      if (n <= 0) // no more input in range
+        return Arrays.copyOf(found, count);
+      // keep the tail that may hold the beginning of a marker
+      int keep = Math.min(filled, SYNC_SIZE - 1);
+      System.arraycopy(buf, filled - keep, buf, 0, keep);
+      bufStart += filled - keep;
+      filled = keep;
+    }
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.generic;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.util.Utf8;
+
+/**
+ * Deep copies values of a schema. The schema is compiled once into a tree of
+ * copiers, one per schema node, so that copying does not switch on schema types
+ * or walk field lists, and immutable values are returned as they are. Copiers
+ * call back into their {@link GenericData}, so the representation it chooses
+ * for records, enums and fixed values is preserved. Copiers are cached by their
+ * schema in a weak cache, so hold schemas weakly.
+ *
+ * @see GenericData#deepCopy(Schema, Object, Object)
+ */
+abstract class DeepCopier {
+  /** Logical type representations that are immutable, so need no copy. */
+  private static final Set<Class<?>> IMMUTABLE = new HashSet<>(
+      Arrays.asList(String.class, Boolean.class, Integer.class, Long.class, Float.class, Double.class, BigDecimal.class,
+          BigInteger.class, UUID.class, Instant.class, LocalDate.class, LocalTime.class, LocalDateTime.class));
+
+  /**
+   * Copy a value, reusing the objects of a previous copy where possible.
+   *
+   * @param value the value to copy.
+   * @param reuse a previous copy to overwrite, or null.
+   */
+  final Object copy(Object value, Object reuse) {
+    return value == null ? null : copyValue(value, reuse);
+  }
+
+  abstract Object copyValue(Object value, Object reuse);
+
+  static DeepCopier compile(GenericData data, Schema schema) {
+    return compile(data, schema, new IdentityHashMap<>());
+  }
+
+  private static DeepCopier compile(GenericData data, Schema schema, Map<Schema, RecordCopier> records) {
+    DeepCopier raw = compileRaw(data, schema, records);
+    LogicalType logicalType = schema.getLogicalType();
+    return logicalType == null ? raw : new LogicalCopier(data, schema, logicalType, raw);
+  }
+
+  private static DeepCopier compileRaw(GenericData data, Schema schema, Map<Schema, RecordCopier> records) {
+    switch (schema.getType()) {
+    case NULL:
+      return NULL;
+    case BOOLEAN:
+    case INT:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+      return IMMUTABLE_VALUE;
+    case STRING:
+      return STRING;
+    case BYTES:
+      return BYTES;
+    case ENUM:
+      return new EnumCopier(data, schema);
+    case FIXED:
+      return new FixedCopier(data, schema);
+    case ARRAY:
+      return new ArrayCopier(schema, compile(data, schema.getElementType(), records));
+    case MAP:
+      return new MapCopier(compile(data, schema.getValueType(), records));
+    case RECORD:
+      RecordCopier record = records.get(schema);
+      if (record == null) {
+        record = new RecordCopier(data, schema);
+        records.put(schema, record); // before the fields, for recursive records
+        List<Field> fields = schema.getFields();
+        for (int i = 0; i < record.fields.length; i++) {
+          record.fields[i] = compile(data, fields.get(i).schema(), records);
+        }
+      }
+      return record;
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      DeepCopier[] branches = new DeepCopier[types.size()];
+      for (int i = 0; i < branches.length; i++) {
+        branches[i] = compile(data, types.get(i), records);
+      }
+      if (branches.length == 2 && types.get(0).getType() == Schema.Type.NULL) {
+        return branches[1]; // a nullable value: null is copied before dispatch
+      }
+      if (branches.length == 2 && types.get(1).getType() == Schema.Type.NULL) {
+        return branches[0];
+      }
+      return new UnionCopier(data, schema, branches);
+    default:
+      throw new AvroRuntimeException("Unknown type: " + schema);
+    }
+  }
+
+  private static final DeepCopier NULL = new DeepCopier() {
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      return null;
+    }
+  };
+
+  private static final DeepCopier IMMUTABLE_VALUE = new DeepCopier() {
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      return value;
+    }
+  };
+
+  private static final DeepCopier STRING = new DeepCopier() {
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      if (value instanceof String) {
+        return value; // immutable
+      }
+      if (value instanceof Utf8) {
+        return reuse instanceof Utf8 ? ((Utf8) reuse).set((Utf8) value) : new Utf8((Utf8) value);
+      }
+      return new Utf8(value.toString());
+    }
+  };
+
+  private static final DeepCopier BYTES = new DeepCopier() {
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      ByteBuffer bytes = ((ByteBuffer) value).duplicate();
+      int length = bytes.remaining();
+      ByteBuffer copy;
+      if (reuse instanceof ByteBuffer && !((ByteBuffer) reuse).isReadOnly()
+          && ((ByteBuffer) reuse).capacity() >= length) {
+        copy = (ByteBuffer) reuse;
+        copy.clear();
+      } else {
+        copy = ByteBuffer.allocate(length);
+      }
+      copy.put(bytes);
+      copy.flip();
+      return copy;
+    }
+  };
+
+  private static class LogicalCopier extends DeepCopier {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+    private final LogicalType logicalType;
+    private final DeepCopier raw;
+
+    LogicalCopier(GenericData data, Schema schema, LogicalType logicalType, DeepCopier raw) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+      this.logicalType = logicalType;
+      this.raw = raw;
+    }
+
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      Schema schema = this.schema.get();
+      if (IMMUTABLE.contains(value.getClass())) {
+        return value;
+      }
+      Conversion<?> conversion = data.getConversionByClass(value.getClass(), logicalType);
+      if (conversion == null) { // no conversion defined -- try raw copy
+        return raw.copyValue(value, reuse);
+      }
+      // convert to raw, copy, then convert back to logical
+      Object copy = raw.copy(Conversions.convertToRawType(value, schema, logicalType, conversion), null);
+      return Conversions.convertToLogicalType(copy, schema, logicalType, conversion);
+    }
+  }
+
+  private static class EnumCopier extends DeepCopier {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+    private final Class<?> symbolClass; // immutable symbols of this class are kept
+
+    EnumCopier(GenericData data, Schema schema) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+      this.symbolClass = data.createEnum(schema.getEnumSymbols().get(0), schema).getClass();
+    }
+
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      Schema schema = this.schema.get();
+      return value.getClass() == symbolClass ? value : data.createEnum(value.toString(), schema);
+    }
+  }
+
+  private static class FixedCopier extends DeepCopier {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+
+    FixedCopier(GenericData data, Schema schema) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+    }
+
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      Schema schema = this.schema.get();
+      return data.createFixed(reuse == value ? null : reuse, ((GenericFixed) value).bytes(), schema);
+    }
+  }
+
+  private static class ArrayCopier extends DeepCopier {
+    private final WeakReference<Schema> schema;
+    private final DeepCopier element;
+
+    ArrayCopier(Schema schema, DeepCopier element) {
+      this.schema = new WeakReference<>(schema);
+      this.element = element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Object copyValue(Object value, Object reuse) {
+      Schema schema = this.schema.get();
+      List<Object> list = (List<Object>) value;
+      GenericData.Array<Object> copy;
+      if (reuse instanceof GenericData.Array && reuse != value
+          && ((GenericData.Array<?>) reuse).getSchema() == schema) {
+        copy = (GenericData.Array<Object>) reuse;
+        copy.reset();
+      } else {
+        copy = new GenericData.Array<>(list.size(), schema);
+      }
+      for (Object item : list) {
+        copy.add(element.copy(item, copy.peek()));
+      }
+      return copy;
+    }
+  }
+
+  private static class MapCopier extends DeepCopier {
+    private final DeepCopier value;
+
+    MapCopier(DeepCopier value) {
+      this.value = value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Object copyValue(Object map, Object reuse) {
+      Map<CharSequence, Object> entries = (Map<CharSequence, Object>) map;
+      Map<CharSequence, Object> copy;
+      if (reuse instanceof HashMap && reuse != map) {
+        copy = (Map<CharSequence, Object>) reuse;
+        copy.clear();
+      } else {
+        copy = new HashMap<>(entries.size());
+      }
+      for (Map.Entry<CharSequence, Object> entry : entries.entrySet()) {
+        copy.put((CharSequence) STRING.copy(entry.getKey(), null), value.copy(entry.getValue(), null));
+      }
+      return copy;
+    }
+  }
+
+  private static class RecordCopier extends DeepCopier {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+    private final String[] names;
+    private final int[] positions;
+    final DeepCopier[] fields;
+
+    RecordCopier(GenericData data, Schema schema) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+      List<Field> schemaFields = schema.getFields();
+      this.names = new String[schemaFields.size()];
+      this.positions = new int[schemaFields.size()];
+      this.fields = new DeepCopier[schemaFields.size()];
+      for (int i = 0; i < names.length; i++) {
+        names[i] = schemaFields.get(i).name();
+        positions[i] = schemaFields.get(i).pos();
+      }
+    }
+
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      Schema schema = this.schema.get();
+      Object oldState = data.getRecordState(value, schema);
+      Object record = data.newRecord(reuse == value ? null : reuse, schema);
+      Object newState = data.getRecordState(record, schema);
+      boolean reusing = record == reuse;
+      for (int i = 0; i < fields.length; i++) {
+        Object old = reusing ? data.getField(record, names[i], positions[i], newState) : null;
+        Object copy = fields[i].copy(data.getField(value, names[i], positions[i], oldState), old);
+        data.setField(record, names[i], positions[i], copy, newState);
+      }
+      return record;
+    }
+  }
+
+  private static class UnionCopier extends DeepCopier {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+    private final DeepCopier[] branches;
+
+    UnionCopier(GenericData data, Schema schema, DeepCopier[] branches) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+      this.branches = branches;
+    }
+
+    @Override
+    Object copyValue(Object value, Object reuse) {
+      Schema schema = this.schema.get();
+      return branches[data.resolveUnion(schema, value)].copyValue(value, reuse);
+    }
+  }
+}
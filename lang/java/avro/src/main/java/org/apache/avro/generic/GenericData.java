@@ -20,24 +20,20 @@ package org.apache.avro.generic;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import org.apache.avro.AvroMissingFieldException;
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.AvroTypeException;
 import org.apache.avro.Conversion;
-import org.apache.avro.Conversions;
 import org.apache.avro.JsonProperties;
 import org.apache.avro.LogicalType;
 import org.apache.avro.Schema;
@@ -53,6 +49,7 @@ import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.io.FastReaderBuilder;
 import org.apache.avro.util.Utf8;
+import org.apache.avro.util.WeakIdentityCache;
 import org.apache.avro.util.internal.Accessor;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -132,6 +129,7 @@ public class GenericData {
       conversions.put(conversion.getLogicalTypeName(), conversion);
       conversionsByClass.put(type, conversions);
     }
+    unionResolvers.clear(); // the conversion may change how unions resolve
   }
 
   /**
@@ -556,6 +554,13 @@ public class GenericData {
 
   /** Returns true if a Java datum matches a schema. */
   public boolean validate(Schema schema, Object datum) {
+    if (compiled.validate)
+      return functions(schema).validate(datum);
+    return interpretValidate(schema, datum);
+  }
+
+  /** Validates without the functions compiled for a schema. */
+  boolean interpretValidate(Schema schema, Object datum) {
     switch (schema.getType()) {
     case RECORD:
       if (!isRecord(datum))
@@ -622,132 +627,299 @@ public class GenericData {
     return buffer.toString();
   }
 
+  /**
+   * Renders a Java datum as <a href="https://www.json.org/">JSON</a>, cut short
+   * after a number of characters. Rendering stops there, so large values are not
+   * rendered in full only to be discarded: this suits logging values of unknown
+   * size.
+   *
+   * @param datum     the datum to render.
+   * @param maxLength the maximum number of characters to render.
+   * @return the JSON, followed by "..." if it was cut short.
+   */
+  public String toString(Object datum, int maxLength) {
+    StringBuilder buffer = new StringBuilder();
+    try {
+      if (!toString(datum, buffer, maxLength))
+        buffer.append("...");
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e); // not thrown by StringBuilder
+    }
+    return buffer.toString();
+  }
+
+  /**
+   * Renders a Java datum as <a href="https://www.json.org/">JSON</a> to an
+   * {@link Appendable}, such as a {@link java.io.Writer}, as it is visited, so
+   * that the JSON is not built up in memory first.
+   */
+  public void toString(Object datum, Appendable out) throws IOException {
+    dispatchToString(datum, out, new IdentityHashMap<>(128));
+  }
+
+  /**
+   * Renders a Java datum as <a href="https://www.json.org/">JSON</a> to an
+   * {@link Appendable}, stopping after a number of characters.
+   *
+   * @param datum     the datum to render.
+   * @param out       where to render it.
+   * @param maxLength the maximum number of characters to render.
+   * @return true if the datum was rendered in full, false if it was cut short.
+   */
+  public boolean toString(Object datum, Appendable out, long maxLength) throws IOException {
+    LimitedAppendable limited = new LimitedAppendable(out, maxLength);
+    try {
+      dispatchToString(datum, limited, new IdentityHashMap<>(128));
+      return true;
+    } catch (LimitedAppendable.LimitReached e) {
+      return false;
+    }
+  }
+
   private static final String TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT = " \">>> CIRCULAR REFERENCE CANNOT BE PUT IN JSON STRING, ABORTING RECURSION <<<\" ";
 
   /** Renders a Java datum as <a href="https://www.json.org/">JSON</a>. */
   protected void toString(Object datum, StringBuilder buffer, IdentityHashMap<Object, Object> seenObjects) {
+    try {
+      toString(datum, (Appendable) buffer, seenObjects);
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e); // not thrown by StringBuilder
+    }
+  }
+
+  /**
+   * Renders a Java datum as <a href="https://www.json.org/">JSON</a> to an
+   * {@link Appendable}.
+   */
+  protected void toString(Object datum, Appendable out, IdentityHashMap<Object, Object> seenObjects)
+      throws IOException {
     if (isRecord(datum)) {
       if (seenObjects.containsKey(datum)) {
-        buffer.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
+        out.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
         return;
       }
       seenObjects.put(datum, datum);
-      buffer.append("{");
+      out.append("{");
       int count = 0;
       Schema schema = getRecordSchema(datum);
       for (Field f : schema.getFields()) {
-        toString(f.name(), buffer, seenObjects);
-        buffer.append(": ");
-        toString(getField(datum, f.name(), f.pos()), buffer, seenObjects);
+        dispatchToString(f.name(), out, seenObjects);
+        out.append(": ");
+        dispatchToString(getField(datum, f.name(), f.pos()), out, seenObjects);
         if (++count < schema.getFields().size())
-          buffer.append(", ");
+          out.append(", ");
       }
-      buffer.append("}");
+      out.append("}");
       seenObjects.remove(datum);
     } else if (isArray(datum)) {
       if (seenObjects.containsKey(datum)) {
-        buffer.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
+        out.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
         return;
       }
       seenObjects.put(datum, datum);
       Collection<?> array = getArrayAsCollection(datum);
-      buffer.append("[");
+      out.append("[");
       long last = array.size() - 1;
       int i = 0;
       for (Object element : array) {
-        toString(element, buffer, seenObjects);
+        dispatchToString(element, out, seenObjects);
         if (i++ < last)
-          buffer.append(", ");
+          out.append(", ");
       }
-      buffer.append("]");
+      out.append("]");
       seenObjects.remove(datum);
     } else if (isMap(datum)) {
       if (seenObjects.containsKey(datum)) {
-        buffer.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
+        out.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
         return;
       }
       seenObjects.put(datum, datum);
-      buffer.append("{");
+      out.append("{");
       int count = 0;
       @SuppressWarnings(value = "unchecked")
       Map<Object, Object> map = (Map<Object, Object>) datum;
       for (Map.Entry<Object, Object> entry : map.entrySet()) {
-        buffer.append("\"");
-        writeEscapedString(String.valueOf(entry.getKey()), buffer);
-        buffer.append("\": ");
-        toString(entry.getValue(), buffer, seenObjects);
+        out.append("\"");
+        Object key = entry.getKey();
+        writeEscapedString(key instanceof CharSequence ? (CharSequence) key : String.valueOf(key), out);
+        out.append("\": ");
+        dispatchToString(entry.getValue(), out, seenObjects);
         if (++count < map.size())
-          buffer.append(", ");
+          out.append(", ");
       }
-      buffer.append("}");
+      out.append("}");
       seenObjects.remove(datum);
     } else if (isString(datum) || isEnum(datum)) {
-      buffer.append("\"");
-      writeEscapedString(datum.toString(), buffer);
-      buffer.append("\"");
+      out.append("\"");
+      writeEscapedString(datum instanceof CharSequence ? (CharSequence) datum : datum.toString(), out);
+      out.append("\"");
     } else if (isBytes(datum)) {
-      buffer.append("\"");
-      ByteBuffer bytes = ((ByteBuffer) datum).duplicate();
-      writeEscapedString(StandardCharsets.ISO_8859_1.decode(bytes), buffer);
-      buffer.append("\"");
+      out.append("\"");
+      writeEscapedBytes((ByteBuffer) datum, out);
+      out.append("\"");
     } else if (((datum instanceof Float) && // quote Nan & Infinity
         (((Float) datum).isInfinite() || ((Float) datum).isNaN()))
         || ((datum instanceof Double) && (((Double) datum).isInfinite() || ((Double) datum).isNaN()))) {
-      buffer.append("\"");
-      buffer.append(datum);
-      buffer.append("\"");
+      out.append("\"");
+      out.append(String.valueOf(datum));
+      out.append("\"");
     } else if (datum instanceof GenericData) {
       if (seenObjects.containsKey(datum)) {
-        buffer.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
+        out.append(TOSTRING_CIRCULAR_REFERENCE_ERROR_TEXT);
         return;
       }
       seenObjects.put(datum, datum);
-      toString(datum, buffer, seenObjects);
+      dispatchToString(datum, out, seenObjects);
       seenObjects.remove(datum);
     } else {
-      buffer.append(datum);
+      out.append(String.valueOf(datum));
     }
   }
 
+  /**
+   * Renders a value through
+   * {@link #toString(Object, StringBuilder, IdentityHashMap)}, so that subclasses
+   * overriding it render values nested in others, and values rendered to any
+   * {@link Appendable}.
+   */
+  private void dispatchToString(Object datum, Appendable out, IdentityHashMap<Object, Object> seenObjects)
+      throws IOException {
+    if (out instanceof StringBuilder) {
+      toString(datum, (StringBuilder) out, seenObjects);
+    } else if (OVERRIDES_STRING_BUILDER_TO_STRING.get(getClass())) {
+      StringBuilder buffer = new StringBuilder();
+      toString(datum, buffer, seenObjects);
+      out.append(buffer);
+    } else {
+      toString(datum, out, seenObjects);
+    }
+  }
+
+  /**
+   * Whether a class overrides
+   * {@link #toString(Object, StringBuilder, IdentityHashMap)}.
+   */
+  private static final ClassValue<Boolean> OVERRIDES_STRING_BUILDER_TO_STRING = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> c) {
+      for (; c != GenericData.class; c = c.getSuperclass()) {
+        try {
+          c.getDeclaredMethod("toString", Object.class, StringBuilder.class, IdentityHashMap.class);
+          return true;
+        } catch (NoSuchMethodException e) {
+          // not in this class
+        }
+      }
+      return false;
+    }
+  };
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
   /* Adapted from https://code.google.com/p/json-simple */
-  private void writeEscapedString(CharSequence string, StringBuilder builder) {
+  private void writeEscapedString(CharSequence string, Appendable out) throws IOException {
+    int start = 0; // of the characters not yet written, that need no escape
     for (int i = 0; i < string.length(); i++) {
       char ch = string.charAt(i);
-      switch (ch) {
-      case '"':
-        builder.append("\\\"");
-        break;
-      case '\\':
-        builder.append("\\\\");
-        break;
-      case '\b':
-        builder.append("\\b");
-        break;
-      case '\f':
-        builder.append("\\f");
-        break;
-      case '\n':
-        builder.append("\\n");
-        break;
-      case '\r':
-        builder.append("\\r");
-        break;
-      case '\t':
-        builder.append("\\t");
-        break;
-      default:
-        // Reference: https://www.unicode.org/versions/Unicode5.1.0/
-        if ((ch >= '\u0000' && ch <= '\u001F') || (ch >= '\u007F' && ch <= '\u009F')
-            || (ch >= '\u2000' && ch <= '\u20FF')) {
-          String hex = Integer.toHexString(ch);
-          builder.append("\\u");
-          for (int j = 0; j < 4 - hex.length(); j++)
-            builder.append('0');
-          builder.append(hex.toUpperCase());
-        } else {
-          builder.append(ch);
-        }
+      if (!needsEscape(ch))
+        continue;
+      out.append(string, start, i);
+      start = i + 1;
+      writeEscapedChar(ch, out);
+    }
+    out.append(string, start, string.length());
+  }
+
+  /** Bytes are rendered as the ISO-8859-1 characters of the same value. */
+  private void writeEscapedBytes(ByteBuffer bytes, Appendable out) throws IOException {
+    for (int i = bytes.position(); i < bytes.limit(); i++) {
+      char ch = (char) (bytes.get(i) & 0xff);
+      if (needsEscape(ch))
+        writeEscapedChar(ch, out);
+      else
+        out.append(ch);
+    }
+  }
+
+  private static boolean needsEscape(char ch) {
+    // Reference: https://www.unicode.org/versions/Unicode5.1.0/
+    return ch == '"' || ch == '\\' || ch <= '\u001F' || (ch >= '\u007F' && ch <= '\u009F')
+        || (ch >= '\u2000' && ch <= '\u20FF');
+  }
+
+  private static void writeEscapedChar(char ch, Appendable out) throws IOException {
+    switch (ch) {
+    case '"':
+      out.append("\\\"");
+      break;
+    case '\\':
+      out.append("\\\\");
+      break;
+    case '\b':
+      out.append("\\b");
+      break;
+    case '\f':
+      out.append("\\f");
+      break;
+    case '\n':
+      out.append("\\n");
+      break;
+    case '\r':
+      out.append("\\r");
+      break;
+    case '\t':
+      out.append("\\t");
+      break;
+    default:
+      out.append("\\u");
+      out.append(HEX_DIGITS[(ch >> 12) & 0xF]);
+      out.append(HEX_DIGITS[(ch >> 8) & 0xF]);
+      out.append(HEX_DIGITS[(ch >> 4) & 0xF]);
+      out.append(HEX_DIGITS[ch & 0xF]);
+    }
+  }
+
+  /** Passes on characters until a limit, then stops rendering. */
+  private static class LimitedAppendable implements Appendable {
+    /** Thrown to stop rendering once the limit is reached. */
+    private static class LimitReached extends RuntimeException {
+      LimitReached() {
+        super(null, null, false, false); // no stack trace: used for control flow
+      }
+    }
+
+    private final Appendable out;
+    private long remaining;
+
+    LimitedAppendable(Appendable out, long limit) {
+      this.out = out;
+      this.remaining = limit;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+      return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+      if (end - start > remaining) {
+        out.append(csq, start, start + (int) remaining);
+        remaining = 0;
+        throw new LimitReached();
       }
+      out.append(csq, start, end);
+      remaining -= end - start;
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+      if (remaining == 0)
+        throw new LimitReached();
+      out.append(c);
+      remaining--;
+      return this;
     }
   }
 
@@ -844,11 +1016,30 @@ public class GenericData {
     return getField(record, name, pos);
   }
 
+  private final WeakIdentityCache<Schema, UnionResolver> unionResolvers = new WeakIdentityCache<>();
+
   /**
    * Return the index for a datum within a union. Implemented with
    * {@link Schema#getIndexNamed(String)} and {@link #getSchemaName(Object)}.
+   * <p/>
+   * The index is remembered per union for the datum's class, and for
+   * {@link GenericContainer}s of named types also for the datum's schema, so that
+   * later datums of the same class resolve without naming them. Maps are not
+   * remembered, as {@link #isMap(Object)} may depend on their keys. Subclasses
+   * that otherwise resolve datums of one class to different branches should
+   * override this method.
    */
   public int resolveUnion(Schema union, Object datum) {
+    UnionResolver resolver = unionResolvers.computeIfAbsent(union, UnionResolver::new);
+    int index = resolver.lookup(datum);
+    if (index < 0) {
+      index = resolveUnionUncached(union, datum);
+      resolver.learn(union, datum, index);
+    }
+    return index;
+  }
+
+  private int resolveUnionUncached(Schema union, Object datum) {
     // if there is a logical type that works, use it first
     // this allows logical type concrete classes to overlap with supported ones
     // for example, a conversion could return a map
@@ -1055,6 +1246,51 @@ public class GenericData {
     return datum instanceof Boolean;
   }
 
+  /**
+   * Which of {@link #validate(Schema, Object)}, {@link #hashCode(Object, Schema)}
+   * and {@link #compare(Object, Object, Schema, boolean)} may use functions
+   * compiled per schema. Those a subclass overrides are interpreted instead, so
+   * that nested values still reach the override.
+   */
+  private static final class Compiled {
+    private static final ClassValue<Compiled> BY_CLASS = new ClassValue<Compiled>() {
+      @Override
+      protected Compiled computeValue(Class<?> type) {
+        return new Compiled(type);
+      }
+    };
+
+    private final boolean validate;
+    private final boolean hashCode;
+    private final boolean compare;
+
+    private Compiled(Class<?> type) {
+      this.validate = !overrides(type, "validate", Schema.class, Object.class);
+      this.hashCode = !overrides(type, "hashCode", Object.class, Schema.class)
+          && !overrides(type, "hashCodeAdd", int.class, Object.class, Schema.class);
+      this.compare = !overrides(type, "compare", Object.class, Object.class, Schema.class, boolean.class);
+    }
+
+    private static boolean overrides(Class<?> type, String name, Class<?>... parameterTypes) {
+      for (Class<?> c = type; c != GenericData.class; c = c.getSuperclass()) {
+        try {
+          c.getDeclaredMethod(name, parameterTypes);
+          return true;
+        } catch (NoSuchMethodException e) {
+          // not declared here: try the superclass
+        }
+      }
+      return false;
+    }
+  }
+
+  private final Compiled compiled = Compiled.BY_CLASS.get(getClass());
+  private final WeakIdentityCache<Schema, SchemaFunctions> functions = new WeakIdentityCache<>();
+
+  private SchemaFunctions functions(Schema schema) {
+    return functions.computeIfAbsent(schema, s -> SchemaFunctions.compile(this, s));
+  }
+
   /**
    * Compute a hash code according to a schema, consistent with
    * {@link #compare(Object,Object,Schema)}.
@@ -1062,6 +1298,13 @@ public class GenericData {
   public int hashCode(Object o, Schema s) {
     if (o == null)
       return 0; // incomplete datum
+    if (compiled.hashCode)
+      return functions(s).hashCode(o);
+    return interpretHashCode(o, s);
+  }
+
+  /** Hashes a non-null value without the functions compiled for a schema. */
+  int interpretHashCode(Object o, Schema s) {
     int hashCode = 1;
     switch (s.getType()) {
     case RECORD:
@@ -1112,6 +1355,14 @@ public class GenericData {
   protected int compare(Object o1, Object o2, Schema s, boolean equals) {
     if (o1 == o2)
       return 0;
+    if (compiled.compare)
+      return functions(s).compare(o1, o2, equals);
+    return interpretCompare(o1, o2, s, equals);
+  }
+
+  /** Compares distinct values without the functions compiled for a schema. */
+  @SuppressWarnings(value = "unchecked")
+  int interpretCompare(Object o1, Object o2, Schema s, boolean equals) {
     switch (s.getType()) {
     case RECORD:
       for (Field f : s.getFields()) {
@@ -1125,6 +1376,8 @@ public class GenericData {
       }
       return 0;
     case ENUM:
+      if (o1 instanceof Enum && o2 instanceof Enum)
+        return ((Enum) o1).ordinal() - ((Enum) o2).ordinal();
       return s.getEnumOrdinal(o1.toString()) - s.getEnumOrdinal(o2.toString());
     case ARRAY:
       Collection a1 = (Collection) o1;
@@ -1157,17 +1410,25 @@ public class GenericData {
     }
   }
 
-  private final Map<Field, Object> defaultValueCache = Collections.synchronizedMap(new WeakHashMap<>());
+  private final WeakIdentityCache<Field, Object> defaultValueCache = new WeakIdentityCache<>();
 
   /**
    * Gets the default value of the given field, if any.
+   * <p/>
+   * Default values are decoded once per field and cached, so the value returned
+   * is shared: callers that may modify it should {@link #deepCopy} it first.
+   * Lookups of cached defaults do not lock, so may be made by many threads.
    *
    * @param field the field whose default value should be retrieved.
    * @return the default value associated with the given field, or null if none is
    *         specified in the schema.
    */
-  @SuppressWarnings({ "unchecked" })
   public Object getDefaultValue(Field field) {
+    // Check the cache
+    Object defaultValue = defaultValueCache.get(field);
+    if (defaultValue != null)
+      return defaultValue;
+
     JsonNode json = Accessor.defaultValue(field);
     if (json == null)
       throw new AvroMissingFieldException("Field " + field + " not set and has no default value", field);
@@ -1176,32 +1437,28 @@ public class GenericData {
       return null;
     }
 
-    // Check the cache
-    Object defaultValue = defaultValueCache.get(field);
-
     // If not cached, get the default Java value by encoding the default JSON
     // value and then decoding it:
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(baos, null);
+      Accessor.encode(encoder, field.schema(), json);
+      encoder.flush();
+      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(baos.toByteArray(), null);
+      defaultValue = createDatumReader(field.schema()).read(null, decoder);
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    }
     if (defaultValue == null)
-      try {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(baos, null);
-        Accessor.encode(encoder, field.schema(), json);
-        encoder.flush();
-        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(baos.toByteArray(), null);
-        defaultValue = createDatumReader(field.schema()).read(null, decoder);
-
-        // this MAY result in two threads creating the same defaultValue
-        // and calling put. The last thread will win. However,
-        // that's not an issue.
-        defaultValueCache.put(field, defaultValue);
-      } catch (IOException e) {
-        throw new AvroRuntimeException(e);
-      }
+      return null;
 
-    return defaultValue;
+    // this MAY result in two threads creating the same defaultValue. The first
+    // thread to cache it wins, and all threads return that one.
+    Object decoded = defaultValue;
+    return defaultValueCache.computeIfAbsent(field, f -> decoded);
   }
 
-  private static final Schema STRINGS = Schema.create(Type.STRING);
+  private final WeakIdentityCache<Schema, DeepCopier> copiers = new WeakIdentityCache<>();
 
   /**
    * Makes a deep copy of a value given its schema.
@@ -1212,97 +1469,28 @@ public class GenericData {
    * @param value  the value to deep copy.
    * @return a deep copy of the given value.
    */
-  @SuppressWarnings({ "rawtypes", "unchecked" })
   public <T> T deepCopy(Schema schema, T value) {
-    if (value == null)
-      return null;
-    LogicalType logicalType = schema.getLogicalType();
-    if (logicalType == null) // not a logical type -- use raw copy
-      return (T) deepCopyRaw(schema, value);
-    Conversion conversion = getConversionByClass(value.getClass(), logicalType);
-    if (conversion == null) // no conversion defined -- try raw copy
-      return (T) deepCopyRaw(schema, value);
-    // logical type with conversion: convert to raw, copy, then convert back to
-    // logical
-    Object raw = Conversions.convertToRawType(value, schema, logicalType, conversion);
-    Object copy = deepCopyRaw(schema, raw); // copy raw
-    return (T) Conversions.convertToLogicalType(copy, schema, logicalType, conversion);
-  }
-
-  private Object deepCopyRaw(Schema schema, Object value) {
-    if (value == null) {
-      return null;
-    }
+    return deepCopy(schema, value, null);
+  }
 
-    switch (schema.getType()) {
-    case ARRAY:
-      List<Object> arrayValue = (List) value;
-      List<Object> arrayCopy = new GenericData.Array<>(arrayValue.size(), schema);
-      for (Object obj : arrayValue) {
-        arrayCopy.add(deepCopy(schema.getElementType(), obj));
-      }
-      return arrayCopy;
-    case BOOLEAN:
-      return value; // immutable
-    case BYTES:
-      ByteBuffer byteBufferValue = (ByteBuffer) value;
-      int start = byteBufferValue.position();
-      int length = byteBufferValue.limit() - start;
-      byte[] bytesCopy = new byte[length];
-      byteBufferValue.get(bytesCopy, 0, length);
-      byteBufferValue.position(start);
-      return ByteBuffer.wrap(bytesCopy, 0, length);
-    case DOUBLE:
-      return value; // immutable
-    case ENUM:
-      return createEnum(value.toString(), schema);
-    case FIXED:
-      return createFixed(null, ((GenericFixed) value).bytes(), schema);
-    case FLOAT:
-      return value; // immutable
-    case INT:
-      return value; // immutable
-    case LONG:
-      return value; // immutable
-    case MAP:
-      Map<CharSequence, Object> mapValue = (Map) value;
-      Map<CharSequence, Object> mapCopy = new HashMap<>(mapValue.size());
-      for (Map.Entry<CharSequence, Object> entry : mapValue.entrySet()) {
-        mapCopy.put(deepCopy(STRINGS, entry.getKey()), deepCopy(schema.getValueType(), entry.getValue()));
-      }
-      return mapCopy;
-    case NULL:
+  /**
+   * Makes a deep copy of a value given its schema, reusing the records, arrays,
+   * maps, strings, bytes and fixed values of a previous copy where possible.
+   * Immutable values, such as strings and numbers, are not copied.
+   * <P>
+   * Copying is compiled once per schema, so repeated copies of values of the same
+   * schema avoid re-interpreting it.
+   *
+   * @param schema the schema of the value to deep copy.
+   * @param value  the value to deep copy.
+   * @param reuse  a previous copy whose objects may be overwritten, or null.
+   * @return a deep copy of the given value.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T deepCopy(Schema schema, T value, T reuse) {
+    if (value == null)
       return null;
-    case RECORD:
-      Object oldState = getRecordState(value, schema);
-      Object newRecord = newRecord(null, schema);
-      Object newState = getRecordState(newRecord, schema);
-      for (Field f : schema.getFields()) {
-        int pos = f.pos();
-        String name = f.name();
-        Object newValue = deepCopy(f.schema(), getField(value, name, pos, oldState));
-        setField(newRecord, name, pos, newValue, newState);
-      }
-      return newRecord;
-    case STRING:
-      // Strings are immutable
-      if (value instanceof String) {
-        return value;
-      }
-
-      // Some CharSequence subclasses are mutable, so we still need to make
-      // a copy
-      else if (value instanceof Utf8) {
-        // Utf8 copy constructor is more efficient than converting
-        // to string and then back to Utf8
-        return new Utf8((Utf8) value);
-      }
-      return new Utf8(value.toString());
-    case UNION:
-      return deepCopy(schema.getTypes().get(resolveUnion(schema, value)), value);
-    default:
-      throw new AvroRuntimeException("Deep copy failed for schema \"" + schema + "\" and value \"" + value + "\"");
-    }
+    return (T) copiers.computeIfAbsent(schema, s -> DeepCopier.compile(this, s)).copy(value, reuse);
   }
 
   /**
@@ -18,6 +18,7 @@
 package org.apache.avro.generic;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
@@ -77,6 +78,12 @@ public class GenericDatumWriter<D> implements DatumWriter<D> {
     LogicalType logicalType = schema.getLogicalType();
     if (datum != null && logicalType != null) {
       Conversion<?> conversion = getData().getConversionByClass(datum.getClass(), logicalType);
+      if (conversion != null && conversion.getClass() == Conversions.DecimalConversion.class
+          && schema.getType() == Schema.Type.BYTES) {
+        // skip the ByteBuffer of toBytes
+        ((Conversions.DecimalConversion) conversion).writeBytes((BigDecimal) datum, schema, logicalType, out);
+        return;
+      }
       writeWithoutConversion(schema, convert(schema, logicalType, conversion, datum), out);
     } else {
       writeWithoutConversion(schema, datum, out);
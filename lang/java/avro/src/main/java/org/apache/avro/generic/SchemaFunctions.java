@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.generic;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.UnresolvedUnionException;
+import org.apache.avro.util.Utf8;
+
+/**
+ * Implements {@link GenericData#validate(Schema, Object)},
+ * {@link GenericData#hashCode(Object, Schema)} and
+ * {@link GenericData#compare(Object, Object, Schema)} for values of a schema.
+ * The schema is compiled once into a tree of functions, one per schema node, so
+ * that values are not dispatched on their schema's type and record fields are
+ * not looked up while they are visited. Functions call back into their
+ * {@link GenericData} for its data representation, just as the interpreted
+ * implementations do, and give the same results. Values of schemas with a
+ * logical type, which may be converted to any class, are left to the
+ * interpreted implementations.
+ * <p/>
+ * Functions are cached by their schema in a weak cache, so hold schemas weakly:
+ * while the cached schema is in use, it keeps the schemas within it alive.
+ */
+abstract class SchemaFunctions {
+  /** Returns true if a datum matches the schema. */
+  abstract boolean validate(Object datum);
+
+  /** Compute a hash code for a value of the schema. */
+  final int hashCode(Object o) {
+    return o == null ? 0 : hashNonNull(o); // null for an incomplete datum
+  }
+
+  abstract int hashNonNull(Object o);
+
+  /**
+   * Compare values of the schema. When equals is true, only checks for equality,
+   * not for order.
+   */
+  final int compare(Object o1, Object o2, boolean equals) {
+    return o1 == o2 ? 0 : compareDistinct(o1, o2, equals);
+  }
+
+  abstract int compareDistinct(Object o1, Object o2, boolean equals);
+
+  static SchemaFunctions compile(GenericData data, Schema schema) {
+    return compile(data, schema, new IdentityHashMap<>());
+  }
+
+  private static SchemaFunctions compile(GenericData data, Schema schema, Map<Schema, RecordFunctions> records) {
+    if (schema.getLogicalType() != null)
+      return new InterpretedFunctions(data, schema);
+    switch (schema.getType()) {
+    case RECORD:
+      RecordFunctions record = records.get(schema);
+      if (record == null) {
+        record = new RecordFunctions(data, schema);
+        records.put(schema, record); // before the fields, for recursive records
+        record.compileFields(records);
+      }
+      return record;
+    case ENUM:
+      return new EnumFunctions(data, schema);
+    case ARRAY:
+      return new ArrayFunctions(data, compile(data, schema.getElementType(), records));
+    case MAP:
+      return new MapFunctions(data, compile(data, schema.getValueType(), records));
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      SchemaFunctions[] branches = new SchemaFunctions[types.size()];
+      for (int i = 0; i < branches.length; i++) {
+        branches[i] = compile(data, types.get(i), records);
+      }
+      return new UnionFunctions(data, schema, branches);
+    case FIXED:
+      return new FixedFunctions(schema);
+    case STRING:
+      return new StringFunctions(data);
+    case BYTES:
+      return new ComparableFunctions(data::isBytes);
+    case INT:
+      return new ComparableFunctions(data::isInteger);
+    case LONG:
+      return new ComparableFunctions(data::isLong);
+    case FLOAT:
+      return new ComparableFunctions(data::isFloat);
+    case DOUBLE:
+      return new ComparableFunctions(data::isDouble);
+    case BOOLEAN:
+      return new ComparableFunctions(data::isBoolean);
+    case NULL:
+      return NULL;
+    default:
+      return new ComparableFunctions(datum -> false);
+    }
+  }
+
+  private static class RecordFunctions extends SchemaFunctions {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+    private final String[] names;
+    private final int[] positions;
+    private SchemaFunctions[] fields;
+    private int[] ordered; // indexes of fields that are not ignored
+    private boolean[] descending;
+
+    RecordFunctions(GenericData data, Schema schema) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+      List<Field> schemaFields = schema.getFields();
+      this.names = new String[schemaFields.size()];
+      this.positions = new int[schemaFields.size()];
+      for (int i = 0; i < names.length; i++) {
+        names[i] = schemaFields.get(i).name();
+        positions[i] = schemaFields.get(i).pos();
+      }
+    }
+
+    void compileFields(Map<Schema, RecordFunctions> records) {
+      List<Field> schemaFields = schema.get().getFields();
+      fields = new SchemaFunctions[schemaFields.size()];
+      List<Integer> notIgnored = new ArrayList<>();
+      for (int i = 0; i < fields.length; i++) {
+        Field field = schemaFields.get(i);
+        fields[i] = SchemaFunctions.compile(data, field.schema(), records);
+        if (field.order() != Field.Order.IGNORE) {
+          notIgnored.add(i);
+        }
+      }
+      ordered = new int[notIgnored.size()];
+      descending = new boolean[ordered.length];
+      for (int i = 0; i < ordered.length; i++) {
+        ordered[i] = notIgnored.get(i);
+        descending[i] = schemaFields.get(ordered[i]).order() == Field.Order.DESCENDING;
+      }
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      if (!data.isRecord(datum))
+        return false;
+      Object state = data.getRecordState(datum, schema.get());
+      for (int i = 0; i < fields.length; i++) {
+        if (!fields[i].validate(data.getField(datum, names[i], positions[i], state)))
+          return false;
+      }
+      return true;
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      Object state = data.getRecordState(o, schema.get());
+      int hashCode = 1;
+      for (int i : ordered) {
+        hashCode = 31 * hashCode + fields[i].hashCode(data.getField(o, names[i], positions[i], state));
+      }
+      return hashCode;
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      Schema schema = this.schema.get();
+      Object state1 = data.getRecordState(o1, schema);
+      Object state2 = data.getRecordState(o2, schema);
+      for (int j = 0; j < ordered.length; j++) {
+        int i = ordered[j];
+        int compare = fields[i].compare(data.getField(o1, names[i], positions[i], state1),
+            data.getField(o2, names[i], positions[i], state2), equals);
+        if (compare != 0) // not equal
+          return descending[j] ? -compare : compare;
+      }
+      return 0;
+    }
+  }
+
+  private static class EnumFunctions extends SchemaFunctions {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+    private final Set<String> symbols;
+
+    EnumFunctions(GenericData data, Schema schema) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+      this.symbols = new HashSet<>(schema.getEnumSymbols());
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      return data.isEnum(datum) && symbols.contains(datum.toString());
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      return schema.get().getEnumOrdinal(o.toString());
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      if (o1 instanceof Enum && o2 instanceof Enum)
+        return ((Enum<?>) o1).ordinal() - ((Enum<?>) o2).ordinal();
+      Schema schema = this.schema.get();
+      return schema.getEnumOrdinal(o1.toString()) - schema.getEnumOrdinal(o2.toString());
+    }
+  }
+
+  private static class ArrayFunctions extends SchemaFunctions {
+    private final GenericData data;
+    private final SchemaFunctions element;
+
+    ArrayFunctions(GenericData data, SchemaFunctions element) {
+      this.data = data;
+      this.element = element;
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      if (!data.isArray(datum))
+        return false;
+      for (Object e : data.getArrayAsCollection(datum))
+        if (!element.validate(e))
+          return false;
+      return true;
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      int hashCode = 1;
+      for (Object e : (Collection<?>) o)
+        hashCode = 31 * hashCode + element.hashCode(e);
+      return hashCode;
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      Iterator<?> e1 = ((Collection<?>) o1).iterator();
+      Iterator<?> e2 = ((Collection<?>) o2).iterator();
+      while (e1.hasNext() && e2.hasNext()) {
+        int compare = element.compare(e1.next(), e2.next(), equals);
+        if (compare != 0)
+          return compare;
+      }
+      return e1.hasNext() ? 1 : (e2.hasNext() ? -1 : 0);
+    }
+  }
+
+  private static class MapFunctions extends SchemaFunctions {
+    private final GenericData data;
+    private final SchemaFunctions value;
+
+    MapFunctions(GenericData data, SchemaFunctions value) {
+      this.data = data;
+      this.value = value;
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      if (!data.isMap(datum))
+        return false;
+      for (Object v : ((Map<?, ?>) datum).values())
+        if (!value.validate(v))
+          return false;
+      return true;
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      return o.hashCode();
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      if (equals)
+        return o1.equals(o2) ? 0 : 1;
+      throw new AvroRuntimeException("Can't compare maps!");
+    }
+  }
+
+  private static class UnionFunctions extends SchemaFunctions {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+    private final SchemaFunctions[] branches;
+
+    UnionFunctions(GenericData data, Schema schema, SchemaFunctions[] branches) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+      this.branches = branches;
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      try {
+        return branches[data.resolveUnion(schema.get(), datum)].validate(datum);
+      } catch (UnresolvedUnionException e) {
+        return false;
+      }
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      return branches[data.resolveUnion(schema.get(), o)].hashNonNull(o);
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      Schema schema = this.schema.get();
+      int i1 = data.resolveUnion(schema, o1);
+      int i2 = data.resolveUnion(schema, o2);
+      return (i1 == i2) ? branches[i1].compareDistinct(o1, o2, equals) : Integer.compare(i1, i2);
+    }
+  }
+
+  private static class FixedFunctions extends SchemaFunctions {
+    private final int size;
+
+    FixedFunctions(Schema schema) {
+      this.size = schema.getFixedSize();
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      return datum instanceof GenericFixed && ((GenericFixed) datum).bytes().length == size;
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      return o.hashCode();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      return ((Comparable<Object>) o1).compareTo(o2);
+    }
+  }
+
+  /**
+   * Strings hash and compare as their UTF-8 encoding does, as {@link Utf8} values
+   * do. Other character sequences are visited in place, rather than converted to
+   * {@link Utf8}, unless they contain surrogates.
+   */
+  private static class StringFunctions extends SchemaFunctions {
+    private final GenericData data;
+
+    StringFunctions(GenericData data) {
+      this.data = data;
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      return data.isString(datum);
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      if (o instanceof Utf8)
+        return o.hashCode();
+      CharSequence s = (CharSequence) o;
+      int hash = 0;
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+          hash = hash * 31 + c;
+        } else if (c < 0x800) {
+          hash = hash * 31 + (byte) (0xc0 | (c >> 6));
+          hash = hash * 31 + (byte) (0x80 | (c & 0x3f));
+        } else if (!Character.isSurrogate(c)) {
+          hash = hash * 31 + (byte) (0xe0 | (c >> 12));
+          hash = hash * 31 + (byte) (0x80 | ((c >> 6) & 0x3f));
+          hash = hash * 31 + (byte) (0x80 | (c & 0x3f));
+        } else {
+          return new Utf8(s.toString()).hashCode();
+        }
+      }
+      return hash;
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      if (!(o1 instanceof Utf8) && !(o2 instanceof Utf8)) {
+        // without surrogates, UTF-8 byte order is the order of chars
+        CharSequence s1 = (CharSequence) o1;
+        CharSequence s2 = (CharSequence) o2;
+        int l1 = s1.length();
+        int l2 = s2.length();
+        int l = Math.min(l1, l2);
+        for (int i = 0; i < l; i++) {
+          char c1 = s1.charAt(i);
+          char c2 = s2.charAt(i);
+          if (Character.isSurrogate(c1) || Character.isSurrogate(c2))
+            return compareUtf8(o1, o2);
+          if (c1 != c2)
+            return c1 - c2;
+        }
+        return l1 - l2;
+      }
+      return compareUtf8(o1, o2);
+    }
+
+    private static int compareUtf8(Object o1, Object o2) {
+      Utf8 u1 = o1 instanceof Utf8 ? (Utf8) o1 : new Utf8(o1.toString());
+      Utf8 u2 = o2 instanceof Utf8 ? (Utf8) o2 : new Utf8(o2.toString());
+      return u1.compareTo(u2);
+    }
+  }
+
+  /** Values of logical types are left to the interpreted implementations. */
+  private static class InterpretedFunctions extends SchemaFunctions {
+    private final GenericData data;
+    private final WeakReference<Schema> schema;
+
+    InterpretedFunctions(GenericData data, Schema schema) {
+      this.data = data;
+      this.schema = new WeakReference<>(schema);
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      return data.interpretValidate(schema.get(), datum);
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      return data.interpretHashCode(o, schema.get());
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      return data.interpretCompare(o1, o2, schema.get(), equals);
+    }
+  }
+
+  private static class ComparableFunctions extends SchemaFunctions {
+    private final Predicate<Object> isType;
+
+    ComparableFunctions(Predicate<Object> isType) {
+      this.isType = isType;
+    }
+
+    @Override
+    boolean validate(Object datum) {
+      return isType.test(datum);
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      return o.hashCode();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      return ((Comparable<Object>) o1).compareTo(o2);
+    }
+  }
+
+  private static final SchemaFunctions NULL = new SchemaFunctions() {
+    @Override
+    boolean validate(Object datum) {
+      return datum == null;
+    }
+
+    @Override
+    int hashNonNull(Object o) {
+      return 0;
+    }
+
+    @Override
+    int compareDistinct(Object o1, Object o2, boolean equals) {
+      return 0;
+    }
+  };
+}
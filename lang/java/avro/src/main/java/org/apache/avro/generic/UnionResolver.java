@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.generic;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.JsonProperties;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+
+/**
+ * Remembers which branch of a union the values of each class resolved to, so
+ * that {@link GenericData#resolveUnion(Schema, Object)} need not compute schema
+ * names or test branches for every datum.
+ * <p/>
+ * A datum's class determines its branch, except for {@link GenericContainer}s
+ * of named types, such as generic records, whose class is shared by all their
+ * schemas. Those are remembered by class and schema instance together. Maps are
+ * never remembered, as their branch may depend on their contents: ReflectData
+ * writes maps with keys that are not strings as arrays. Reads do not lock: the
+ * remembered branches are an immutable array, replaced when a class is added.
+ * <p/>
+ * Resolvers are cached by their union in a weak cache, so hold schemas weakly.
+ */
+final class UnionResolver {
+  /** Unions with values of more classes than this resolve the rest uncached. */
+  private static final int MAX_CLASSES = 16;
+
+  private static final Branch[] NONE = new Branch[0];
+
+  private final int nullIndex;
+  private volatile Branch[] branches = NONE;
+
+  UnionResolver(Schema union) {
+    List<Schema> types = union.getTypes();
+    int index = -1;
+    for (int i = 0; i < types.size(); i++) {
+      if (types.get(i).getType() == Type.NULL && types.get(i).getLogicalType() == null) {
+        index = i;
+        break;
+      }
+    }
+    this.nullIndex = index;
+  }
+
+  /** Return the branch remembered for a datum, or -1 if none is. */
+  int lookup(Object datum) {
+    if (datum == null || datum == JsonProperties.NULL_VALUE) {
+      return nullIndex;
+    }
+    Class<?> type = datum.getClass();
+    for (Branch branch : branches) {
+      if (branch.type == type
+          && (branch.schema == null || branch.schema.get() == ((GenericContainer) datum).getSchema())) {
+        return branch.index;
+      }
+    }
+    return -1;
+  }
+
+  /** Remember the branch a datum resolved to. */
+  void learn(Schema union, Object datum, int index) {
+    if (datum == null || datum == JsonProperties.NULL_VALUE || datum instanceof Map) {
+      return;
+    }
+    Schema schema = null;
+    if (datum instanceof GenericContainer && isNamed(union.getTypes().get(index).getType())) {
+      schema = ((GenericContainer) datum).getSchema();
+    }
+    synchronized (this) {
+      Branch[] current = branches;
+      if (current.length < MAX_CLASSES) {
+        Branch[] added = new Branch[current.length + 1];
+        System.arraycopy(current, 0, added, 0, current.length);
+        added[current.length] = new Branch(datum.getClass(), schema, index);
+        branches = added;
+      }
+    }
+  }
+
+  private static boolean isNamed(Type type) {
+    return type == Type.RECORD || type == Type.ENUM || type == Type.FIXED;
+  }
+
+  private static final class Branch {
+    private final Class<?> type;
+    private final WeakReference<Schema> schema; // for containers of named types, else null
+    private final int index;
+
+    Branch(Class<?> type, Schema schema, int index) {
+      this.type = type;
+      this.schema = schema == null ? null : new WeakReference<>(schema);
+      this.index = index;
+    }
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericDatumReader;
+
+/**
+ * Compares binary encoded data of a schema, with the same order as
+ * {@link BinaryData#compare(byte[], int, int, byte[], int, int, Schema)}. The
+ * schema is compiled once into a tree of comparison steps, so that comparing
+ * does not need to switch on schema types or look up field orders. Instances
+ * are not thread-safe: use one per thread.
+ */
+public class BinaryComparator {
+  private final Node root;
+  private final BinaryDecoder d1 = new BinaryDecoder(new byte[0], 0, 0);
+  private final BinaryDecoder d2 = new BinaryDecoder(new byte[0], 0, 0);
+
+  /** Construct a comparator for data written with a schema. */
+  public BinaryComparator(Schema schema) {
+    this.root = compile(schema, new IdentityHashMap<>());
+  }
+
+  /**
+   * Compare binary encoded data. If equal, return zero. If greater-than, return a
+   * positive value, if less than return a negative value.
+   */
+  public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    d1.setBuf(b1, s1, l1);
+    d2.setBuf(b2, s2, l2);
+    try {
+      return root.compare(d1, d2);
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    } finally {
+      d1.clearBuf();
+      d2.clearBuf();
+    }
+  }
+
+  private abstract static class Node {
+    abstract int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException;
+  }
+
+  private static Node compile(Schema schema, Map<Schema, Node> seen) {
+    switch (schema.getType()) {
+    case RECORD: {
+      Node node = seen.get(schema);
+      if (node == null) {
+        RecordNode record = new RecordNode(schema);
+        seen.put(schema, record); // before compiling fields, for recursive schemas
+        List<Field> fields = schema.getFields();
+        record.fields = new Node[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+          Field field = fields.get(i);
+          record.fields[i] = field.order() == Field.Order.IGNORE ? new SkipNode(field.schema())
+              : compile(field.schema(), seen);
+        }
+        node = record;
+      }
+      return node;
+    }
+    case ENUM:
+    case INT:
+      return INT;
+    case LONG:
+      return LONG;
+    case FLOAT:
+      return FLOAT;
+    case DOUBLE:
+      return DOUBLE;
+    case BOOLEAN:
+      return BOOLEAN;
+    case ARRAY:
+      return new ArrayNode(compile(schema.getElementType(), seen));
+    case MAP:
+      return MAP;
+    case UNION: {
+      List<Schema> types = schema.getTypes();
+      Node[] branches = new Node[types.size()];
+      for (int i = 0; i < branches.length; i++) {
+        branches[i] = compile(types.get(i), seen);
+      }
+      return new UnionNode(branches);
+    }
+    case FIXED:
+      return new FixedNode(schema.getFixedSize());
+    case STRING:
+    case BYTES:
+      return BYTES;
+    case NULL:
+      return NULL;
+    default:
+      throw new AvroRuntimeException("Unexpected schema to compare!");
+    }
+  }
+
+  private static class RecordNode extends Node {
+    private final boolean[] descending;
+    Node[] fields;
+
+    RecordNode(Schema schema) {
+      List<Field> fields = schema.getFields();
+      this.descending = new boolean[fields.size()];
+      for (int i = 0; i < descending.length; i++) {
+        descending[i] = fields.get(i).order() == Field.Order.DESCENDING;
+      }
+    }
+
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      for (int i = 0; i < fields.length; i++) {
+        int c = fields[i].compare(d1, d2);
+        if (c != 0) {
+          return descending[i] ? -c : c;
+        }
+      }
+      return 0;
+    }
+  }
+
+  /** A field with order "ignore": skip its value in both inputs. */
+  private static class SkipNode extends Node {
+    private final Schema schema;
+
+    SkipNode(Schema schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      GenericDatumReader.skip(schema, d1);
+      GenericDatumReader.skip(schema, d2);
+      return 0;
+    }
+  }
+
+  private static class ArrayNode extends Node {
+    private final Node element;
+
+    ArrayNode(Node element) {
+      this.element = element;
+    }
+
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      long i = 0; // position in array
+      long r1 = 0, r2 = 0; // remaining in current block
+      long l1 = 0, l2 = 0; // total array length
+      while (true) {
+        if (r1 == 0) { // refill blocks(s)
+          r1 = d1.readLong();
+          if (r1 < 0) {
+            r1 = -r1;
+            d1.readLong();
+          }
+          l1 += r1;
+        }
+        if (r2 == 0) {
+          r2 = d2.readLong();
+          if (r2 < 0) {
+            r2 = -r2;
+            d2.readLong();
+          }
+          l2 += r2;
+        }
+        if (r1 == 0 || r2 == 0) // empty block: done
+          return Long.compare(l1, l2);
+        long l = Math.min(l1, l2);
+        while (i < l) { // compare to end of block
+          int c = element.compare(d1, d2);
+          if (c != 0)
+            return c;
+          i++;
+          r1--;
+          r2--;
+        }
+      }
+    }
+  }
+
+  private static class UnionNode extends Node {
+    private final Node[] branches;
+
+    UnionNode(Node[] branches) {
+      this.branches = branches;
+    }
+
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      int i1 = d1.readInt();
+      int i2 = d2.readInt();
+      int c = Integer.compare(i1, i2);
+      return c == 0 ? branches[i1].compare(d1, d2) : c;
+    }
+  }
+
+  private static class FixedNode extends Node {
+    private final int size;
+
+    FixedNode(int size) {
+      this.size = size;
+    }
+
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      int c = BinaryData.compareBytes(d1.getBuf(), d1.getPos(), size, d2.getBuf(), d2.getPos(), size);
+      d1.skipFixed(size);
+      d2.skipFixed(size);
+      return c;
+    }
+  }
+
+  private static final Node INT = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      return Integer.compare(d1.readInt(), d2.readInt());
+    }
+  };
+
+  private static final Node LONG = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      return Long.compare(d1.readLong(), d2.readLong());
+    }
+  };
+
+  private static final Node FLOAT = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      return Float.compare(d1.readFloat(), d2.readFloat());
+    }
+  };
+
+  private static final Node DOUBLE = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      return Double.compare(d1.readDouble(), d2.readDouble());
+    }
+  };
+
+  private static final Node BOOLEAN = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      return Boolean.compare(d1.readBoolean(), d2.readBoolean());
+    }
+  };
+
+  private static final Node BYTES = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) throws IOException {
+      int l1 = d1.readInt();
+      int l2 = d2.readInt();
+      int c = BinaryData.compareBytes(d1.getBuf(), d1.getPos(), l1, d2.getBuf(), d2.getPos(), l2);
+      d1.skipFixed(l1);
+      d2.skipFixed(l2);
+      return c;
+    }
+  };
+
+  private static final Node NULL = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) {
+      return 0;
+    }
+  };
+
+  private static final Node MAP = new Node() {
+    @Override
+    int compare(BinaryDecoder d1, BinaryDecoder d2) {
+      throw new AvroRuntimeException("Can't compare maps!");
+    }
+  };
+}
@@ -430,4 +430,76 @@ public class BinaryData {
     return 8;
   }
 
+  /**
+   * Returns the number of bytes of the UTF-8 encoding of a string, as encoded by
+   * {@link #encodeUtf8(String, byte[], int)} and by
+   * {@code String.getBytes(StandardCharsets.UTF_8)}, which replaces unpaired
+   * surrogates with '?'.
+   */
+  public static int utf8Length(String s) {
+    int length = s.length();
+    int i = 0;
+    while (i < length && s.charAt(i) < 0x80) {
+      i++;
+    }
+    int utf8Length = i;
+    for (; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        utf8Length++;
+      } else if (c < 0x800) {
+        utf8Length += 2;
+      } else if (!Character.isSurrogate(c)) {
+        utf8Length += 3;
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+        utf8Length += 4;
+        i++;
+      } else {
+        utf8Length++;
+      }
+    }
+    return utf8Length;
+  }
+
+  /**
+   * Encode a string as UTF-8 to the byte array at the given position, as
+   * {@code String.getBytes(StandardCharsets.UTF_8)} would, but without an
+   * intermediate array. Will throw IndexOutOfBounds if it overflows. Users should
+   * ensure that there are at least {@link #utf8Length(String)} bytes left in the
+   * buffer before calling this method.
+   *
+   * @return The number of bytes written to the buffer.
+   */
+  public static int encodeUtf8(String s, byte[] buf, int pos) {
+    int length = s.length();
+    int start = pos;
+    int i = 0;
+    // ASCII, by far the most common, needs no more than a copy
+    for (char c; i < length && (c = s.charAt(i)) < 0x80; i++) {
+      buf[pos++] = (byte) c;
+    }
+    for (; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        buf[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        buf[pos++] = (byte) (0xC0 | (c >> 6));
+        buf[pos++] = (byte) (0x80 | (c & 0x3F));
+      } else if (!Character.isSurrogate(c)) {
+        buf[pos++] = (byte) (0xE0 | (c >> 12));
+        buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buf[pos++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, s.charAt(++i));
+        buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+        buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else {
+        buf[pos++] = '?';
+      }
+    }
+    return pos - start;
+  }
+
 }
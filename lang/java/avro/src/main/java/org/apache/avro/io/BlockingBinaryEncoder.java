@@ -20,6 +20,7 @@ package org.apache.avro.io;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 import org.apache.avro.AvroTypeException;
@@ -277,6 +278,25 @@ public class BlockingBinaryEncoder extends BufferedBinaryEncoder {
     pos += BinaryData.encodeDouble(d, buf, pos);
   }
 
+  @Override
+  public void writeString(String string) throws IOException {
+    if (0 == string.length()) {
+      writeZero();
+      return;
+    }
+    int len = BinaryData.utf8Length(string);
+    if (len + 5 > buf.length) {
+      // too big for the buffer
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      writeInt(bytes.length);
+      writeFixed(bytes, 0, bytes.length);
+      return;
+    }
+    ensureBounds(len + 5);
+    pos += BinaryData.encodeInt(len, buf, pos);
+    pos += BinaryData.encodeUtf8(string, buf, pos);
+  }
+
   @Override
   public void writeFixed(byte[] bytes, int start, int len) throws IOException {
     doWriteBytes(bytes, start, len);
@@ -149,6 +149,23 @@ public class BufferedBinaryEncoder extends BinaryEncoder {
     pos += BinaryData.encodeDouble(d, buf, pos);
   }
 
+  @Override
+  public void writeString(String string) throws IOException {
+    if (0 == string.length()) {
+      writeZero();
+      return;
+    }
+    int len = BinaryData.utf8Length(string);
+    if (len + 5 > buf.length) {
+      // too big for the buffer
+      super.writeString(string);
+      return;
+    }
+    ensureBounds(len + 5);
+    pos += BinaryData.encodeInt(len, buf, pos);
+    pos += BinaryData.encodeUtf8(string, buf, pos);
+  }
+
   @Override
   public void writeFixed(byte[] bytes, int start, int len) throws IOException {
     if (len > bulkLimit) {
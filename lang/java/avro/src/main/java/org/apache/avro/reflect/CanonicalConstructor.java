@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+
+/**
+ * Creates instances of a Java record class (Java 16 and later) through its
+ * canonical constructor, as the fields of records can not be set. The values of
+ * the fields of a schema are collected in an array of constructor arguments.
+ */
+final class CanonicalConstructor {
+
+  private static final Method GET_RECORD_COMPONENTS;
+  private static final Method GET_NAME;
+
+  static {
+    Method getRecordComponents = null;
+    Method getName = null;
+    try {
+      getRecordComponents = Class.class.getMethod("getRecordComponents");
+      getName = Class.forName("java.lang.reflect.RecordComponent").getMethod("getName");
+    } catch (ReflectiveOperationException e) {
+      // not a Java version with records
+    }
+    GET_RECORD_COMPONENTS = getRecordComponents;
+    GET_NAME = getName;
+  }
+
+  /** Returns whether a class is a Java record class. */
+  static boolean isJavaRecord(Class<?> c) {
+    Class<?> superclass = c.getSuperclass();
+    return superclass != null && GET_RECORD_COMPONENTS != null && "java.lang.Record".equals(superclass.getName());
+  }
+
+  /**
+   * Returns the fields of the components of a Java record class, in the order of
+   * the components and so of the parameters of the canonical constructor.
+   */
+  static Field[] getComponentFields(Class<?> c) {
+    try {
+      Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(c);
+      Field[] fields = new Field[components.length];
+      for (int i = 0; i < components.length; i++) {
+        fields[i] = c.getDeclaredField((String) GET_NAME.invoke(components[i]));
+      }
+      return fields;
+    } catch (ReflectiveOperationException e) {
+      throw new AvroRuntimeException("Cannot get the components of " + c, e);
+    }
+  }
+
+  private final MethodHandle constructor;
+  private final Field[] components;
+  private final Object[] defaults;
+  private final int[] parameters;
+  private final CustomEncoding<?>[] encodings;
+
+  CanonicalConstructor(Class<?> c, Schema schema) {
+    this.components = getComponentFields(c);
+    Class<?>[] types = new Class<?>[components.length];
+    this.defaults = new Object[components.length];
+    this.encodings = new CustomEncoding<?>[components.length];
+    for (int i = 0; i < components.length; i++) {
+      types[i] = components[i].getType();
+      if (types[i].isPrimitive()) {
+        // the zero of the type, for fields that are not in the schema
+        defaults[i] = Array.get(Array.newInstance(types[i], 1), 0);
+      }
+      AvroEncode enc = components[i].getAnnotation(AvroEncode.class);
+      if (enc != null) {
+        try {
+          encodings[i] = enc.using().getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+          throw new AvroRuntimeException("Could not instantiate custom Encoding");
+        }
+      }
+    }
+    try {
+      Constructor<?> canonical = c.getDeclaredConstructor(types);
+      canonical.setAccessible(true);
+      this.constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+          .asType(MethodType.genericMethodType(types.length)).asSpreader(Object[].class, types.length);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      throw new AvroRuntimeException("Cannot use the canonical constructor of " + c, e);
+    }
+
+    List<Schema.Field> fields = schema.getFields();
+    this.parameters = new int[fields.size()];
+    Arrays.fill(parameters, -1);
+    for (int i = 0; i < components.length; i++) {
+      AvroName avroName = components[i].getAnnotation(AvroName.class);
+      Schema.Field field = schema.getField(avroName != null ? avroName.value() : components[i].getName());
+      if (field != null) {
+        parameters[field.pos()] = i;
+      }
+    }
+  }
+
+  /**
+   * Returns the constructor parameter of the field at a position of the schema,
+   * or -1 if no component of the record class has that field.
+   */
+  int getParameter(int pos) {
+    return parameters[pos];
+  }
+
+  /** Returns the field of the component of a parameter. */
+  Field getComponent(int parameter) {
+    return components[parameter];
+  }
+
+  /** Returns the custom encoding of a parameter, or null. */
+  CustomEncoding<?> getEncoding(int parameter) {
+    return encodings[parameter];
+  }
+
+  /**
+   * Returns new constructor arguments, set to the defaults of fields that are not
+   * read.
+   */
+  Object[] newArguments() {
+    return defaults.clone();
+  }
+
+  /** Calls the canonical constructor. */
+  Object newInstance(Object[] arguments) {
+    try {
+      return (Object) constructor.invokeExact(arguments);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new AvroRuntimeException(t);
+    }
+  }
+}
@@ -0,0 +1,598 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.reflect;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+
+/**
+ * Accesses fields through {@link MethodHandle}s. The handles are typed by the
+ * field, so primitive fields are read and written without boxing. Unlike
+ * {@link FieldAccessUnsafe} this uses no internal JDK API, and unlike
+ * {@link FieldAccessReflect} access checks are only made once per field.
+ * <p/>
+ * The handles are held by each accessor rather than in static final fields, so
+ * the JIT cannot treat them as constants; it compiles each handle on its own
+ * once it is hot instead. This is the default from Java 17 on, see
+ * {@link ReflectionUtil#preferMethodHandles()}.
+ */
+class FieldAccessMethodHandle extends FieldAccess {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  @Override
+  protected FieldAccessor getAccessor(Field field) {
+    try {
+      field.setAccessible(true);
+    } catch (RuntimeException e) {
+      // fields of classes in modules that are not open to us, which are only
+      // an error if they are actually read or written
+      return new InaccessibleField(field, e);
+    }
+    AvroEncode enc = field.getAnnotation(AvroEncode.class);
+    if (enc != null)
+      try {
+        return new HandleCustomEncodedField(field, enc.using().getDeclaredConstructor().newInstance());
+      } catch (Exception e) {
+        throw new AvroRuntimeException("Could not instantiate custom Encoding");
+      }
+    Class<?> c = field.getType();
+    if (c == int.class)
+      return new HandleIntField(field);
+    else if (c == long.class)
+      return new HandleLongField(field);
+    else if (c == byte.class)
+      return new HandleByteField(field);
+    else if (c == float.class)
+      return new HandleFloatField(field);
+    else if (c == double.class)
+      return new HandleDoubleField(field);
+    else if (c == char.class)
+      return new HandleCharField(field);
+    else if (c == boolean.class)
+      return new HandleBooleanField(field);
+    else if (c == short.class)
+      return new HandleShortField(field);
+    else
+      return new HandleObjectField(field);
+  }
+
+  /**
+   * Converts what a field handle threw into an unchecked exception. As with
+   * {@link Field#set(Object, Object)}, a value of the wrong type is an
+   * {@link IllegalArgumentException}.
+   */
+  private static RuntimeException rethrow(Throwable t) {
+    if (t instanceof ClassCastException)
+      return new IllegalArgumentException(t);
+    if (t instanceof RuntimeException)
+      return (RuntimeException) t;
+    if (t instanceof Error)
+      throw (Error) t;
+    return new AvroRuntimeException(t);
+  }
+
+  abstract static class HandleCachedField extends FieldAccessor {
+    protected final MethodHandle getter;
+    protected final MethodHandle setter;
+    protected final Field field;
+    protected final boolean isStringable;
+
+    /**
+     * Creates handles that take the object as an {@link Object}, and values as a
+     * {@code type}.
+     */
+    HandleCachedField(Field f, Class<?> type) {
+      this.field = f;
+      this.isStringable = f.isAnnotationPresent(Stringable.class);
+      try {
+        this.getter = LOOKUP.unreflectGetter(f).asType(MethodType.methodType(type, Object.class));
+      } catch (IllegalAccessException e) {
+        throw new AvroRuntimeException(e);
+      }
+      MethodHandle setter;
+      try {
+        setter = LOOKUP.unreflectSetter(f);
+      } catch (IllegalAccessException e) {
+        // the fields of Java records can be read, but not set
+        setter = MethodHandles.dropArguments(MethodHandles.throwException(void.class, AvroRuntimeException.class)
+            .bindTo(new AvroRuntimeException("Cannot set " + f, e)), 0, f.getDeclaringClass(), f.getType());
+      }
+      this.setter = setter.asType(MethodType.methodType(void.class, Object.class, type));
+    }
+
+    @Override
+    protected Field getField() {
+      return field;
+    }
+
+    @Override
+    protected boolean supportsIO() {
+      return true;
+    }
+
+    @Override
+    protected boolean isStringable() {
+      return isStringable;
+    }
+  }
+
+  final static class HandleIntField extends HandleCachedField {
+    HandleIntField(Field f) {
+      super(f, int.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (int) (Integer) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (int) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      int v = in.readInt();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      int v;
+      try {
+        v = (int) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeInt(v);
+    }
+  }
+
+  final static class HandleLongField extends HandleCachedField {
+    HandleLongField(Field f) {
+      super(f, long.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (long) (Long) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (long) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      long v = in.readLong();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      long v;
+      try {
+        v = (long) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeLong(v);
+    }
+  }
+
+  final static class HandleByteField extends HandleCachedField {
+    HandleByteField(Field f) {
+      super(f, byte.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (byte) (Byte) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (byte) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      byte v = (byte) in.readInt();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      byte v;
+      try {
+        v = (byte) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeInt(v);
+    }
+  }
+
+  final static class HandleFloatField extends HandleCachedField {
+    HandleFloatField(Field f) {
+      super(f, float.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (float) (Float) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (float) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      float v = in.readFloat();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      float v;
+      try {
+        v = (float) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeFloat(v);
+    }
+  }
+
+  final static class HandleDoubleField extends HandleCachedField {
+    HandleDoubleField(Field f) {
+      super(f, double.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (double) (Double) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (double) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      double v = in.readDouble();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      double v;
+      try {
+        v = (double) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeDouble(v);
+    }
+  }
+
+  final static class HandleCharField extends HandleCachedField {
+    HandleCharField(Field f) {
+      super(f, char.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (char) (Character) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (char) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      char v = (char) in.readInt();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      char v;
+      try {
+        v = (char) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeInt(v);
+    }
+  }
+
+  final static class HandleBooleanField extends HandleCachedField {
+    HandleBooleanField(Field f) {
+      super(f, boolean.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (boolean) (Boolean) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (boolean) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      boolean v = in.readBoolean();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      boolean v;
+      try {
+        v = (boolean) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeBoolean(v);
+    }
+  }
+
+  final static class HandleShortField extends HandleCachedField {
+    HandleShortField(Field f) {
+      super(f, short.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, (short) (Short) value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (short) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      short v = (short) in.readInt();
+      try {
+        setter.invokeExact(object, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      short v;
+      try {
+        v = (short) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+      out.writeInt(v);
+    }
+  }
+
+  final static class HandleObjectField extends HandleCachedField {
+    HandleObjectField(Field f) {
+      super(f, Object.class);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (Object) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected boolean supportsIO() {
+      return false;
+    }
+  }
+
+  final static class HandleCustomEncodedField extends HandleCachedField {
+
+    private CustomEncoding<?> encoding;
+
+    HandleCustomEncodedField(Field f, CustomEncoding<?> encoding) {
+      super(f, Object.class);
+      this.encoding = encoding;
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (Object) getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      set(object, encoding.read(in));
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      encoding.write(get(object), out);
+    }
+
+    @Override
+    protected boolean isCustomEncoded() {
+      return true;
+    }
+  }
+
+  final static class InaccessibleField extends FieldAccessor {
+    private final Field field;
+    private final RuntimeException cause;
+
+    InaccessibleField(Field field, RuntimeException cause) {
+      this.field = field;
+      this.cause = cause;
+    }
+
+    @Override
+    protected Object get(Object object) {
+      throw new AvroRuntimeException("Cannot access " + field, cause);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      throw new AvroRuntimeException("Cannot access " + field, cause);
+    }
+
+    @Override
+    protected Field getField() {
+      return field;
+    }
+  }
+}
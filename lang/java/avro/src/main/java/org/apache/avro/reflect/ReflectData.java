@@ -55,6 +55,7 @@ import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.avro.io.BinaryData;
 import org.apache.avro.util.ClassUtils;
+import org.apache.avro.util.WeakIdentityCache;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DatumWriter;
 import org.apache.avro.specific.FixedSize;
@@ -268,14 +269,18 @@ public class ReflectData extends SpecificData {
     private final Map<String, FieldAccessor> byName = new HashMap<>();
     // getAccessorsFor is already synchronized, no need to wrap
     final Map<Schema, FieldAccessor[]> bySchema = new WeakHashMap<>();
+    private final boolean javaRecord;
+    private final WeakIdentityCache<Schema, CanonicalConstructor> constructorsBySchema = new WeakIdentityCache<>();
 
     private ClassAccessorData(Class<?> c) {
       clazz = c;
+      javaRecord = CanonicalConstructor.isJavaRecord(c);
+      FieldAccess access = javaRecord ? ReflectionUtil.getRecordFieldAccess() : ReflectionUtil.getFieldAccess();
       for (Field f : getFields(c, false)) {
         if (f.isAnnotationPresent(AvroIgnore.class)) {
           continue;
         }
-        FieldAccessor accessor = ReflectionUtil.getFieldAccess().getAccessor(f);
+        FieldAccessor accessor = access.getAccessor(f);
         AvroName avroname = f.getAnnotation(AvroName.class);
         byName.put((avroname != null ? avroname.value() : f.getName()), accessor);
       }
@@ -304,6 +309,14 @@ public class ReflectData extends SpecificData {
       return result;
     }
 
+    /** Returns the canonical constructor for a schema, or null if not a record. */
+    private CanonicalConstructor getConstructorFor(Schema schema) {
+      if (!javaRecord) {
+        return null;
+      }
+      return constructorsBySchema.computeIfAbsent(schema, s -> new CanonicalConstructor(clazz, s));
+    }
+
     private FieldAccessor getAccessorFor(String fieldName) {
       FieldAccessor result = byName.get(fieldName);
       if (result == null) {
@@ -325,6 +338,20 @@ public class ReflectData extends SpecificData {
     return null;
   }
 
+  /**
+   * Returns the canonical constructor to read a schema into a Java record class
+   * with, or null if the schema is not read into a Java record.
+   */
+  CanonicalConstructor getCanonicalConstructor(Schema schema) {
+    LogicalType logicalType = schema.getLogicalType();
+    if (logicalType != null && getConversionFor(logicalType) != null) {
+      return null;
+    }
+    Class<?> c = getClass(schema);
+    ClassAccessorData data = c == null ? null : getClassAccessorData(c);
+    return data == null ? null : data.getConstructorFor(schema);
+  }
+
   private FieldAccessor getFieldAccessor(Class<?> c, String fieldName) {
     ClassAccessorData data = getClassAccessorData(c);
     if (data != null) {
@@ -712,6 +739,9 @@ public class ReflectData extends SpecificData {
   }
 
   private static Field[] getFields(Class<?> recordClass, boolean excludeJava) {
+    if (CanonicalConstructor.isJavaRecord(recordClass)) {
+      return CanonicalConstructor.getComponentFields(recordClass);
+    }
     Field[] fieldsList;
     Map<String, Field> fields = new LinkedHashMap<>();
     Class<?> c = recordClass;
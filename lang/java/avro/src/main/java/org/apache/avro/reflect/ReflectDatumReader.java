@@ -240,6 +240,50 @@ public class ReflectDatumReader<T> extends SpecificDatumReader<T> {
     }
   }
 
+  @Override
+  protected Object readRecord(Object old, Schema expected, ResolvingDecoder in) throws IOException {
+    CanonicalConstructor constructor = ((ReflectData) getData()).getCanonicalConstructor(expected);
+    if (constructor == null) {
+      return super.readRecord(old, expected, in);
+    }
+    Object[] arguments = constructor.newArguments();
+    for (Field field : in.readFieldOrder()) {
+      int parameter = constructor.getParameter(field.pos());
+      if (parameter < 0) {
+        read(null, field.schema(), in);
+      } else {
+        arguments[parameter] = readComponent(constructor, parameter, field, in);
+      }
+    }
+    return constructor.newInstance(arguments);
+  }
+
+  /** Reads the value of a field of a Java record, as {@link #readField} would. */
+  private Object readComponent(CanonicalConstructor constructor, int parameter, Field field, ResolvingDecoder in)
+      throws IOException {
+    CustomEncoding<?> encoding = constructor.getEncoding(parameter);
+    if (encoding != null) {
+      return encoding.read(in);
+    }
+    java.lang.reflect.Field component = constructor.getComponent(parameter);
+    if (component.isAnnotationPresent(Stringable.class)) {
+      try {
+        String asString = (String) read(null, field.schema(), in);
+        return asString == null ? null : newInstanceFromString(component.getType(), asString);
+      } catch (Exception e) {
+        throw new AvroRuntimeException("Failed to read Stringable", e);
+      }
+    }
+    LogicalType logicalType = field.schema().getLogicalType();
+    if (logicalType != null) {
+      Conversion<?> conversion = getData().getConversionByClass(component.getType(), logicalType);
+      if (conversion != null) {
+        return convert(readWithoutConversion(null, field.schema(), in), field.schema(), logicalType, conversion);
+      }
+    }
+    return readWithoutConversion(null, field.schema(), in);
+  }
+
   @Override
   protected Object readInt(Object old, Schema expected, Decoder in) throws IOException {
     Object value = in.readInt();
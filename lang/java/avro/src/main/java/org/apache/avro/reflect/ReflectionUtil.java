@@ -47,6 +47,7 @@ public class ReflectionUtil {
   }
 
   private static FieldAccess fieldAccess;
+  private static FieldAccess recordFieldAccess;
   static {
     resetFieldAccess();
   }
@@ -55,14 +56,15 @@ public class ReflectionUtil {
     // load only one implementation of FieldAccess
     // so it is monomorphic and the JIT can inline
     FieldAccess access = null;
-    try {
-      if (null == System.getProperty("avro.disable.unsafe")) {
-        FieldAccess unsafeAccess = load("org.apache.avro.reflect.FieldAccessUnsafe", FieldAccess.class);
-        if (validate(unsafeAccess)) {
-          access = unsafeAccess;
-        }
-      }
-    } catch (Throwable ignored) {
+    boolean preferMethodHandles = preferMethodHandles();
+    if (preferMethodHandles) {
+      access = tryLoad("org.apache.avro.reflect.FieldAccessMethodHandle");
+    }
+    if (access == null && null == System.getProperty("avro.disable.unsafe")) {
+      access = tryLoad("org.apache.avro.reflect.FieldAccessUnsafe");
+    }
+    if (access == null && !preferMethodHandles) {
+      access = tryLoad("org.apache.avro.reflect.FieldAccessMethodHandle");
     }
     if (access == null) {
       try {
@@ -75,6 +77,42 @@ public class ReflectionUtil {
       }
     }
     fieldAccess = access;
+
+    // Unsafe cannot get the offsets of the fields of Java records
+    FieldAccess recordAccess = tryLoad("org.apache.avro.reflect.FieldAccessMethodHandle");
+    if (recordAccess == null) {
+      recordAccess = tryLoad("org.apache.avro.reflect.FieldAccessReflect");
+    }
+    recordFieldAccess = recordAccess;
+  }
+
+  /**
+   * Whether method handles are tried before Unsafe. They are as fast as Unsafe
+   * from Java 17 on, but slower before, so Unsafe stays first on older JVMs. The
+   * {@code avro.reflect.methodhandles} system property overrides the choice.
+   */
+  static boolean preferMethodHandles() {
+    String override = System.getProperty("avro.reflect.methodhandles");
+    if (override != null) {
+      return Boolean.parseBoolean(override);
+    }
+    String version = System.getProperty("java.specification.version", "1.8");
+    try {
+      return !version.startsWith("1.") && Integer.parseInt(version) >= 17;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static FieldAccess tryLoad(String name) {
+    try {
+      FieldAccess access = load(name, FieldAccess.class);
+      if (validate(access)) {
+        return access;
+      }
+    } catch (Throwable ignored) {
+    }
+    return null;
   }
 
   private static <T> T load(String name, Class<T> type) throws Exception {
@@ -86,6 +124,13 @@ public class ReflectionUtil {
     return fieldAccess;
   }
 
+  /**
+   * The field access for the fields of Java records, which never uses Unsafe.
+   */
+  static FieldAccess getRecordFieldAccess() {
+    return recordFieldAccess;
+  }
+
   private static boolean validate(FieldAccess access) throws Exception {
     return new AccessorTestClass().validate(access);
   }
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.specific;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Collection;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericArray;
+
+/**
+ * Support for generated records whose arrays of ints, longs, floats or doubles
+ * are held in primitive Java arrays. Such a record's
+ * {@link SpecificRecord#get(int)} wraps the array as a {@link GenericArray}, so
+ * that datum writers, {@link SpecificData#deepCopy(Schema, Object)},
+ * {@link SpecificRecordBase#equals(Object)} and the like see a list, and its
+ * {@link SpecificRecord#put(int, Object)} takes either a primitive array or a
+ * list.
+ */
+public final class PrimitiveArrays {
+
+  private PrimitiveArrays() {
+  }
+
+  /** Returns a list backed by the given array, or null if it is null. */
+  public static GenericArray<Integer> asList(Schema schema, int[] array) {
+    return array == null ? null : new IntArray(schema, array);
+  }
+
+  /** Returns a list backed by the given array, or null if it is null. */
+  public static GenericArray<Long> asList(Schema schema, long[] array) {
+    return array == null ? null : new LongArray(schema, array);
+  }
+
+  /** Returns a list backed by the given array, or null if it is null. */
+  public static GenericArray<Float> asList(Schema schema, float[] array) {
+    return array == null ? null : new FloatArray(schema, array);
+  }
+
+  /** Returns a list backed by the given array, or null if it is null. */
+  public static GenericArray<Double> asList(Schema schema, double[] array) {
+    return array == null ? null : new DoubleArray(schema, array);
+  }
+
+  /**
+   * Returns the given int array, or the elements of a collection of numbers as
+   * one. The array backing a list returned by {@link #asList(Schema, int[])} is
+   * returned without copying if the list still fills it.
+   */
+  public static int[] toIntArray(Object value) {
+    if (value == null || value instanceof int[]) {
+      return (int[]) value;
+    }
+    if (value instanceof IntArray) {
+      return (int[]) ((IntArray) value).trimmed();
+    }
+    int[] result = new int[((Collection<?>) value).size()];
+    int i = 0;
+    for (Object element : (Collection<?>) value) {
+      result[i++] = ((Number) element).intValue();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the given long array, or the elements of a collection of numbers as
+   * one. The array backing a list returned by {@link #asList(Schema, long[])} is
+   * returned without copying if the list still fills it.
+   */
+  public static long[] toLongArray(Object value) {
+    if (value == null || value instanceof long[]) {
+      return (long[]) value;
+    }
+    if (value instanceof LongArray) {
+      return (long[]) ((LongArray) value).trimmed();
+    }
+    long[] result = new long[((Collection<?>) value).size()];
+    int i = 0;
+    for (Object element : (Collection<?>) value) {
+      result[i++] = ((Number) element).longValue();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the given float array, or the elements of a collection of numbers as
+   * one. The array backing a list returned by {@link #asList(Schema, float[])} is
+   * returned without copying if the list still fills it.
+   */
+  public static float[] toFloatArray(Object value) {
+    if (value == null || value instanceof float[]) {
+      return (float[]) value;
+    }
+    if (value instanceof FloatArray) {
+      return (float[]) ((FloatArray) value).trimmed();
+    }
+    float[] result = new float[((Collection<?>) value).size()];
+    int i = 0;
+    for (Object element : (Collection<?>) value) {
+      result[i++] = ((Number) element).floatValue();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the given double array, or the elements of a collection of numbers as
+   * one. The array backing a list returned by {@link #asList(Schema, double[])}
+   * is returned without copying if the list still fills it.
+   */
+  public static double[] toDoubleArray(Object value) {
+    if (value == null || value instanceof double[]) {
+      return (double[]) value;
+    }
+    if (value instanceof DoubleArray) {
+      return (double[]) ((DoubleArray) value).trimmed();
+    }
+    double[] result = new double[((Collection<?>) value).size()];
+    int i = 0;
+    for (Object element : (Collection<?>) value) {
+      result[i++] = ((Number) element).doubleValue();
+    }
+    return result;
+  }
+
+  /**
+   * A list over a primitive array. Adding past the end of the array replaces it
+   * with a larger copy; {@link #reset()} keeps it for reuse.
+   */
+  private abstract static class PrimitiveArray<T> extends AbstractList<T> implements GenericArray<T> {
+    private final Schema schema;
+    protected Object elements;
+    protected int size;
+
+    PrimitiveArray(Schema schema, Object elements) {
+      if (schema == null || !Schema.Type.ARRAY.equals(schema.getType()))
+        throw new AvroRuntimeException("Not an array schema: " + schema);
+      this.schema = schema;
+      this.elements = elements;
+      this.size = Array.getLength(elements);
+    }
+
+    @Override
+    public Schema getSchema() {
+      return schema;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      size = 0;
+    }
+
+    @Override
+    public T peek() {
+      return null;
+    }
+
+    @Override
+    public void add(int location, T o) {
+      if (location > size || location < 0) {
+        throw new IndexOutOfBoundsException("Index " + location + " out of bounds.");
+      }
+      int capacity = Array.getLength(elements);
+      if (size == capacity) {
+        elements = copyOf(Math.max(capacity * 3 / 2 + 1, 10));
+      }
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      size++;
+      set(location, o);
+    }
+
+    @Override
+    public T remove(int i) {
+      T result = get(i);
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, size - i);
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        set(left, set(right, get(left)));
+      }
+    }
+
+    /** Returns the elements, in the backing array if they fill it. */
+    Object trimmed() {
+      return size == Array.getLength(elements) ? elements : copyOf(size);
+    }
+
+    private Object copyOf(int length) {
+      Object result = Array.newInstance(elements.getClass().getComponentType(), length);
+      System.arraycopy(elements, 0, result, 0, Math.min(size, length));
+      return result;
+    }
+
+    protected void checkIndex(int i) {
+      if (i >= size)
+        throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
+    }
+  }
+
+  private static class IntArray extends PrimitiveArray<Integer> {
+    IntArray(Schema schema, int[] elements) {
+      super(schema, elements);
+    }
+
+    @Override
+    public Integer get(int i) {
+      checkIndex(i);
+      return ((int[]) elements)[i];
+    }
+
+    @Override
+    public Integer set(int i, Integer o) {
+      checkIndex(i);
+      int[] array = (int[]) elements;
+      int response = array[i];
+      array[i] = o;
+      return response;
+    }
+  }
+
+  private static class LongArray extends PrimitiveArray<Long> {
+    LongArray(Schema schema, long[] elements) {
+      super(schema, elements);
+    }
+
+    @Override
+    public Long get(int i) {
+      checkIndex(i);
+      return ((long[]) elements)[i];
+    }
+
+    @Override
+    public Long set(int i, Long o) {
+      checkIndex(i);
+      long[] array = (long[]) elements;
+      long response = array[i];
+      array[i] = o;
+      return response;
+    }
+  }
+
+  private static class FloatArray extends PrimitiveArray<Float> {
+    FloatArray(Schema schema, float[] elements) {
+      super(schema, elements);
+    }
+
+    @Override
+    public Float get(int i) {
+      checkIndex(i);
+      return ((float[]) elements)[i];
+    }
+
+    @Override
+    public Float set(int i, Float o) {
+      checkIndex(i);
+      float[] array = (float[]) elements;
+      float response = array[i];
+      array[i] = o;
+      return response;
+    }
+  }
+
+  private static class DoubleArray extends PrimitiveArray<Double> {
+    DoubleArray(Schema schema, double[] elements) {
+      super(schema, elements);
+    }
+
+    @Override
+    public Double get(int i) {
+      checkIndex(i);
+      return ((double[]) elements)[i];
+    }
+
+    @Override
+    public Double set(int i, Double o) {
+      checkIndex(i);
+      double[] array = (double[]) elements;
+      double response = array[i];
+      array[i] = o;
+      return response;
+    }
+  }
+}
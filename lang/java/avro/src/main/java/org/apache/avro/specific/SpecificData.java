@@ -217,6 +217,11 @@ public class SpecificData extends GenericData {
     return datum instanceof Enum || super.isEnum(datum);
   }
 
+  /** Returns true if values of a schema are equal, ignoring their order. */
+  boolean equals(Object o1, Object o2, Schema s) {
+    return compare(o1, o2, s, true) == 0;
+  }
+
   @Override
   public Object createEnum(String symbol, Schema schema) {
     Class c = getClass(schema);
@@ -446,17 +451,6 @@ public class SpecificData extends GenericData {
     }
   }
 
-  @Override
-  protected int compare(Object o1, Object o2, Schema s, boolean eq) {
-    switch (s.getType()) {
-    case ENUM:
-      if (o1 instanceof Enum)
-        return ((Enum) o1).ordinal() - ((Enum) o2).ordinal();
-    default:
-      return super.compare(o1, o2, s, eq);
-    }
-  }
-
   /**
    * Create an instance of a class. If the class implements
    * {@link SchemaConstructable}, call a constructor with a
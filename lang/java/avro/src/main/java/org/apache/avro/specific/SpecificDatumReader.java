@@ -20,7 +20,9 @@ package org.apache.avro.specific;
 import org.apache.avro.Conversion;
 import org.apache.avro.Schema;
 import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.SchemaNormalization;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.Decoder;
 import org.apache.avro.io.ResolvingDecoder;
 import org.apache.avro.util.ClassUtils;
 import java.io.IOException;
@@ -101,6 +103,8 @@ public class SpecificDatumReader<T> extends GenericDatumReader<T> {
 
   private final List<String> untrustedPackages = new ArrayList<>();
 
+  private int writerDecoder = -1;
+
   public SpecificDatumReader() {
     this(null, null, SpecificData.get());
   }
@@ -127,6 +131,7 @@ public class SpecificDatumReader<T> extends GenericDatumReader<T> {
   public SpecificDatumReader(Schema writer, Schema reader, SpecificData data) {
     super(writer, reader, data);
     untrustedPackages.addAll(Arrays.asList(DENY_LIST));
+    writerDecoder = findWriterDecoder();
   }
 
   /** Construct given a {@link SpecificData}. */
@@ -150,6 +155,43 @@ public class SpecificDatumReader<T> extends GenericDatumReader<T> {
         setExpected(data.getSchema(c));
     }
     super.setSchema(actual);
+    writerDecoder = findWriterDecoder();
+  }
+
+  @Override
+  public void setExpected(Schema reader) {
+    super.setExpected(reader);
+    writerDecoder = findWriterDecoder();
+  }
+
+  /**
+   * Returns the index of the decoder the expected record class has generated for
+   * the writer's schema, or -1 if it has none.
+   */
+  private int findWriterDecoder() {
+    Schema actual = getSchema();
+    Schema expected = getExpected();
+    if (actual == null || expected == null || expected.getType() != Schema.Type.RECORD)
+      return -1;
+    SpecificData data = getSpecificData();
+    Class c = data.getClass(expected);
+    if (c == null || !SpecificRecordBase.class.isAssignableFrom(c))
+      return -1;
+    SpecificRecordBase record = (SpecificRecordBase) data.newRecord(null, expected);
+    return record.getWriterDecoder(SchemaNormalization.parsingFingerprint64(actual));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T read(T reuse, Decoder in) throws IOException {
+    SpecificData data = getSpecificData();
+    if (writerDecoder >= 0 && data.useCustomCoders()) {
+      // the record reads the writer's data itself, with no schema resolution
+      SpecificRecordBase record = (SpecificRecordBase) data.newRecord(reuse, getExpected());
+      record.customDecode(writerDecoder, in);
+      return (T) record;
+    }
+    return super.read(reuse, in);
   }
 
   @Override
@@ -212,6 +254,12 @@ public class SpecificDatumReader<T> extends GenericDatumReader<T> {
           d.customDecode(in);
           return d;
         }
+      } else if (old instanceof SpecificExceptionBase) {
+        SpecificExceptionBase d = (SpecificExceptionBase) old;
+        if (d.hasCustomCoders()) {
+          d.customDecode(in);
+          return d;
+        }
       }
     }
     return super.readRecord(old, expected, in);
@@ -79,6 +79,12 @@ public class SpecificDatumWriter<T> extends GenericDatumWriter<T> {
         d.customEncode(out);
         return;
       }
+    } else if (datum instanceof SpecificExceptionBase && this.getSpecificData().useCustomCoders()) {
+      SpecificExceptionBase d = (SpecificExceptionBase) datum;
+      if (d.hasCustomCoders()) {
+        d.customEncode(out);
+        return;
+      }
     }
     super.writeRecord(schema, datum, out);
   }
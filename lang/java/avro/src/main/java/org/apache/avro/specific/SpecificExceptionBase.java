@@ -24,7 +24,10 @@ import java.io.ObjectInput;
 import java.io.IOException;
 
 import org.apache.avro.AvroRemoteException;
+import org.apache.avro.Conversion;
 import org.apache.avro.Schema;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.ResolvingDecoder;
 
 /** Base class for specific exceptions. */
 public abstract class SpecificExceptionBase extends AvroRemoteException implements SpecificRecord, Externalizable {
@@ -54,6 +57,11 @@ public abstract class SpecificExceptionBase extends AvroRemoteException implemen
   @Override
   public abstract void put(int field, Object value);
 
+  public Conversion<?> getConversion(int field) {
+    // for backward-compatibility. no older specific classes have conversions.
+    return null;
+  }
+
   @Override
   public boolean equals(Object that) {
     if (that == this)
@@ -76,4 +84,20 @@ public abstract class SpecificExceptionBase extends AvroRemoteException implemen
   @Override
   public abstract void readExternal(ObjectInput in) throws IOException;
 
+  /**
+   * Returns true iff an instance supports the {@link #customEncode} and
+   * {@link #customDecode} operations. Should only be used by
+   * <code>SpecificDatumReader/Writer</code>, as for {@link SpecificRecordBase}.
+   */
+  protected boolean hasCustomCoders() {
+    return false;
+  }
+
+  public void customEncode(Encoder out) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  public void customDecode(ResolvingDecoder in) throws IOException {
+    throw new UnsupportedOperationException();
+  }
 }
@@ -25,6 +25,7 @@ import java.io.IOException;
 import org.apache.avro.Conversion;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Decoder;
 import org.apache.avro.io.ResolvingDecoder;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.message.MessageDecoder;
@@ -76,7 +77,7 @@ public abstract class SpecificRecordBase
       return false; // not a record
     if (this.getClass() != that.getClass())
       return false; // not same schema
-    return getSpecificData().compare(this, that, this.getSchema(), true) == 0;
+    return getSpecificData().equals(this, that, this.getSchema());
   }
 
   @Override
@@ -122,4 +123,19 @@ public abstract class SpecificRecordBase
   public void customDecode(ResolvingDecoder in) throws IOException {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Returns the index of the decoder generated for the writer's schema with the
+   * given parsing fingerprint, or -1 if there is none. Should only be used by
+   * <code>SpecificDatumReader</code> to select the
+   * {@link #customDecode(int, Decoder)} that reads such data without schema
+   * resolution.
+   */
+  protected int getWriterDecoder(long fingerprint) {
+    return -1;
+  }
+
+  public void customDecode(int writerDecoder, Decoder in) throws IOException {
+    throw new UnsupportedOperationException();
+  }
 }
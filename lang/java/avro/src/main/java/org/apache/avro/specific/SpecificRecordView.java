@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.specific;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.util.ByteBufferInputStream;
+import org.apache.avro.util.Utf8;
+
+/**
+ * Base class for generated views: read-only accessors over a record that stays
+ * binary-encoded in a {@link ByteBuffer}. A field's offset is found the first
+ * time it or a later field is read, by skipping the fields before it, and
+ * values are read in place, so reading a few fields of a record costs no more
+ * than skipping to them. A view is reused by wrapping another buffer; it is not
+ * thread-safe.
+ *
+ * @param <T> the generated record class that the view converts to.
+ */
+public abstract class SpecificRecordView<T extends SpecificRecord> {
+
+  private final Schema schema;
+  private final Class<T> recordClass;
+  private final List<Schema.Field> fields;
+  private final int[] offsets;
+  private int known; // the number of fields whose offsets are known
+  private ByteBuffer buffer;
+  private int end;
+  private DatumReader<T> reader;
+
+  protected SpecificRecordView(Schema schema, Class<T> recordClass) {
+    this.schema = schema;
+    this.recordClass = recordClass;
+    this.fields = schema.getFields();
+    this.offsets = new int[fields.size() + 1];
+  }
+
+  /** Returns the schema the viewed record was written with. */
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Points this view at a record encoded with its schema, held between the
+   * position and the limit of a buffer. The buffer is not copied and must not be
+   * changed while it is viewed.
+   */
+  public void wrap(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.end = buffer.limit();
+    this.offsets[0] = buffer.position();
+    this.known = 1;
+  }
+
+  /**
+   * Returns the encoded record, as a buffer sharing the viewed bytes, so that it
+   * can be forwarded unchanged.
+   */
+  public ByteBuffer getBuffer() {
+    ByteBuffer result = buffer.duplicate();
+    result.limit(end);
+    result.position(offsets[0]);
+    return result;
+  }
+
+  /** Decodes the viewed record. */
+  public T toRecord() throws IOException {
+    return toRecord(null);
+  }
+
+  /** Decodes the viewed record, reusing the given record if not null. */
+  @SuppressWarnings("unchecked")
+  public T toRecord(T reuse) throws IOException {
+    if (reader == null) {
+      reader = SpecificData.getForClass(recordClass).createDatumReader(schema);
+    }
+    BinaryDecoder in;
+    if (buffer.hasArray()) {
+      in = DecoderFactory.get().binaryDecoder(buffer.array(), buffer.arrayOffset() + offsets[0], end - offsets[0],
+          null);
+    } else {
+      in = DecoderFactory.get().binaryDecoder(new ByteBufferInputStream(Collections.singletonList(getBuffer())), null);
+    }
+    return reader.read(reuse, in);
+  }
+
+  /** Returns the offset of a field, skipping the fields before it if needed. */
+  protected int offset(int field) {
+    for (; known <= field; known++) {
+      offsets[known] = skip(fields.get(known - 1).schema(), offsets[known - 1]);
+    }
+    return offsets[field];
+  }
+
+  /**
+   * Returns the offset of the value of a union field if it holds the given
+   * branch, or -1 if it holds another branch.
+   */
+  protected int branchOffset(int field, int branch) {
+    int p = offset(field);
+    return readInt(p) == branch ? skipVarint(p) : -1;
+  }
+
+  protected boolean readBoolean(int p) {
+    return buffer.get(p) != 0;
+  }
+
+  protected int readInt(int p) {
+    long n = readLong(p);
+    if (n != (int) n) {
+      throw new AvroRuntimeException("Invalid int encoding at " + p);
+    }
+    return (int) n;
+  }
+
+  protected long readLong(int p) {
+    long n = 0;
+    int shift = 0;
+    byte b;
+    do {
+      if (shift > 63) {
+        throw new AvroRuntimeException("Invalid long encoding at " + p);
+      }
+      b = buffer.get(p++);
+      n |= (b & 0x7FL) << shift;
+      shift += 7;
+    } while (b < 0);
+    return (n >>> 1) ^ -(n & 1); // back to two's-complement
+  }
+
+  protected float readFloat(int p) {
+    return Float.intBitsToFloat(readFixedInt(p));
+  }
+
+  protected double readDouble(int p) {
+    return Double.longBitsToDouble((readFixedInt(p) & 0xFFFFFFFFL) | ((long) readFixedInt(p + 4) << 32));
+  }
+
+  /** Reads a string into the given {@link Utf8}, if not null. */
+  protected Utf8 readString(int p, Utf8 reuse) {
+    int length = readInt(p);
+    Utf8 result = reuse != null ? reuse : new Utf8();
+    result.setByteLength(length);
+    ByteBuffer bytes = buffer.duplicate();
+    bytes.position(skipVarint(p));
+    bytes.get(result.getBytes(), 0, length);
+    return result;
+  }
+
+  /** Returns a read-only buffer sharing the bytes of a bytes value. */
+  protected ByteBuffer readBytes(int p) {
+    return slice(skipVarint(p), readInt(p));
+  }
+
+  /** Returns a read-only buffer sharing the bytes of a fixed value. */
+  protected ByteBuffer readFixed(int p, int size) {
+    return slice(p, size);
+  }
+
+  private ByteBuffer slice(int p, int length) {
+    ByteBuffer result = buffer.asReadOnlyBuffer();
+    result.limit(p + length);
+    result.position(p);
+    return result.slice();
+  }
+
+  private int readFixedInt(int p) {
+    return (buffer.get(p) & 0xFF) | ((buffer.get(p + 1) & 0xFF) << 8) | ((buffer.get(p + 2) & 0xFF) << 16)
+        | ((buffer.get(p + 3) & 0xFF) << 24);
+  }
+
+  private int skipVarint(int p) {
+    while (buffer.get(p++) < 0) {
+    }
+    return p;
+  }
+
+  private int skip(Schema s, int p) {
+    switch (s.getType()) {
+    case NULL:
+      return p;
+    case BOOLEAN:
+      return p + 1;
+    case INT:
+    case LONG:
+    case ENUM:
+      return skipVarint(p);
+    case FLOAT:
+      return p + 4;
+    case DOUBLE:
+      return p + 8;
+    case STRING:
+    case BYTES:
+      return skipVarint(p) + readInt(p);
+    case FIXED:
+      return p + s.getFixedSize();
+    case UNION:
+      return skip(s.getTypes().get(readInt(p)), skipVarint(p));
+    case RECORD:
+      for (Schema.Field f : s.getFields()) {
+        p = skip(f.schema(), p);
+      }
+      return p;
+    case ARRAY:
+    case MAP:
+      for (long n = readLong(p); n != 0; n = readLong(p)) {
+        p = skipVarint(p);
+        if (n < 0) { // the block's size in bytes follows its count
+          p = skipVarint(p) + (int) readLong(p);
+          continue;
+        }
+        for (; n > 0; n--) {
+          if (s.getType() == Schema.Type.MAP) {
+            p = skip(s.getValueType(), skipVarint(p) + readInt(p));
+          } else {
+            p = skip(s.getElementType(), p);
+          }
+        }
+      }
+      return skipVarint(p);
+    default:
+      throw new AvroRuntimeException("Unknown type: " + s);
+    }
+  }
+}
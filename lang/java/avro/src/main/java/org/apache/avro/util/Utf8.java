@@ -31,6 +31,7 @@ public class Utf8 implements Comparable<Utf8>, CharSequence {
   private static final byte[] EMPTY = new byte[0];
 
   private byte[] bytes = EMPTY;
+  private boolean wrapped; // bytes is the array passed to Utf8(byte[])
   private int length;
   private String string;
 
@@ -56,6 +57,7 @@ public class Utf8 implements Comparable<Utf8>, CharSequence {
     int length = bytes.length;
     SystemLimitException.checkMaxStringLength(length);
     this.bytes = bytes;
+    this.wrapped = true;
     this.length = length;
   }
 
@@ -102,18 +104,25 @@ public class Utf8 implements Comparable<Utf8>, CharSequence {
       byte[] newBytes = new byte[newLength];
       System.arraycopy(bytes, 0, newBytes, 0, this.length);
       this.bytes = newBytes;
+      this.wrapped = false;
     }
     this.length = newLength;
     this.string = null;
     return this;
   }
 
-  /** Set to the contents of a String. */
+  /**
+   * Set to the contents of a String. The current array is reused if it is large
+   * enough, unless it was passed to {@link #Utf8(byte[])}.
+   */
   public Utf8 set(String string) {
-    byte[] bytes = getBytesFor(string);
-    int length = bytes.length;
+    int length = BinaryData.utf8Length(string);
     SystemLimitException.checkMaxStringLength(length);
-    this.bytes = bytes;
+    if (wrapped || this.bytes.length < length) {
+      this.bytes = new byte[length];
+      this.wrapped = false;
+    }
+    BinaryData.encodeUtf8(string, this.bytes, 0);
     this.length = length;
     this.string = string;
     return this;
@@ -122,6 +131,7 @@ public class Utf8 implements Comparable<Utf8>, CharSequence {
   public Utf8 set(Utf8 other) {
     if (this.bytes.length < other.length) {
       this.bytes = new byte[other.length];
+      this.wrapped = false;
     }
     this.length = other.length;
     System.arraycopy(other.bytes, 0, bytes, 0, length);
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache keyed by identity, that does not keep its keys alive.
+ * Unlike a synchronized {@link WeakIdentityHashMap}, lookups neither lock nor
+ * allocate, so it suits caches of values derived from schemas that are read on
+ * every datum.
+ * <p/>
+ * Entries are kept in an open addressing table. Updates lock, and add or
+ * replace entries in place; the table is only copied when it grows, or to drop
+ * entries whose keys were collected. Values are computed outside of any lock:
+ * when threads race to compute the value for a key, each may compute it, and
+ * all get the one stored first.
+ * <p/>
+ * Values should not refer to their key, or the key is never collected.
+ */
+public class WeakIdentityCache<K, V> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+  private volatile AtomicReferenceArray<Entry<K, V>> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+  private int used; // slots of the table that are not empty, guarded by this
+
+  /** Return the value cached for a key, or null. */
+  public V get(K key) {
+    if (queue.poll() != null) {
+      expunge();
+    }
+    AtomicReferenceArray<Entry<K, V>> entries = table;
+    int mask = entries.length() - 1;
+    for (int i = System.identityHashCode(key) & mask;; i = (i + 1) & mask) {
+      Entry<K, V> entry = entries.get(i);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.get() == key) {
+        return entry.value;
+      }
+    }
+  }
+
+  /** Return the value cached for a key, computing and caching it if absent. */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> compute) {
+    V value = get(key);
+    if (value == null) {
+      value = compute.apply(key);
+      synchronized (this) {
+        V prior = get(key);
+        if (prior != null) {
+          return prior;
+        }
+        update(key, value);
+      }
+    }
+    return value;
+  }
+
+  /** Cache a value for a key, replacing any cached before. */
+  public synchronized void put(K key, V value) {
+    update(key, value);
+  }
+
+  /** Return the number of entries, including some whose keys were collected. */
+  public int size() {
+    AtomicReferenceArray<Entry<K, V>> entries = table;
+    int size = 0;
+    for (int i = 0; i < entries.length(); i++) {
+      if (entries.get(i) != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /** Remove all entries. */
+  public synchronized void clear() {
+    while (queue.poll() != null) {
+      // drained: the table that held them is discarded
+    }
+    table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    used = 0;
+  }
+
+  private synchronized void expunge() {
+    while (queue.poll() != null) {
+      // drained: collected entries are dropped by the rehash below
+    }
+    rehash(null, null);
+  }
+
+  /**
+   * Replace or add a key's value. Readers see either the old or the new entry of
+   * a slot, and entries that readers pass over are never removed in place.
+   */
+  private void update(K key, V value) {
+    AtomicReferenceArray<Entry<K, V>> entries = table;
+    int mask = entries.length() - 1;
+    int collected = -1;
+    int i = System.identityHashCode(key) & mask;
+    for (Entry<K, V> entry; (entry = entries.get(i)) != null; i = (i + 1) & mask) {
+      K referent = entry.get();
+      if (referent == key) {
+        entries.set(i, new Entry<>(key, value, queue));
+        return;
+      }
+      if (referent == null && collected < 0) {
+        collected = i;
+      }
+    }
+    if (collected >= 0) { // reuse the slot of a collected key
+      entries.set(collected, new Entry<>(key, value, queue));
+    } else if ((used + 1) * 2 > entries.length()) { // keep the load factor at most one half
+      rehash(key, value);
+    } else {
+      entries.set(i, new Entry<>(key, value, queue));
+      used++;
+    }
+  }
+
+  /** Publish a copy of the table without collected entries, adding a key. */
+  private void rehash(K key, V value) {
+    AtomicReferenceArray<Entry<K, V>> entries = table;
+    int live = key == null ? 0 : 1;
+    for (int i = 0; i < entries.length(); i++) {
+      Entry<K, V> entry = entries.get(i);
+      if (entry != null && entry.get() != null) {
+        live++;
+      }
+    }
+    int capacity = INITIAL_CAPACITY;
+    while (capacity < live * 4) { // leave room to add as many again
+      capacity <<= 1;
+    }
+    AtomicReferenceArray<Entry<K, V>> copy = new AtomicReferenceArray<>(capacity);
+    int copied = 0;
+    for (int i = 0; i < entries.length(); i++) {
+      Entry<K, V> entry = entries.get(i);
+      if (entry != null) {
+        K referent = entry.get();
+        if (referent != null) {
+          insert(copy, referent, entry);
+          copied++;
+        }
+      }
+    }
+    if (key != null) {
+      insert(copy, key, new Entry<>(key, value, queue));
+      copied++;
+    }
+    used = copied;
+    table = copy;
+  }
+
+  private static <K, V> void insert(AtomicReferenceArray<Entry<K, V>> entries, K key, Entry<K, V> entry) {
+    int mask = entries.length() - 1;
+    int i = System.identityHashCode(key) & mask;
+    while (entries.get(i) != null) {
+      i = (i + 1) & mask;
+    }
+    entries.set(i, entry);
+  }
+
+  private static final class Entry<K, V> extends WeakReference<K> {
+    private final V value;
+
+    Entry(K key, V value, ReferenceQueue<K> queue) {
+      super(key, queue);
+      this.value = value;
+    }
+  }
+}
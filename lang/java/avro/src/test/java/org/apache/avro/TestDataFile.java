@@ -18,6 +18,7 @@
 package org.apache.avro;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -95,6 +96,7 @@ public class TestDataFile {
     testGenericRead();
     testSplits();
     testSyncDiscovery();
+    testSkipBlocks();
     testGenericAppend();
     testReadWithHeader();
     testFSync(false);
@@ -207,6 +209,31 @@ public class TestDataFile {
     }
   }
 
+  private void testSkipBlocks() throws IOException {
+    File file = makeFile();
+    try (DataFileReader<Object> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      long count = 0;
+      long bytes = 0;
+      while (reader.skipBlock()) {
+        count += reader.getBlockCount();
+        bytes += reader.getBlockSize();
+      }
+      assertEquals(COUNT, count);
+      assertTrue(bytes < file.length());
+      assertFalse(reader.hasNext());
+    }
+    // skipping and reading can be mixed at block boundaries
+    try (DataFileReader<Object> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      assertTrue(reader.skipBlock());
+      long count = reader.getBlockCount();
+      while (reader.hasNext()) {
+        reader.next();
+        count++;
+      }
+      assertEquals(COUNT, count);
+    }
+  }
+
   private void testGenericAppend() throws IOException {
     File file = makeFile();
     long start = file.length();
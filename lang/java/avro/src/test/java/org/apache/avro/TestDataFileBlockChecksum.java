@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.avro.Schema.Type;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.util.Utf8;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDataFileBlockChecksum {
+  private static final Schema SCHEMA = Schema.create(Type.STRING);
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private long corruptPosition;
+
+  private byte[] write(CodecFactory codec, boolean checksum) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataFileWriter<Utf8> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.setCodec(codec);
+      w.setBlockChecksum(checksum);
+      w.create(SCHEMA, baos);
+      w.append(new Utf8("apple"));
+      w.append(new Utf8("banana"));
+      corruptPosition = w.sync() - DataFileConstants.SYNC_SIZE - 2;
+      w.append(new Utf8("celery"));
+      w.append(new Utf8("date"));
+      w.sync();
+      w.append(new Utf8("endive"));
+    }
+    return baos.toByteArray();
+  }
+
+  private DataFileReader<Utf8> open(byte[] bytes) throws IOException {
+    return new DataFileReader<>(new SeekableByteArrayInput(bytes), new GenericDatumReader<>(SCHEMA));
+  }
+
+  @Test
+  public void testReadWithChecksums() throws IOException {
+    for (CodecFactory codec : new CodecFactory[] { CodecFactory.nullCodec(), CodecFactory.deflateCodec(6) }) {
+      try (DataFileReader<Utf8> r = open(write(codec, true))) {
+        assertTrue(r.hasBlockChecksums());
+        assertNotNull(r.getMetaString(DataFileConstants.BLOCK_CHECKSUM));
+        int count = 0;
+        while (r.hasNext()) {
+          assertNotNull(r.next());
+          count++;
+        }
+        assertEquals(5, count);
+      }
+    }
+  }
+
+  @Test
+  public void testVerifyBlocks() throws IOException {
+    try (DataFileReader<Utf8> r = open(write(CodecFactory.deflateCodec(6), true))) {
+      int blocks = 0;
+      while (r.verifyBlock()) {
+        blocks++;
+      }
+      assertEquals(3, blocks);
+    }
+    try (DataFileReader<Utf8> r = open(write(CodecFactory.nullCodec(), false))) {
+      assertFalse(r.hasBlockChecksums());
+      assertTrue(r.verifyBlock());
+    }
+  }
+
+  @Test
+  public void testCorruptBlock() throws IOException {
+    byte[] bytes = write(CodecFactory.nullCodec(), true);
+    bytes[(int) corruptPosition] ^= 0x01; // flip a bit in the checksum of the first block
+
+    try (DataFileReader<Utf8> r = open(bytes)) {
+      try {
+        r.hasNext();
+        fail("Corrupt block should throw exception");
+      } catch (AvroRuntimeException e) {
+        assertEquals("Block checksum failure", e.getCause().getMessage());
+      }
+      // the remaining blocks can still be read
+      assertEquals("celery", r.next().toString());
+    }
+
+    try (DataFileReader<Utf8> r = open(bytes)) {
+      try {
+        r.verifyBlock();
+        fail("Corrupt block should throw exception");
+      } catch (IOException e) {
+        assertEquals("Block checksum failure", e.getMessage());
+      }
+      assertTrue(r.verifyBlock());
+      assertTrue(r.verifyBlock());
+      assertFalse(r.verifyBlock());
+    }
+
+    try (DataFileReader<Utf8> r = open(bytes)) {
+      r.setVerifyBlockChecksums(false);
+      assertEquals("apple", r.next().toString());
+    }
+  }
+
+  @Test
+  public void testAppendAllFrom() throws IOException {
+    byte[] withChecksums = write(CodecFactory.nullCodec(), true);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataFileWriter<Utf8> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.create(SCHEMA, baos);
+      try (DataFileStream<Utf8> in = open(withChecksums)) {
+        w.appendAllFrom(in, false);
+      }
+    }
+    try (DataFileReader<Utf8> r = open(baos.toByteArray())) {
+      assertFalse(r.hasBlockChecksums());
+      assertEquals("apple", r.next().toString());
+    }
+  }
+
+  @Test
+  public void testOffByDefault() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataFileWriter<Utf8> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.create(SCHEMA, baos);
+      w.append(new Utf8("apple"));
+    }
+    try (DataFileReader<Utf8> r = open(baos.toByteArray())) {
+      assertFalse(r.hasBlockChecksums());
+      assertNull(r.getMeta(DataFileConstants.BLOCK_CHECKSUM));
+      assertEquals("apple", r.next().toString());
+    }
+    try (DataFileReader<Utf8> r = open(write(CodecFactory.nullCodec(), false))) {
+      assertFalse(r.hasBlockChecksums());
+      assertNull(r.getMeta(DataFileConstants.BLOCK_CHECKSUM));
+    }
+  }
+
+  @Test
+  public void testDisableRemovesMeta() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataFileWriter<Utf8> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.setBlockChecksum(true);
+      w.setBlockChecksum(false);
+      w.create(SCHEMA, baos);
+      w.append(new Utf8("apple"));
+    }
+    try (DataFileReader<Utf8> r = open(baos.toByteArray())) {
+      assertFalse(r.hasBlockChecksums());
+      assertNull(r.getMeta(DataFileConstants.BLOCK_CHECKSUM));
+    }
+  }
+
+  @Test(expected = AvroRuntimeException.class)
+  public void testReservedMeta() {
+    new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA)).setMeta(DataFileConstants.BLOCK_CHECKSUM,
+        DataFileConstants.CRC32_CHECKSUM);
+  }
+
+  @Test
+  public void testAppendToKeepsFileSetting() throws IOException {
+    for (boolean checksum : new boolean[] { false, true }) {
+      File file = tmp.newFile();
+      try (DataFileWriter<Utf8> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+        w.setBlockChecksum(checksum);
+        w.create(SCHEMA, file);
+        w.append(new Utf8("apple"));
+      }
+      try (DataFileWriter<Utf8> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+        w.setBlockChecksum(!checksum); // ignored: blocks must match the existing file
+        w.appendTo(file);
+        w.append(new Utf8("banana"));
+      }
+      try (DataFileReader<Utf8> r = new DataFileReader<>(file, new GenericDatumReader<>(SCHEMA))) {
+        assertEquals(checksum, r.hasBlockChecksums());
+        assertEquals("apple", r.next().toString());
+        assertEquals("banana", r.next().toString());
+        assertFalse(r.hasNext());
+      }
+    }
+  }
+}
@@ -183,6 +183,21 @@ public class TestSchema {
     return Schema.createRecord("name", "doc", "namespace", false);
   }
 
+  @Test
+  public void testToStringWithReferencedSchemas() {
+    Schema e = Schema.createEnum("E", null, "ns", Collections.singletonList("A"));
+    Schema r = Schema.createRecord("R", null, "ns", false);
+    r.setFields(Collections.singletonList(new Field("e", e, null, null)));
+    String json = r.toString(Collections.singletonList(e), false);
+    assertEquals(
+        "{\"type\":\"record\",\"name\":\"R\",\"namespace\":\"ns\"," + "\"fields\":[{\"name\":\"e\",\"type\":\"E\"}]}",
+        json);
+
+    Schema parsed = new Schema.Parser().addTypes(Collections.singletonList(e)).parse(json);
+    assertEquals(r, parsed);
+    assertSame(e, parsed.getField("e").schema());
+  }
+
   @Test
   public void testSerialization() throws IOException, ClassNotFoundException {
     try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestAsyncDataFile {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.STRING);
+
+  @Rule
+  public TemporaryFolder DIR = new TemporaryFolder();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @After
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    File file = new File(DIR.getRoot(), "async.avro");
+    DataFileWriter<String> writer = new DataFileWriter<>(new GenericDatumWriter<>());
+    writer.setCodec(CodecFactory.deflateCodec(1));
+    writer.setBlockChecksum(true);
+    AsyncDataFileWriter<String> async = new AsyncDataFileWriter<>(writer, executor).create(SCHEMA, file.toPath());
+    List<CompletableFuture<Void>> writes = new ArrayList<>();
+    for (int b = 0; b < 50; b++) {
+      List<String> batch = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        batch.add("entry-" + (b * 100 + i));
+      }
+      writes.add(async.append(batch));
+    }
+    async.fSync().get();
+    assertTrue(writes.get(0).isDone());
+    async.close().get();
+
+    int count = 0;
+    try (DataFileReader<Object> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      assertTrue(reader.hasBlockChecksums());
+      for (Object entry : reader) {
+        assertEquals("entry-" + count++, entry.toString());
+      }
+    }
+    assertEquals(5000, count);
+
+    assertEquals(5000, readAll(file).size());
+  }
+
+  @Test
+  public void testBlocksLargerThanReads() throws Exception {
+    File file = new File(DIR.getRoot(), "large.avro");
+    StringBuilder big = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      big.append((char) ('a' + i % 26));
+    }
+    try (DataFileWriter<String> writer = new DataFileWriter<>(new GenericDatumWriter<>())) {
+      writer.setSyncInterval(1024 * 1024).create(SCHEMA, file);
+      for (int i = 0; i < 30; i++) {
+        writer.append(big.toString() + i);
+        if (i % 10 == 9) {
+          writer.sync();
+        }
+      }
+    }
+    List<Object> entries = readAll(file);
+    assertEquals(30, entries.size());
+    assertEquals(big.toString() + 29, entries.get(29).toString());
+  }
+
+  @Test
+  public void testOneBlockAtATime() throws Exception {
+    File file = new File(DIR.getRoot(), "one.avro");
+    try (DataFileWriter<String> writer = new DataFileWriter<>(new GenericDatumWriter<>())) {
+      writer.create(SCHEMA, file);
+      writer.append("a");
+    }
+    try (AsyncDataFileReader<Object> reader = AsyncDataFileReader
+        .open(file.toPath(), new GenericDatumReader<>(), executor).get()) {
+      CompletableFuture<List<Object>> first = reader.nextBlock();
+      try {
+        reader.nextBlock();
+        assertTrue("second request should fail unless the first completed", first.isDone());
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      assertEquals(1, first.get().size());
+    }
+  }
+
+  @Test
+  public void testNotADataFile() throws Exception {
+    File file = new File(DIR.getRoot(), "bad.avro");
+    Files.write(file.toPath(), new byte[] { 'O', 'b', 'j' });
+    try {
+      AsyncDataFileReader.open(file.toPath(), new GenericDatumReader<>(), executor).get();
+      fail("Expected an IOException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  private List<Object> readAll(File file) throws Exception {
+    List<Object> entries = new ArrayList<>();
+    try (AsyncDataFileReader<Object> reader = AsyncDataFileReader
+        .open(file.toPath(), new GenericDatumReader<>(), executor).get()) {
+      assertEquals(SCHEMA, reader.getSchema());
+      List<Object> block;
+      while ((block = reader.nextBlock().get()) != null) {
+        entries.addAll(block);
+      }
+      assertNull(reader.nextBlock().get());
+    }
+    return entries;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDataFileFollower {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.LONG);
+  private static final int COUNT = 5000;
+
+  @Rule
+  public TemporaryFolder DIR = new TemporaryFolder();
+
+  @Test
+  public void testFollowWriter() throws Exception {
+    File file = new File(DIR.getRoot(), "follow.avro");
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (DataFileWriter<Long> writer = new DataFileWriter<>(new GenericDatumWriter<Long>())) {
+      writer.setFlushOnEveryBlock(true);
+      writer.setSyncInterval(64).create(SCHEMA, file);
+      try (DataFileFollower<Long> follower = new DataFileFollower<>(file, new GenericDatumReader<Long>())) {
+        follower.setPollInterval(1, 10, TimeUnit.MILLISECONDS);
+        assertNull(follower.poll(10, TimeUnit.MILLISECONDS));
+
+        Future<?> appending = executor.submit(() -> {
+          for (long i = 0; i < COUNT; i++) {
+            writer.append(i);
+            if (i % 100 == 0) {
+              writer.sync();
+              Thread.sleep(1);
+            }
+          }
+          writer.sync();
+          return null;
+        });
+        List<Long> batch = new ArrayList<>();
+        long expected = 0;
+        while (expected < COUNT) {
+          batch.clear();
+          assertTrue("timed out at " + expected, follower.nextBatch(batch, 64, 10, TimeUnit.SECONDS) > 0);
+          assertTrue(batch.size() <= 64);
+          for (Long datum : batch) {
+            assertEquals(expected++, (long) datum);
+          }
+        }
+        appending.get();
+        assertFalse(follower.await(10, TimeUnit.MILLISECONDS));
+
+        writer.append(-1L);
+        writer.sync();
+        assertEquals(-1L, (long) follower.next());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testPartialBlockNotRead() throws Exception {
+    File file = new File(DIR.getRoot(), "partial.avro");
+    try (DataFileWriter<Long> writer = new DataFileWriter<>(new GenericDatumWriter<Long>())) {
+      writer.create(SCHEMA, file);
+      try (DataFileFollower<Long> follower = new DataFileFollower<>(file, new GenericDatumReader<Long>())) {
+        writer.append(1L);
+        writer.flush();
+        assertEquals(1L, (long) follower.poll(1, TimeUnit.SECONDS));
+        try (FileOutputStream out = new java.io.FileOutputStream(file, true)) {
+          out.write(new byte[] { 2, 20, 0 }); // a block header with a truncated body
+        }
+        assertNull(follower.poll(20, TimeUnit.MILLISECONDS));
+      }
+    }
+  }
+
+  @Test
+  public void testCloseEndsIteration() throws Exception {
+    File file = new File(DIR.getRoot(), "close.avro");
+    try (DataFileWriter<Long> writer = new DataFileWriter<>(new GenericDatumWriter<Long>())) {
+      writer.create(SCHEMA, file);
+      writer.append(7L);
+    }
+    DataFileFollower<Long> follower = new DataFileFollower<>(file, new GenericDatumReader<Long>());
+    follower.setPollInterval(1, 5, TimeUnit.MILLISECONDS);
+    assertEquals(7L, (long) follower.next());
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> waiting = executor.submit(() -> follower.hasNext());
+      Thread.sleep(20);
+      follower.close();
+      assertFalse(waiting.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.util.RandomData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDataFileSorter {
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+      + "{\"name\":\"k\",\"type\":\"int\"}," + "{\"name\":\"s\",\"type\":\"string\",\"order\":\"descending\"},"
+      + "{\"name\":\"v\",\"type\":{\"type\":\"array\",\"items\":\"long\"},\"order\":\"ignore\"}]}");
+
+  @Rule
+  public TemporaryFolder DIR = new TemporaryFolder();
+
+  @Test
+  public void testInMemory() throws IOException {
+    testSort(new DataFileSorter(SCHEMA), 2, 500);
+  }
+
+  @Test
+  public void testExternal() throws IOException {
+    testSort(new DataFileSorter(SCHEMA).setMemoryLimit(16 * 1024).setParallelism(3), 3, 2000);
+  }
+
+  @Test
+  public void testMultiPassMerge() throws IOException {
+    File tmp = DIR.newFolder("tmp");
+    testSort(
+        new DataFileSorter(SCHEMA).setMemoryLimit(4 * 1024).setParallelism(1).setMergeFactor(3).setTempDirectory(tmp),
+        2, 1000);
+    assertEquals("temporary files left behind", 0, tmp.list().length);
+  }
+
+  @Test(expected = IOException.class)
+  public void testSchemaMismatch() throws IOException {
+    File in = write("in.avro", new ArrayList<>(), 10, 0L);
+    try (DataFileStream<Object> reader = new DataFileStream<>(new FileInputStream(in), new GenericDatumReader<>())) {
+      new DataFileSorter(Schema.create(Schema.Type.INT)).sort(Collections.singletonList(reader),
+          new DataFileWriter<>(new GenericDatumWriter<>()));
+    }
+  }
+
+  private void testSort(DataFileSorter sorter, int files, int count) throws IOException {
+    List<Object> expected = new ArrayList<>();
+    List<DataFileStream<Object>> readers = new ArrayList<>();
+    for (int i = 0; i < files; i++) {
+      File in = write("in" + i + ".avro", expected, count, i);
+      readers.add(new DataFileStream<>(new FileInputStream(in), new GenericDatumReader<>()));
+    }
+    File out = new File(DIR.getRoot(), "out.avro");
+    try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      writer.setSyncInterval(512).create(SCHEMA, out);
+      sorter.sort(readers, writer);
+    } finally {
+      for (DataFileStream<Object> reader : readers) {
+        reader.close();
+      }
+    }
+
+    List<Object> actual = new ArrayList<>();
+    try (DataFileReader<Object> reader = new DataFileReader<>(out, new GenericDatumReader<>())) {
+      for (Object datum : reader) {
+        actual.add(datum);
+      }
+    }
+    assertEquals(expected.size(), actual.size());
+    for (int i = 1; i < actual.size(); i++) {
+      assertTrue(GenericData.get().compare(actual.get(i - 1), actual.get(i), SCHEMA) <= 0);
+    }
+    expected.sort((a, b) -> GenericData.get().compare(a, b, SCHEMA));
+    for (int i = 0; i < actual.size(); i++) { // ignored fields may be in any order among equal keys
+      assertEquals(0, GenericData.get().compare(expected.get(i), actual.get(i), SCHEMA));
+    }
+  }
+
+  private File write(String name, List<Object> written, int count, long seed) throws IOException {
+    File file = new File(DIR.getRoot(), name);
+    try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      writer.setSyncInterval(256).create(SCHEMA, file);
+      for (Object datum : new RandomData(SCHEMA, count, seed)) {
+        writer.append(datum);
+        written.add(datum);
+      }
+    }
+    return file;
+  }
+}
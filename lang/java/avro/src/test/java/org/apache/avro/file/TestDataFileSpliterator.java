@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDataFileSpliterator {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.LONG);
+  private static final int COUNT = 1000000;
+  private static final long SUM = (long) COUNT * (COUNT - 1) / 2;
+
+  @ClassRule
+  public static TemporaryFolder DIR = new TemporaryFolder();
+
+  private static File file;
+  private static byte[] bytes;
+
+  @BeforeClass
+  public static void writeFile() throws IOException {
+    file = new File(DIR.getRoot(), "spliterator.avro");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<Long> writer = new DataFileWriter<>(new GenericDatumWriter<Long>())) {
+      writer.setSyncInterval(4096).create(SCHEMA, out);
+      for (long i = 0; i < COUNT; i++) {
+        writer.append(i);
+      }
+    }
+    bytes = out.toByteArray();
+    Files.write(file.toPath(), bytes);
+  }
+
+  @Test
+  public void testStream() throws IOException {
+    try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      assertEquals(0L, (long) reader.next());
+      List<Long> rest = reader.stream().collect(Collectors.toList());
+      assertEquals(COUNT - 1, rest.size());
+      assertEquals(1L, (long) rest.get(0));
+    }
+  }
+
+  @Test
+  public void testParallelStreamFile() throws IOException {
+    try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      assertTrue(reader.parallelStream().isParallel());
+      assertEquals(SUM, reader.parallelStream().mapToLong(Long::longValue).sum());
+      assertEquals(COUNT, reader.parallelStream().count());
+    }
+  }
+
+  @Test
+  public void testParallelStreamBytes() throws IOException {
+    try (DataFileReader<Long> reader = new DataFileReader<>(new SeekableByteArrayInput(bytes),
+        new ReflectDatumReader<>())) {
+      assertEquals(SUM, reader.parallelStream().mapToLong(Long::longValue).sum());
+    }
+  }
+
+  @Test
+  public void testParallelStreamSupplier() throws IOException {
+    try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      List<Long> all = reader.parallelStream(GenericDatumReader::new).collect(Collectors.toList());
+      assertEquals(COUNT, all.size());
+      for (int i = 0; i < COUNT; i++) {
+        assertEquals(i, (long) all.get(i)); // encounter order is kept
+      }
+    }
+  }
+
+  @Test
+  public void testSplitsCoverFile() throws IOException {
+    try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      Spliterator<Long> whole = new DataFileSpliterator<>(reader.getHeader(),
+          DataFileSpliterator.viewsOf(new SeekableFileInput(file)), GenericDatumReader::new, reader.previousSync(),
+          file.length(), 1000);
+      List<Spliterator<Long>> splits = new ArrayList<>();
+      split(whole, splits);
+      assertTrue(splits.size() > 100);
+      long next = 0;
+      for (Spliterator<Long> split : splits) {
+        for (Long datum : StreamSupport.stream(split, false).collect(Collectors.toList())) {
+          assertEquals(next++, (long) datum);
+        }
+      }
+      assertEquals(COUNT, next);
+    }
+  }
+
+  private static void split(Spliterator<Long> spliterator, List<Spliterator<Long>> splits) {
+    Spliterator<Long> prefix = spliterator.trySplit();
+    if (prefix == null) {
+      splits.add(spliterator);
+    } else {
+      assertNotNull(prefix);
+      split(prefix, splits);
+      split(spliterator, splits);
+    }
+  }
+}
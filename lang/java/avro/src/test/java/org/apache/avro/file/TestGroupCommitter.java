@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.junit.Test;
+
+public class TestGroupCommitter {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.LONG);
+
+  private static class CountingSyncable extends ByteArrayOutputStream implements Syncable {
+    final AtomicInteger syncs = new AtomicInteger();
+    volatile boolean fail;
+    volatile RuntimeException error;
+
+    @Override
+    public void sync() throws IOException {
+      if (fail)
+        throw new IOException("sync failed");
+      if (error != null)
+        throw error;
+      syncs.incrementAndGet();
+    }
+  }
+
+  private static DataFileWriter<Object> writer(CountingSyncable out) throws IOException {
+    return new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA)).create(SCHEMA, out);
+  }
+
+  @Test
+  public void testCoalescesRequestsPerFile() throws Exception {
+    List<Integer> files = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch committed = new CountDownLatch(1);
+    GroupCommitter.Listener listener = (r, f, l) -> {
+      files.add(f);
+      committed.countDown();
+    };
+    try (GroupCommitter committer = new GroupCommitter(1, TimeUnit.HOURS, 6, listener)) {
+      CountingSyncable out1 = new CountingSyncable();
+      CountingSyncable out2 = new CountingSyncable();
+      try (DataFileWriter<Object> w1 = writer(out1); DataFileWriter<Object> w2 = writer(out2)) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (long i = 0; i < 3; i++) {
+          w1.append(i);
+          futures.add(committer.commit(w1));
+          w2.append(i);
+          futures.add(committer.commit(w2));
+        }
+        long previous = 0;
+        for (int i = 0; i < futures.size(); i += 2) {
+          long position = futures.get(i).get(10, TimeUnit.SECONDS);
+          assertTrue(position > previous);
+          previous = position;
+          futures.get(i + 1).get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(1, out1.syncs.get());
+        assertEquals(1, out2.syncs.get());
+        // the listener is called after the futures complete
+        assertTrue(committed.await(10, TimeUnit.SECONDS));
+        assertEquals(1, files.size());
+        assertEquals(2, (int) files.get(0));
+      }
+    }
+  }
+
+  @Test
+  public void testMaxDelay() throws Exception {
+    try (GroupCommitter committer = new GroupCommitter(10, TimeUnit.MILLISECONDS, 1000)) {
+      CountingSyncable out = new CountingSyncable();
+      try (DataFileWriter<Object> w = writer(out)) {
+        w.append(1L);
+        committer.commit(w).get(10, TimeUnit.SECONDS);
+        assertEquals(1, out.syncs.get());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseCommitsPending() throws Exception {
+    CountingSyncable out = new CountingSyncable();
+    CompletableFuture<Long> future;
+    GroupCommitter committer = new GroupCommitter(1, TimeUnit.HOURS, 1000);
+    try (DataFileWriter<Object> w = writer(out)) {
+      w.append(1L);
+      future = committer.commit(w);
+      committer.close();
+      assertTrue(future.isDone());
+      assertEquals(1, out.syncs.get());
+      try {
+        committer.commit(w);
+        fail("Commit after close should fail");
+      } catch (AvroRuntimeException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testSyncFailure() throws Exception {
+    try (GroupCommitter committer = new GroupCommitter(0, TimeUnit.MILLISECONDS, 1)) {
+      CountingSyncable out = new CountingSyncable();
+      out.fail = true;
+      try (DataFileWriter<Object> w = writer(out)) {
+        w.append(1L);
+        CompletableFuture<Long> future = committer.commit(w);
+        try {
+          future.get(10, TimeUnit.SECONDS);
+          fail("Failed sync should fail the commit");
+        } catch (ExecutionException e) {
+          assertEquals("sync failed", e.getCause().getMessage());
+        }
+        out.fail = false;
+      }
+    }
+  }
+
+  @Test
+  public void testSyncRuntimeException() throws Exception {
+    try (GroupCommitter committer = new GroupCommitter(0, TimeUnit.MILLISECONDS, 1)) {
+      CountingSyncable out = new CountingSyncable();
+      out.error = new IllegalStateException("sync broke");
+      try (DataFileWriter<Object> w = writer(out)) {
+        w.append(1L);
+        try {
+          committer.commit(w).get(10, TimeUnit.SECONDS);
+          fail("Failed sync should fail the commit");
+        } catch (ExecutionException e) {
+          assertEquals("sync broke", e.getCause().getMessage());
+        }
+        // the committer is still running
+        out.error = null;
+        w.append(2L);
+        committer.commit(w).get(10, TimeUnit.SECONDS);
+        assertEquals(1, out.syncs.get());
+      }
+    }
+  }
+
+  @Test
+  public void testListenerFailure() throws Exception {
+    GroupCommitter.Listener listener = (r, f, l) -> {
+      throw new IllegalStateException("listener broke");
+    };
+    try (GroupCommitter committer = new GroupCommitter(0, TimeUnit.MILLISECONDS, 1, listener)) {
+      CountingSyncable out = new CountingSyncable();
+      try (DataFileWriter<Object> w = writer(out)) {
+        for (long i = 0; i < 2; i++) {
+          w.append(i);
+          committer.commit(w).get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, out.syncs.get());
+      }
+    }
+  }
+
+  @Test
+  public void testNotSyncable() throws Exception {
+    try (GroupCommitter committer = new GroupCommitter(1, TimeUnit.HOURS, 1000)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (DataFileWriter<Object> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA)).create(SCHEMA, out)) {
+        w.append(1L);
+        CompletableFuture<Long> future = committer.commit(w);
+        assertTrue(future.isDone());
+        assertEquals(out.size(), (long) future.get());
+        assertFalse(future.isCompletedExceptionally());
+      }
+    }
+  }
+}
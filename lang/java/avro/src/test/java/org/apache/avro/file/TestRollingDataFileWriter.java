@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestRollingDataFileWriter {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.LONG);
+
+  @Rule
+  public TemporaryFolder DIR = new TemporaryFolder();
+
+  private final List<File> completed = Collections.synchronizedList(new ArrayList<>());
+  private final List<Long> records = Collections.synchronizedList(new ArrayList<>());
+
+  private RollingDataFileWriter<Long> writer() {
+    return new RollingDataFileWriter<Long>(SCHEMA, () -> {
+      DataFileWriter<Long> writer = new DataFileWriter<>(new GenericDatumWriter<>());
+      writer.setSyncInterval(64);
+      return writer;
+    }, n -> new File(DIR.getRoot(), "part-" + n + ".avro")).setListener((file, blocks, count) -> {
+      try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+        for (long block : blocks) { // every indexed position starts a block
+          reader.seek(block);
+          assertTrue(reader.hasNext());
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      completed.add(file);
+      records.add(count);
+    });
+  }
+
+  @Test
+  public void testRollOnRecords() throws IOException {
+    try (RollingDataFileWriter<Long> writer = writer().setMaxRecords(100).open()) {
+      for (long i = 0; i < 1050; i++) {
+        writer.append(i);
+      }
+    }
+    assertEquals(11, completed.size());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(new File(DIR.getRoot(), "part-" + i + ".avro"), completed.get(i));
+      assertEquals(100L, (long) records.get(i));
+    }
+    assertEquals(50L, (long) records.get(10));
+    assertFalse("pre-created file should be deleted", new File(DIR.getRoot(), "part-11.avro").exists());
+    assertEquals(1050, readAll(0));
+  }
+
+  @Test
+  public void testRollOnBytes() throws IOException {
+    try (RollingDataFileWriter<Long> writer = writer().setMaxBytes(1024).open()) {
+      for (long i = 0; i < 2000; i++) {
+        writer.append(i);
+      }
+    }
+    assertTrue(completed.size() > 3);
+    for (File file : completed.subList(0, completed.size() - 1)) {
+      assertTrue(file.length() >= 1024);
+    }
+    assertEquals(2000, readAll(0));
+  }
+
+  @Test
+  public void testRollOnAge() throws Exception {
+    try (RollingDataFileWriter<Long> writer = writer().setMaxAge(20, TimeUnit.MILLISECONDS)
+        .setFlushInterval(5, TimeUnit.MILLISECONDS).open()) {
+      writer.append(1L);
+      long deadline = System.currentTimeMillis() + 5000;
+      while (completed.isEmpty() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      assertEquals(1, completed.size());
+      assertEquals(1L, (long) records.get(0));
+      writer.append(2L);
+    }
+    assertEquals(2, readAll(1));
+  }
+
+  @Test
+  public void testFlushInterval() throws Exception {
+    try (RollingDataFileWriter<Long> writer = writer().setFlushInterval(5, TimeUnit.MILLISECONDS).open()) {
+      writer.append(42L);
+      File file = writer.getCurrentFile();
+      long deadline = System.currentTimeMillis() + 5000;
+      int count = 0;
+      while (count == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+        try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+          while (reader.hasNext()) {
+            assertEquals(42L, (long) reader.next());
+            count++;
+          }
+        }
+      }
+      assertEquals(1, count);
+    }
+  }
+
+  /** Read the completed files, checking that entries count up from a value. */
+  private long readAll(long first) throws IOException {
+    long next = first;
+    for (File file : completed) {
+      try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+        for (Long datum : reader) {
+          assertEquals(next++, (long) datum);
+        }
+      }
+    }
+    return next - first;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestShardedDataFileWriter {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.LONG);
+  private static final int THREADS = 8;
+  private static final int COUNT = 20000;
+
+  @Rule
+  public TemporaryFolder DIR = new TemporaryFolder();
+
+  @Test
+  public void testConcurrentAppends() throws Exception {
+    testConcurrentAppends(CodecFactory.nullCodec());
+  }
+
+  @Test
+  public void testConcurrentAppendsDeflate() throws Exception {
+    testConcurrentAppends(CodecFactory.deflateCodec(1));
+  }
+
+  @Test
+  public void testConcurrentAppendsAndFlushes() throws Exception {
+    testConcurrentAppends(CodecFactory.nullCodec(), true);
+  }
+
+  private void testConcurrentAppends(CodecFactory codec) throws Exception {
+    testConcurrentAppends(codec, false);
+  }
+
+  private void testConcurrentAppends(CodecFactory codec, boolean flushing) throws Exception {
+    File file = new File(DIR.getRoot(), "sharded.avro");
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+    try (ShardedDataFileWriter<Long> writer = new ShardedDataFileWriter<>(() -> new GenericDatumWriter<Long>())) {
+      writer.setCodec(codec).setBlockChecksum(true).setSyncInterval(1024).create(SCHEMA, file);
+      AtomicBoolean appending = new AtomicBoolean(true);
+      Future<?> flusher = executor.submit(() -> {
+        while (flushing && appending.get()) {
+          writer.sync();
+          writer.flush();
+        }
+        return null;
+      });
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        final long thread = t;
+        futures.add(executor.submit(() -> {
+          for (long i = 0; i < COUNT; i++) {
+            writer.append(thread * COUNT + i);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      appending.set(false);
+      flusher.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    // every entry is present, and each thread's entries are in order
+    long[] next = new long[THREADS];
+    int count = 0;
+    try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      for (Long value : reader) {
+        int thread = (int) (value / COUNT);
+        assertEquals(next[thread]++, value % COUNT);
+        count++;
+      }
+    }
+    assertEquals(THREADS * COUNT, count);
+  }
+
+  @Test
+  public void testSync() throws IOException {
+    File file = new File(DIR.getRoot(), "sync.avro");
+    try (ShardedDataFileWriter<Long> writer = new ShardedDataFileWriter<>(() -> new GenericDatumWriter<Long>())) {
+      writer.create(SCHEMA, file);
+      writer.append(1L);
+      writer.append(2L);
+      writer.sync();
+      writer.append(3L);
+      long position = writer.sync();
+      assertEquals(file.length(), position);
+    }
+    try (DataFileReader<Long> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      assertEquals(1L, (long) reader.next());
+      assertEquals(2L, (long) reader.next());
+      assertEquals(3L, (long) reader.next());
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestSyncMarkerScanner {
+
+  @Rule
+  public TemporaryFolder DIR = new TemporaryFolder();
+
+  private static final Random RANDOM = new Random(42);
+  private static final byte[] SYNC = new byte[DataFileConstants.SYNC_SIZE];
+  static {
+    RANDOM.nextBytes(SYNC);
+  }
+
+  private static byte[] dataWithMarkers(int length, long... positions) {
+    byte[] data = new byte[length];
+    RANDOM.nextBytes(data);
+    for (long p : positions) {
+      System.arraycopy(SYNC, 0, data, (int) p, SYNC.length);
+    }
+    return data;
+  }
+
+  @Test
+  public void testIndexOf() {
+    SyncMarkerScanner scanner = new SyncMarkerScanner(SYNC);
+    byte[] data = dataWithMarkers(100, 0, 50, 84);
+    assertEquals(0, scanner.indexOf(data, 0, data.length));
+    assertEquals(50, scanner.indexOf(data, 1, data.length));
+    assertEquals(84, scanner.indexOf(data, 51, data.length));
+    assertEquals(-1, scanner.indexOf(data, 51, 99));
+    assertEquals(-1, scanner.indexOf(data, 85, data.length));
+  }
+
+  @Test
+  public void testFind() throws IOException {
+    SyncMarkerScanner scanner = new SyncMarkerScanner(SYNC);
+    // markers straddling the internal chunk boundaries
+    long[] positions = { 10, 64 * 1024 - 8, 3 * 64 * 1024 - 1, 300000 - 16 };
+    byte[] data = dataWithMarkers(300000, positions);
+    SeekableByteArrayInput in = new SeekableByteArrayInput(data);
+    assertEquals(10, scanner.find(in, 0, data.length));
+    assertEquals(positions[1], scanner.find(in, 11, data.length));
+    assertEquals(positions[2], scanner.find(in, positions[1] + 1, data.length));
+    assertEquals(positions[3], scanner.find(in, positions[2] + 1, data.length));
+    assertEquals(-1, scanner.find(in, positions[3] + 1, data.length));
+    // a marker may start before the end of the range and extend past it
+    assertEquals(positions[1], scanner.find(in, 11, positions[1] + 1));
+    assertEquals(-1, scanner.find(in, 11, positions[1]));
+    assertArrayEquals(positions, scanner.findAll(in, 0, data.length));
+  }
+
+  @Test
+  public void testFindAllParallel() throws IOException {
+    SyncMarkerScanner scanner = new SyncMarkerScanner(SYNC);
+    int length = 20 * 1024 * 1024;
+    long[] positions = new long[200];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = (long) i * (length / positions.length) + RANDOM.nextInt(1000);
+    }
+    byte[] data = dataWithMarkers(length, positions);
+    File file = new File(DIR.getRoot(), "markers");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(data);
+    }
+    assertArrayEquals(positions, scanner.findAll(file, 0, length, 4));
+    try (SeekableFileInput in = new SeekableFileInput(file)) {
+      assertArrayEquals(positions, scanner.findAll(in, 0, length));
+    }
+  }
+}
@@ -23,6 +23,9 @@ import static org.junit.Assert.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.util.*;
 
@@ -31,15 +34,19 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalTypes;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.Schema.Type;
 import org.apache.avro.SchemaBuilder;
 import org.apache.avro.TestCircularReferences.ReferenceManager;
+import org.apache.avro.UnresolvedUnionException;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.io.BinaryData;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.util.RandomData;
 import org.apache.avro.util.Utf8;
 import org.junit.Test;
 
@@ -409,6 +416,72 @@ public class TestGenericData {
     assertEquals("\"NaN\"", data.toString(Double.NaN));
   }
 
+  @Test
+  public void testToStringEscapesUnicodeControlChars() throws Exception {
+    GenericData data = GenericData.get();
+    assertEquals("\"a\\u0001\\u007F\\u2028\u00e9\"", data.toString("a\u0001\u007f\u2028\u00e9"));
+    assertEquals("\"\\u0080\u00ff\"", data.toString(ByteBuffer.wrap(new byte[] { (byte) 0x80, (byte) 0xff })));
+  }
+
+  @Test
+  public void testToStringAppendable() throws Exception {
+    Schema schema = SchemaBuilder.record("Appended").fields().requiredString("s").name("m").type().map().values()
+        .longType().noDefault().endRecord();
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("s", new Utf8("a\"b"));
+    record.put("m", Collections.singletonMap("k", 1L));
+    StringWriter writer = new StringWriter();
+    GenericData.get().toString(record, writer);
+    assertEquals(GenericData.get().toString(record), writer.toString());
+    assertEquals("{\"s\": \"a\\\"b\", \"m\": {\"k\": 1}}", writer.toString());
+  }
+
+  @Test
+  public void testToStringOverrideRendersNestedValues() throws Exception {
+    GenericData data = new GenericData() {
+      @Override
+      protected void toString(Object datum, StringBuilder buffer, IdentityHashMap<Object, Object> seenObjects) {
+        if (datum instanceof Long) {
+          buffer.append("\"L").append(datum).append('"');
+        } else {
+          super.toString(datum, buffer, seenObjects);
+        }
+      }
+    };
+    Schema schema = SchemaBuilder.record("Overridden").fields().requiredLong("l").name("a").type().array().items()
+        .longType().noDefault().name("m").type().map().values().longType().noDefault().endRecord();
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("l", 1L);
+    record.put("a", Arrays.asList(2L, 3L));
+    record.put("m", Collections.singletonMap("k", 4L));
+    String expected = "{\"l\": \"L1\", \"a\": [\"L2\", \"L3\"], \"m\": {\"k\": \"L4\"}}";
+    assertEquals(expected, data.toString(record));
+    StringWriter writer = new StringWriter();
+    data.toString(record, writer);
+    assertEquals(expected, writer.toString());
+    assertEquals(expected, data.toString(record, 1000));
+    assertEquals("\"L5\"", data.toString(5L, 1000));
+  }
+
+  @Test
+  public void testToStringMaxLength() throws Exception {
+    List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(i);
+    }
+    GenericData data = GenericData.get();
+    String full = data.toString(values);
+    assertEquals("[0, 1, 2, ...", data.toString(values, 10));
+    assertEquals(full, data.toString(values, full.length()));
+
+    StringBuilder out = new StringBuilder();
+    assertFalse(data.toString(values, out, 4));
+    assertEquals("[0, ", out.toString());
+    out.setLength(0);
+    assertTrue(data.toString(values, out, full.length()));
+    assertEquals(full, out.toString());
+  }
+
   @Test
   public void testCompare() {
     // Prepare a schema for testing.
@@ -481,6 +554,76 @@ public class TestGenericData {
     assertEquals(buffer, buffer_copy);
   }
 
+  @Test
+  public void testDeepCopyKeepsImmutables() {
+    Schema schema = SchemaBuilder.record("Immutables").fields().requiredString("s").requiredLong("l").name("e").type()
+        .enumeration("E").symbols("A", "B").noDefault().endRecord();
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("s", "a string");
+    record.put("l", 42L);
+    record.put("e", new GenericData.EnumSymbol(schema.getField("e").schema(), "B"));
+
+    GenericRecord copy = GenericData.get().deepCopy(schema, record);
+    assertEquals(record, copy);
+    assertNotSame(record, copy);
+    assertSame(record.get("s"), copy.get("s"));
+    assertSame(record.get("l"), copy.get("l"));
+    assertSame(record.get("e"), copy.get("e"));
+  }
+
+  @Test
+  public void testDeepCopyWithReuse() {
+    Schema schema = SchemaBuilder.record("Reused").fields().requiredString("s").name("f").type().fixed("F").size(2)
+        .noDefault().name("a").type().array().items().stringType().noDefault().name("m").type().map().values().intType()
+        .noDefault().requiredBytes("b").endRecord();
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("s", new Utf8("first"));
+    record.put("f", new GenericData.Fixed(schema.getField("f").schema(), new byte[] { 1, 2 }));
+    record.put("a",
+        new GenericData.Array<>(schema.getField("a").schema(), Arrays.asList(new Utf8("x"), new Utf8("y"))));
+    record.put("m", Collections.singletonMap(new Utf8("k"), 1));
+    record.put("b", ByteBuffer.wrap(new byte[] { 3, 4, 5 }));
+
+    GenericData data = GenericData.get();
+    GenericRecord first = data.deepCopy(schema, record);
+    Object s = first.get("s");
+    Object f = first.get("f");
+    Object a = first.get("a");
+    Object x = ((List<?>) a).get(0);
+
+    ((Utf8) record.get("s")).set("second");
+    ((GenericData.Fixed) record.get("f")).bytes()[0] = 9;
+    GenericRecord second = data.deepCopy(schema, record, first);
+    assertSame(first, second);
+    assertEquals(record, second);
+    assertSame(s, second.get("s"));
+    assertSame(f, second.get("f"));
+    assertSame(a, second.get("a"));
+    assertSame(x, ((List<?>) second.get("a")).get(0));
+    assertEquals(new Utf8("second"), second.get("s"));
+
+    // copies share nothing mutable with the original
+    ((Utf8) record.get("s")).set("third");
+    assertEquals(new Utf8("second"), second.get("s"));
+  }
+
+  @Test
+  public void testDeepCopyRecursiveUnion() {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Node\",\"fields\":["
+        + "{\"name\":\"value\",\"type\":[\"int\",\"string\",\"null\"]},"
+        + "{\"name\":\"next\",\"type\":[\"null\",\"Node\"]}]}");
+    GenericRecord tail = new GenericData.Record(schema);
+    tail.put("value", new Utf8("end"));
+    GenericRecord head = new GenericData.Record(schema);
+    head.put("value", 1);
+    head.put("next", tail);
+
+    GenericRecord copy = GenericData.get().deepCopy(schema, head);
+    assertEquals(head, copy);
+    assertNotSame(tail, copy.get("next"));
+    assertNotSame(tail.get("value"), ((GenericRecord) copy.get("next")).get("value"));
+  }
+
   @Test
   public void testValidateNullableEnum() {
     List<Schema> unionTypes = new ArrayList<>();
@@ -549,6 +692,183 @@ public class TestGenericData {
     assertTrue(GenericData.get().validate(unionSchema, record));
   }
 
+  /** Overrides compiled operations, so they are interpreted. */
+  private static class InterpretedData extends GenericData {
+    @Override
+    public boolean validate(Schema schema, Object datum) {
+      return super.validate(schema, datum);
+    }
+
+    @Override
+    public int hashCode(Object o, Schema s) {
+      return super.hashCode(o, s);
+    }
+
+    @Override
+    protected int compare(Object o1, Object o2, Schema s, boolean equals) {
+      return super.compare(o1, o2, s, equals);
+    }
+  }
+
+  @Test
+  public void testCompiledMatchesInterpreted() {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Node\",\"fields\":["
+        + "{\"name\":\"s\",\"type\":\"string\"}," + "{\"name\":\"d\",\"type\":\"double\",\"order\":\"descending\"},"
+        + "{\"name\":\"i\",\"type\":\"int\",\"order\":\"ignore\"},"
+        + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"Z\",\"A\"]}},"
+        + "{\"name\":\"f\",\"type\":{\"type\":\"fixed\",\"name\":\"F\",\"size\":2}},"
+        + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":[\"null\",\"long\",\"bytes\"]}},"
+        + "{\"name\":\"u\",\"type\":[\"null\",\"boolean\",\"float\"]},"
+        + "{\"name\":\"next\",\"type\":[\"null\",\"Node\"]}]}");
+    GenericData compiled = new GenericData();
+    GenericData interpreted = new InterpretedData();
+    List<Object> values = new ArrayList<>();
+    for (Object value : new RandomData(schema, 50, 42L)) {
+      values.add(value);
+    }
+    for (Object value : new RandomData(schema, 50, 42L, true)) {
+      values.add(value);
+    }
+    values.add(values.get(0));
+    for (Object v1 : values) {
+      assertEquals(interpreted.validate(schema, v1), compiled.validate(schema, v1));
+      assertEquals(interpreted.hashCode(v1, schema), compiled.hashCode(v1, schema));
+      for (Object v2 : values) {
+        assertEquals(Integer.signum(interpreted.compare(v1, v2, schema)),
+            Integer.signum(compiled.compare(v1, v2, schema)));
+      }
+    }
+    GenericRecord invalid = new GenericData.Record(schema);
+    assertFalse(interpreted.validate(schema, invalid));
+    assertFalse(compiled.validate(schema, invalid));
+  }
+
+  @Test
+  public void testCompareJavaEnumWithGenericSymbol() {
+    Schema schema = Schema.createEnum("my_enum", "doc", "namespace", Arrays.asList("THREE", "TWO", "ONE"));
+    GenericEnumSymbol<?> two = new GenericData.EnumSymbol(schema, "TWO");
+    for (GenericData data : new GenericData[] { new GenericData(), new InterpretedData() }) {
+      // ordered by the schema, not by the ordinals of the Java enum
+      assertTrue(data.compare(anEnum.ONE, two, schema) > 0);
+      assertTrue(data.compare(two, anEnum.THREE, schema) > 0);
+      assertEquals(0, data.compare(anEnum.TWO, two, schema));
+    }
+  }
+
+  @Test
+  public void testCompiledStringHashAndCompare() {
+    Schema schema = Schema.create(Type.STRING);
+    GenericData data = new GenericData();
+    String[] strings = { "", "a", "ab", "\u00e9", "\u20ac", "\uffff", "\ud83d\ude00", "a\ud83d\ude00", "\ud800", "z" };
+    for (String s1 : strings) {
+      assertEquals(new Utf8(s1).hashCode(), data.hashCode(s1, schema));
+      for (String s2 : strings) {
+        int expected = Integer.signum(new Utf8(s1).compareTo(new Utf8(s2)));
+        assertEquals(s1 + " vs " + s2, expected, Integer.signum(data.compare(s1, s2, schema)));
+        assertEquals(s1 + " vs " + s2, expected, Integer.signum(data.compare(new Utf8(s1), s2, schema)));
+      }
+    }
+  }
+
+  @Test
+  public void testCompiledLogicalTypesAreInterpreted() {
+    Schema uuidSchema = LogicalTypes.uuid().addToSchema(Schema.create(Type.STRING));
+    Schema schema = SchemaBuilder.record("Ids").fields().name("id").type(uuidSchema).noDefault().endRecord();
+    GenericData data = new GenericData();
+    data.addLogicalTypeConversion(new Conversions.UUIDConversion());
+    UUID uuid = UUID.randomUUID();
+    GenericRecord r1 = new GenericData.Record(schema);
+    r1.put("id", uuid);
+    GenericRecord r2 = new GenericData.Record(schema);
+    r2.put("id", UUID.fromString(uuid.toString()));
+    assertEquals(new Utf8(uuid.toString()).hashCode(), data.hashCode(uuid, uuidSchema));
+    assertEquals(data.hashCode(r1, schema), data.hashCode(r2, schema));
+    assertEquals(0, data.compare(r1, r2, schema));
+  }
+
+  @Test
+  public void testCompiledSchemasAreReleased() {
+    GenericData data = new GenericData();
+    Schema schema = SchemaBuilder.record("Released").fields().name("e").type().enumeration("E").symbols("A").noDefault()
+        .optionalString("s").endRecord();
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("e", new GenericData.EnumSymbol(schema.getField("e").schema(), "A"));
+    record.put("s", "s");
+    assertTrue(data.validate(schema, record));
+    assertEquals(0, data.compare(record, data.deepCopy(schema, record), schema));
+    data.hashCode(record, schema);
+
+    WeakReference<Schema> released = new WeakReference<>(schema);
+    schema = null;
+    record = null;
+    for (int i = 0; i < 10 && released.get() != null; i++) {
+      System.gc(); // Not guaranteed, but seems to be reliable enough
+    }
+    assertNull("Compiled functions and copiers should not keep their schema", released.get());
+  }
+
+  @Test
+  public void testDefaultValueCachedAcrossThreads() throws Exception {
+    Schema schema = SchemaBuilder.record("Defaults").fields().name("a").type().array().items().intType()
+        .arrayDefault(Arrays.asList(1, 2)).endRecord();
+    Field field = schema.getField("a");
+    GenericData data = new GenericData();
+    Object[] values = new Object[4];
+    Thread[] threads = new Thread[values.length];
+    for (int i = 0; i < threads.length; i++) {
+      int index = i;
+      threads[i] = new Thread(() -> values[index] = data.getDefaultValue(field));
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    for (Object value : values) {
+      assertSame(values[0], value);
+    }
+    assertSame(values[0], data.getDefaultValue(field));
+    assertEquals(Arrays.asList(1, 2), values[0]);
+  }
+
+  @Test
+  public void testResolveUnionRepeatedly() {
+    Schema a = SchemaBuilder.record("A").fields().requiredInt("x").endRecord();
+    Schema b = SchemaBuilder.record("B").fields().requiredInt("x").endRecord();
+    Schema union = SchemaBuilder.unionOf().nullType().and().type(a).and().type(b).and().stringType().and().longType()
+        .endUnion();
+    GenericData data = new GenericData();
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, data.resolveUnion(union, null));
+      assertEquals(1, data.resolveUnion(union, new GenericData.Record(a)));
+      assertEquals(2, data.resolveUnion(union, new GenericData.Record(b)));
+      assertEquals(3, data.resolveUnion(union, "s"));
+      assertEquals(3, data.resolveUnion(union, new Utf8("s")));
+      assertEquals(4, data.resolveUnion(union, 1L));
+      try {
+        data.resolveUnion(union, 1);
+        fail("Expected UnresolvedUnionException");
+      } catch (UnresolvedUnionException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testResolveUnionAfterAddingConversion() {
+    Schema decimal = LogicalTypes.decimal(9, 2).addToSchema(Schema.create(Type.BYTES));
+    Schema union = SchemaBuilder.unionOf().nullType().and().type(decimal).endUnion();
+    GenericData data = new GenericData();
+    BigDecimal value = new BigDecimal("1.00");
+    try {
+      data.resolveUnion(union, value);
+      fail("Expected AvroRuntimeException");
+    } catch (AvroRuntimeException e) {
+      // expected
+    }
+    data.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    assertEquals(1, data.resolveUnion(union, value));
+  }
+
   /*
    * The toString has a detection for circular references to abort. This detection
    * has the risk of detecting that same value as being a circular reference. For
@@ -21,6 +21,7 @@ package org.apache.avro.generic;
 import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.*;
 
@@ -179,6 +180,45 @@ public class TestGenericLogicalTypes {
     assertThat(conversion.fromFixed(d2fixed, fixedSchema, decimal), is(d2));
   }
 
+  @Test
+  public void testDecimalConversionsMatchBigInteger() {
+    LogicalType decimal = LogicalTypes.decimal(30, 3);
+    Schema bytesSchema = Schema.create(Schema.Type.BYTES);
+    List<Schema> fixedSchemas = Arrays.asList(Schema.createFixed("aFixed", null, null, 8),
+        Schema.createFixed("aFixed", null, null, 13));
+    Conversions.DecimalConversion conversion = new Conversions.DecimalConversion();
+
+    List<BigDecimal> values = new ArrayList<>();
+    for (String value : new String[] { "0.000", "-0.001", "0.127", "0.128", "-0.128", "-0.129", "999999999999999.999",
+        "-999999999999999.999", "9223372036854775.807", "-9223372036854775.808", "123456789012345678901.234" }) {
+      values.add(new BigDecimal(value));
+    }
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      values.add(BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), 3));
+    }
+
+    for (BigDecimal value : values) {
+      byte[] expected = value.unscaledValue().toByteArray();
+      ByteBuffer bytes = conversion.toBytes(value, bytesSchema, decimal);
+      Assert.assertArrayEquals(expected, bytes.array());
+      Assert.assertEquals(value, conversion.fromBytes(bytes, bytesSchema, decimal));
+
+      byte[] padded = new byte[expected.length + 2];
+      System.arraycopy(expected, 0, padded, 1, expected.length);
+      ByteBuffer offset = ByteBuffer.wrap(padded, 1, expected.length);
+      Assert.assertEquals(value, conversion.fromBytes(offset, bytesSchema, decimal));
+
+      for (Schema fixedSchema : fixedSchemas) {
+        if (expected.length <= fixedSchema.getFixedSize()) {
+          GenericFixed fixed = conversion.toFixed(value, fixedSchema, decimal);
+          Assert.assertEquals(value.unscaledValue(), new BigInteger(fixed.bytes()));
+          Assert.assertEquals(value, conversion.fromFixed(fixed, fixedSchema, decimal));
+        }
+      }
+    }
+  }
+
   @Test
   public void testReadDecimalBytes() throws IOException {
     LogicalType decimal = LogicalTypes.decimal(9, 2);
@@ -20,6 +20,7 @@ package org.apache.avro.io;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.avro.util.Utf8;
 
@@ -114,7 +115,7 @@ public class LegacyBinaryEncoder extends Encoder {
 
   @Override
   public void writeString(String string) throws IOException {
-    byte[] bytes = Utf8.getBytesFor(string);
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
     encodeString(bytes, 0, bytes.length);
   }
 
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.util.RandomData;
+import org.junit.Test;
+
+public class TestBinaryComparator {
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+      + "{\"name\":\"b\",\"type\":\"boolean\"}," + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\","
+      + "\"symbols\":[\"X\",\"Y\"]},\"order\":\"descending\"},"
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":\"long\"},\"order\":\"ignore\"},"
+      + "{\"name\":\"u\",\"type\":[\"null\",\"int\",\"string\"]},"
+      + "{\"name\":\"f\",\"type\":{\"type\":\"fixed\",\"name\":\"F\",\"size\":2}},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"long\"}},"
+      + "{\"name\":\"d\",\"type\":\"double\",\"order\":\"descending\"}," + "{\"name\":\"fl\",\"type\":\"float\"},"
+      + "{\"name\":\"by\",\"type\":\"bytes\"}," + "{\"name\":\"r\",\"type\":[\"null\",\"R\"]}]}");
+
+  @Test
+  public void testSameOrderAsBinaryData() throws IOException {
+    List<byte[]> data = encode(SCHEMA, new RandomData(SCHEMA, 200, 42L));
+    BinaryComparator comparator = new BinaryComparator(SCHEMA);
+    for (byte[] b1 : data) {
+      for (byte[] b2 : data) {
+        assertEquals(Integer.signum(BinaryData.compare(b1, 0, b1.length, b2, 0, b2.length, SCHEMA)),
+            Integer.signum(comparator.compare(b1, 0, b1.length, b2, 0, b2.length)));
+      }
+    }
+  }
+
+  @Test
+  public void testPrimitive() throws IOException {
+    Schema schema = Schema.create(Schema.Type.STRING);
+    List<byte[]> data = encode(schema, new RandomData(schema, 100, 7L));
+    BinaryComparator comparator = new BinaryComparator(schema);
+    for (byte[] b1 : data) {
+      for (byte[] b2 : data) {
+        assertEquals(Integer.signum(BinaryData.compare(b1, 0, b1.length, b2, 0, b2.length, schema)),
+            Integer.signum(comparator.compare(b1, 0, b1.length, b2, 0, b2.length)));
+      }
+    }
+  }
+
+  private static List<byte[]> encode(Schema schema, Iterable<Object> data) throws IOException {
+    GenericDatumWriter<Object> writer = new GenericDatumWriter<>(schema);
+    List<byte[]> encoded = new ArrayList<>();
+    BinaryEncoder encoder = null;
+    for (Object datum : data) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+      writer.write(datum, encoder);
+      encoder.flush();
+      encoded.add(out.toByteArray());
+    }
+    return encoded;
+  }
+}
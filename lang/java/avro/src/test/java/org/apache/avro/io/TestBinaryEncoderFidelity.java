@@ -111,6 +111,22 @@ public class TestBinaryEncoderFidelity {
     e.writeString("String\u20AC");
     e.writeString("");
     e.writeString(new Utf8("Utf8\uD834\uDD1E"));
+    e.writeString("Latin-1 caf\u00E9 \u00FF");
+    e.writeString("Unpaired \uD834 \uDD1E surrogates \uDD1E\uD834");
+    e.writeString("\uD834");
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      // strings crossing the end of the buffer, then larger than the buffer
+      sb.append((char) r.nextInt(0x100)).append('\u20AC');
+      e.writeString(sb.toString());
+      if (i % 100 == 0) {
+        e.writeString(sb + "\uD83D\uDE00" + sb);
+      }
+    }
+    while (sb.length() < 100000) {
+      sb.append(sb);
+    }
+    e.writeString(sb.toString());
     if (e instanceof BinaryEncoder) {
       int count = ((BinaryEncoder) e).bytesBuffered();
       System.out.println(e.getClass().getSimpleName() + " buffered: " + count);
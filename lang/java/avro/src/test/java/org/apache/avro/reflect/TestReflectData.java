@@ -25,6 +25,8 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertThat;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.avro.Protocol;
 import org.apache.avro.Schema;
@@ -73,6 +75,20 @@ public class TestReflectData {
     assertThat(existsArgument.schema(), equalTo(Schema.create(Schema.Type.STRING)));
   }
 
+  @Test
+  public void testResolveUnionOfMapsByKeys() {
+    Schema pairs = ReflectData.get().getSchema(new HashMap<Integer, String>() {
+    }.getClass().getGenericSuperclass());
+    Schema union = Schema.createUnion(Schema.create(Schema.Type.NULL), pairs,
+        Schema.createMap(Schema.create(Schema.Type.STRING)));
+    Map<Integer, String> intKeys = Collections.singletonMap(1, "a");
+    Map<String, String> stringKeys = Collections.singletonMap("1", "a");
+    for (int i = 0; i < 3; i++) {
+      assertThat(ReflectData.get().resolveUnion(union, new HashMap<>(intKeys)), equalTo(1));
+      assertThat(ReflectData.get().resolveUnion(union, new HashMap<>(stringKeys)), equalTo(2));
+    }
+  }
+
   private interface CrudProtocol<R, I> extends OtherProtocol<I> {
     void store(R record);
 
@@ -19,20 +19,41 @@
 package org.apache.avro.reflect;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.avro.Schema;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
+import org.junit.Assume;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class TestReflectDatumReader {
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private static <T> byte[] serializeWithReflectDatumWriter(T toSerialize, Class<T> toSerializeClass)
       throws IOException {
     ReflectDatumWriter<T> datumWriter = new ReflectDatumWriter<>(toSerializeClass);
@@ -78,6 +99,72 @@ public class TestReflectDatumReader {
     assertEquals(pojoWithArray, deserialized);
   }
 
+  @Test
+  public void testRead_JavaRecord() throws Exception {
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    boolean records = javac != null && javac.getSourceVersions().stream().anyMatch(v -> v.name().equals("RELEASE_16"));
+    // the build runs this test on a newer JVM with avro.test.records set, so it
+    // must not be skipped there
+    if (Boolean.getBoolean("avro.test.records")) {
+      assertTrue("Java records need Java 16", records);
+    }
+    Assume.assumeTrue("Java records need Java 16", records);
+    File dir = temporaryFolder.getRoot();
+    File source = new File(dir, "Node.java");
+    Files.write(source.toPath(),
+        ("public record Node(int value, short small, @org.apache.avro.reflect.AvroName(\"text\") String label,\n"
+            + "    @org.apache.avro.reflect.Nullable Node next) {}").getBytes(StandardCharsets.UTF_8));
+    assertEquals(0, javac.run(null, null, null, "-d", dir.getPath(), "-cp", System.getProperty("java.class.path"),
+        source.getPath()));
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader())) {
+      Class<?> nodeClass = loader.loadClass("Node");
+      ReflectData data = new ReflectData(loader);
+      Schema schema = data.getSchema(nodeClass);
+      assertEquals(Arrays.asList("value", "small", "text", "next"),
+          Arrays.asList(schema.getFields().stream().map(Schema.Field::name).toArray()));
+
+      Object last = nodeClass.getConstructors()[0].newInstance(2, (short) 3, "b", null);
+      Object first = nodeClass.getConstructors()[0].newInstance(1, (short) -1, "a", last);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Encoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+      new ReflectDatumWriter<Object>(schema, data).write(first, encoder);
+      encoder.flush();
+
+      ReflectDatumReader<Object> reader = new ReflectDatumReader<>(schema, schema, data);
+      Object read = reader.read(null, DecoderFactory.get().binaryDecoder(out.toByteArray(), null));
+      assertEquals(first, read);
+      assertEquals(first, reader.read(null, DecoderFactory.get().binaryDecoder(out.toByteArray(), null)));
+
+      // a reader may be shared by threads
+      byte[] bytes = out.toByteArray();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<Object>> reads = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+          reads.add(executor.submit(() -> reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null))));
+        }
+        for (Future<Object> future : reads) {
+          assertEquals(first, future.get());
+        }
+      } finally {
+        executor.shutdown();
+      }
+
+      // components without a field get the defaults of their types
+      Schema valueOnly = Schema.createRecord("Node", null, null, false,
+          Arrays.asList(new Schema.Field("value", Schema.create(Schema.Type.INT), null, (Object) null)));
+      out.reset();
+      encoder.writeInt(7);
+      encoder.flush();
+      Object partial = new ReflectDatumReader<>(valueOnly, valueOnly, data).read(null,
+          DecoderFactory.get().binaryDecoder(out.toByteArray(), null));
+      assertEquals(7, nodeClass.getMethod("value").invoke(partial));
+      assertEquals((short) 0, nodeClass.getMethod("small").invoke(partial));
+      assertNull(nodeClass.getMethod("next").invoke(partial));
+    }
+  }
+
   public static class PojoWithList {
     private int id;
     private List<Integer> relatedIds;
@@ -17,9 +17,19 @@
  */
 package org.apache.avro.reflect;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
 import org.junit.Test;
 
 public class TestReflectionUtil {
@@ -36,6 +46,97 @@ public class TestReflectionUtil {
     testerClass.getDeclaredMethod("checkUnsafe").invoke(testerClass.getDeclaredConstructor().newInstance());
   }
 
+  @Test
+  public void testMethodHandlesPreferredFromJava17() {
+    String version = System.getProperty("java.specification.version");
+    try {
+      System.setProperty("java.specification.version", "1.8");
+      assertFalse(ReflectionUtil.preferMethodHandles());
+      System.setProperty("java.specification.version", "11");
+      assertFalse(ReflectionUtil.preferMethodHandles());
+      System.setProperty("java.specification.version", "17");
+      assertTrue(ReflectionUtil.preferMethodHandles());
+      System.setProperty("java.specification.version", "21");
+      assertTrue(ReflectionUtil.preferMethodHandles());
+    } finally {
+      System.setProperty("java.specification.version", version);
+    }
+  }
+
+  @Test
+  public void testMethodHandlesOverride() {
+    String saved = System.getProperty("avro.disable.unsafe");
+    try {
+      System.clearProperty("avro.disable.unsafe");
+      System.setProperty("avro.reflect.methodhandles", "true");
+      ReflectionUtil.resetFieldAccess();
+      assertTrue(ReflectionUtil.getFieldAccess() instanceof FieldAccessMethodHandle);
+      System.setProperty("avro.reflect.methodhandles", "false");
+      ReflectionUtil.resetFieldAccess();
+      assertTrue(ReflectionUtil.getFieldAccess() instanceof FieldAccessUnsafe);
+      System.setProperty("avro.disable.unsafe", "true");
+      ReflectionUtil.resetFieldAccess();
+      assertTrue(ReflectionUtil.getFieldAccess() instanceof FieldAccessMethodHandle);
+    } finally {
+      System.clearProperty("avro.reflect.methodhandles");
+      if (saved == null)
+        System.clearProperty("avro.disable.unsafe");
+      else
+        System.setProperty("avro.disable.unsafe", saved);
+      ReflectionUtil.resetFieldAccess();
+    }
+  }
+
+  @Test
+  public void testRecordFieldAccessWithoutUnsafe() {
+    // Unsafe cannot access the fields of Java records
+    assertNotNull(ReflectionUtil.getRecordFieldAccess());
+    assertFalse(ReflectionUtil.getRecordFieldAccess() instanceof FieldAccessUnsafe);
+  }
+
+  @Test
+  public void testMethodHandleFieldAccess() throws Exception {
+    FieldAccess access = new FieldAccessMethodHandle();
+    FieldAccessor i = access.getAccessor(Fields.class.getDeclaredField("i"));
+    FieldAccessor d = access.getAccessor(Fields.class.getDeclaredField("d"));
+    FieldAccessor s = access.getAccessor(Fields.class.getDeclaredField("s"));
+    Fields fields = new Fields(1);
+    i.set(fields, 2);
+    d.set(fields, 0.5);
+    s.set(fields, "s");
+    assertEquals(2, i.get(fields));
+    assertEquals(0.5, d.get(fields));
+    assertEquals("s", s.get(fields));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    i.write(fields, encoder);
+    d.write(fields, encoder);
+    encoder.flush();
+    Fields copy = new Fields(0);
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(out.toByteArray(), null);
+    i.read(copy, decoder);
+    d.read(copy, decoder);
+    assertEquals(2, i.get(copy));
+    assertEquals(0.5, d.get(copy));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMethodHandleFieldAccessWrongType() throws Exception {
+    FieldAccessor s = new FieldAccessMethodHandle().getAccessor(Fields.class.getDeclaredField("s"));
+    s.set(new Fields(0), 1);
+  }
+
+  private static final class Fields {
+    private final int i;
+    private double d;
+    private String s;
+
+    private Fields(int i) {
+      this.i = i;
+    }
+  }
+
   public static final class Tester {
     public Tester() {
     }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.specific;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.generic.GenericData;
+import org.junit.Test;
+
+public class TestPrimitiveArrays {
+
+  private static final Schema LONGS = Schema.createArray(Schema.create(Schema.Type.LONG));
+
+  @Test
+  public void testListOverArray() {
+    long[] array = { 3, 1, 2 };
+    GenericArray<Long> list = PrimitiveArrays.asList(LONGS, array);
+    assertEquals(Arrays.asList(3L, 1L, 2L), list);
+    assertEquals(new GenericData.Array<>(LONGS, Arrays.asList(3L, 1L, 2L)), list);
+    assertEquals(Arrays.asList(3L, 1L, 2L).hashCode(), list.hashCode());
+    list.set(0, 4L);
+    assertEquals(4L, array[0]);
+    list.reverse();
+    assertArrayEquals(new long[] { 2, 1, 4 }, array);
+    assertSame(array, PrimitiveArrays.toLongArray(list));
+    assertNull(PrimitiveArrays.asList(LONGS, (long[]) null));
+  }
+
+  @Test
+  public void testReuse() {
+    long[] array = { 3, 1, 2 };
+    GenericArray<Long> list = PrimitiveArrays.asList(LONGS, array);
+    list.reset();
+    list.add(7L);
+    assertEquals(7L, array[0]);
+    assertArrayEquals(new long[] { 7 }, PrimitiveArrays.toLongArray(list));
+    list.add(8L);
+    list.add(9L);
+    assertSame(array, PrimitiveArrays.toLongArray(list));
+    list.add(0, 6L);
+    assertArrayEquals(new long[] { 6, 7, 8, 9 }, PrimitiveArrays.toLongArray(list));
+    assertEquals(6L, (long) list.remove(0));
+    assertArrayEquals(new long[] { 7, 8, 9 }, PrimitiveArrays.toLongArray(list));
+  }
+
+  @Test
+  public void testFromCollection() {
+    assertArrayEquals(new int[] { 1, 2 }, PrimitiveArrays.toIntArray(Arrays.asList(1, 2)));
+    assertArrayEquals(new float[] { 1.5F }, PrimitiveArrays.toFloatArray(Arrays.asList(1.5F)), 0);
+    assertArrayEquals(new double[] { 2.5 }, PrimitiveArrays.toDoubleArray(Arrays.asList(2.5)), 0);
+    double[] array = { 1 };
+    assertSame(array, PrimitiveArrays.toDoubleArray(array));
+    assertNull(PrimitiveArrays.toIntArray(null));
+  }
+}
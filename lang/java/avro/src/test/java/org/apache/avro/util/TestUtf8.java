@@ -19,6 +19,7 @@ package org.apache.avro.util;
 
 import java.util.concurrent.Callable;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -74,6 +75,43 @@ public class TestUtf8 {
     assertSame(content, u.getBytes());
   }
 
+  @Test
+  public void testSetStringKeepsWrappedArray() {
+    byte[] wrapped = "wrapped".getBytes(StandardCharsets.UTF_8);
+    Utf8 u = new Utf8(wrapped);
+    u.set("other");
+    assertEquals("wrapped", new String(wrapped, StandardCharsets.UTF_8));
+    assertEquals("other", u.toString());
+    byte[] content = u.getBytes();
+    u.set("again");
+    assertSame(content, u.getBytes());
+  }
+
+  @Test
+  public void testSetStringReusesArray() {
+    Utf8 u = new Utf8("\u20AC\u20AC\u20AC");
+    byte[] content = u.getBytes();
+    String[] strings = { "ascii", "caf\u00E9", "\uD834\uDD1E", "\uD834?", "" };
+    for (String s : strings) {
+      u.set(s);
+      byte[] expected = s.getBytes(StandardCharsets.UTF_8);
+      assertEquals(expected.length, u.getByteLength());
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i], u.getBytes()[i]);
+      }
+      assertSame(content, u.getBytes());
+      assertEquals(s, u.toString());
+    }
+  }
+
+  @Test
+  public void testGetBytesFor() {
+    String[] strings = { "", "ascii", "caf\u00E9 \u00FF", "\u0800\uFFFF", "\uD834\uDD1E", "\uDD1E\uD834", "a\uD834" };
+    for (String s : strings) {
+      assertArrayEquals(s.getBytes(StandardCharsets.UTF_8), Utf8.getBytesFor(s));
+    }
+  }
+
   /**
    * A convenience method to avoid a large number of @Test(expected=...) tests
    *
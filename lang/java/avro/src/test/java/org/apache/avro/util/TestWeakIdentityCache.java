@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestWeakIdentityCache {
+  @Test
+  public void testPutAndGet() {
+    WeakIdentityCache<Object, Integer> cache = new WeakIdentityCache<>();
+    List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Object key = new Object();
+      keys.add(key);
+      cache.put(key, i);
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(Integer.valueOf(i), cache.get(keys.get(i)));
+    }
+    assertNull(cache.get(new Object()));
+    assertEquals(1000, cache.size());
+
+    cache.put(keys.get(7), -7);
+    assertEquals(Integer.valueOf(-7), cache.get(keys.get(7)));
+    assertEquals(1000, cache.size());
+
+    cache.clear();
+    assertNull(cache.get(keys.get(7)));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testComputeIfAbsent() {
+    WeakIdentityCache<String, Object> cache = new WeakIdentityCache<>();
+    String key = new String("key");
+    Object value = cache.computeIfAbsent(key, k -> new Object());
+    assertSame(value, cache.computeIfAbsent(key, k -> new Object()));
+    assertNull(cache.get(new String("key"))); // by identity
+  }
+
+  @Test
+  public void testKeysAreReleased() {
+    WeakIdentityCache<Object, Integer> cache = new WeakIdentityCache<>();
+    List<Object> kept = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Object key = new Object();
+      if (i % 10 == 0) {
+        kept.add(key);
+      }
+      cache.put(key, i);
+    }
+    System.gc(); // Not guaranteed, but seems to be reliable enough
+    for (int i = 0; i < 1000; i++) {
+      cache.put(new Object(), i); // collected keys are dropped, or their slots reused
+    }
+    for (int i = 0; i < kept.size(); i++) {
+      assertEquals(Integer.valueOf(i * 10), cache.get(kept.get(i)));
+    }
+  }
+}
@@ -34,6 +34,10 @@ main() {
         mvn -B test
         # Test the modules that depend on hadoop using Hadoop 3
         mvn -B test -Phadoop3
+        # Java records need Java 16, so test them on a newer JVM when one is given
+        if [ -n "$JAVA_RECORDS_JVM" ]; then
+          mvn -B test -pl avro -Dtest=TestReflectDatumReader -Djvm="$JAVA_RECORDS_JVM" -Davro.test.records=true
+        fi
         ;;
       dist)
         mvn -P dist package -DskipTests javadoc:aggregate
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,6 +35,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.avro.Conversion;
 import org.apache.avro.Conversions;
@@ -127,18 +131,20 @@ public class SpecificCompiler {
 
   private final Set<Schema> queue = new HashSet<>();
   private Protocol protocol;
-  private VelocityEngine velocityEngine;
   private String templateDir;
   private FieldVisibility fieldVisibility = FieldVisibility.PRIVATE;
   private boolean createOptionalGetters = false;
   private boolean gettersReturnOptional = false;
   private boolean createSetters = true;
+  private boolean createViews = false;
   private boolean createAllArgsConstructor = true;
   private String outputCharacterEncoding;
   private boolean enableDecimalLogicalType = false;
+  private boolean enablePrimitiveArrays = false;
   private final DateTimeLogicalTypeImplementation dateTimeLogicalTypeImplementation;
   private String suffix = ".java";
   private List<Object> additionalVelocityTools = new ArrayList<>();
+  private final List<Schema> writerSchemas = new ArrayList<>();
 
   /*
    * Used in the record.vm template.
@@ -211,7 +217,6 @@ public class SpecificCompiler {
     this.dateTimeLogicalTypeImplementation = dateTimeLogicalTypeImplementation;
     this.templateDir = System.getProperty("org.apache.avro.specific.templates",
         "/org/apache/avro/compiler/specific/templates/java/classic/");
-    initializeVelocity();
     initializeSpecificData();
   }
 
@@ -277,6 +282,18 @@ public class SpecificCompiler {
     this.createSetters = createSetters;
   }
 
+  public boolean isCreateViews() {
+    return this.createViews;
+  }
+
+  /**
+   * Set to true to also create, for each record, a view class that reads the
+   * fields of a binary-encoded record in place, without decoding it.
+   */
+  public void setCreateViews(boolean createViews) {
+    this.createViews = createViews;
+  }
+
   public boolean isCreateOptionalGetters() {
     return this.createOptionalGetters;
   }
@@ -307,6 +324,14 @@ public class SpecificCompiler {
     this.enableDecimalLogicalType = enableDecimalLogicalType;
   }
 
+  /**
+   * Set to true to hold record fields that are arrays of int, long, float or
+   * double in arrays of the primitive type instead of lists of the boxed type.
+   */
+  public void setEnablePrimitiveArrays(boolean enablePrimitiveArrays) {
+    this.enablePrimitiveArrays = enablePrimitiveArrays;
+  }
+
   public DateTimeLogicalTypeImplementation getDateTimeLogicalTypeImplementation() {
     return dateTimeLogicalTypeImplementation;
   }
@@ -320,6 +345,16 @@ public class SpecificCompiler {
     }
   }
 
+  /**
+   * Adds a historical writer's schema. Each generated record with custom coders
+   * also gets a decoder for every writer's schema of the same name that it can
+   * read without schema resolution; such data then skips the
+   * {@link org.apache.avro.io.ResolvingDecoder}.
+   */
+  public void addWriterSchema(Schema writerSchema) {
+    writerSchemas.add(writerSchema);
+  }
+
   public Collection<String> getUsedConversionClasses(Schema schema) {
     LinkedHashMap<String, Conversion<?>> classnameToConversion = new LinkedHashMap<>();
     for (Conversion<?> conversion : specificData.getConversions()) {
@@ -381,8 +416,19 @@ public class SpecificCompiler {
 
   private static String logChuteName = null;
 
-  private void initializeVelocity() {
-    this.velocityEngine = new VelocityEngine();
+  /**
+   * Velocity engines, by template directory. Compilers share them, and with them
+   * the parsed templates, which are cached; those of different directories are
+   * kept apart, as they may define macros of the same names.
+   */
+  private static final ConcurrentMap<String, VelocityEngine> VELOCITY_ENGINES = new ConcurrentHashMap<>();
+
+  private static VelocityEngine getVelocityEngine(String templateDir) {
+    return VELOCITY_ENGINES.computeIfAbsent(templateDir, dir -> createVelocityEngine());
+  }
+
+  private static VelocityEngine createVelocityEngine() {
+    VelocityEngine velocityEngine = new VelocityEngine();
 
     // These properties tell Velocity to use its own classpath-based
     // loader, then drop down to check the root and the current folder
@@ -392,11 +438,14 @@ public class SpecificCompiler {
     velocityEngine.addProperty("file.resource.loader.class",
         "org.apache.velocity.runtime.resource.loader.FileResourceLoader");
     velocityEngine.addProperty("file.resource.loader.path", "/, .");
+    velocityEngine.setProperty("class.resource.loader.cache", true);
+    velocityEngine.setProperty("file.resource.loader.cache", true);
     velocityEngine.setProperty("runtime.references.strict", true);
 
     // Set whitespace gobbling to Backward Compatible (BC)
     // https://velocity.apache.org/engine/2.0/developer-guide.html#space-gobbling
     velocityEngine.setProperty("space.gobbling", "bc");
+    return velocityEngine;
   }
 
   private void initializeSpecificData() {
@@ -525,6 +574,9 @@ public class SpecificCompiler {
     List<OutputFile> out = new ArrayList<>();
     for (Schema schema : queue) {
       out.add(compile(schema));
+      if (isViewed(schema)) {
+        out.add(compileView(schema));
+      }
     }
     if (protocol != null) {
       out.add(compileInterface(protocol));
@@ -537,16 +589,78 @@ public class SpecificCompiler {
     for (Schema schema : queue) {
       OutputFile o = compile(schema);
       o.writeToDestination(src, dst);
+      if (isViewed(schema)) {
+        compileView(schema).writeToDestination(src, dst);
+      }
     }
     if (protocol != null) {
       compileInterface(protocol).writeToDestination(src, dst);
     }
   }
 
+  /** Returns the files that {@link #compileToDestination(File, File)} writes. */
+  public List<File> getOutputFiles(File dst) {
+    List<File> files = new ArrayList<>();
+    for (Schema schema : queue) {
+      files.add(new File(dst, makePath(mangle(schema.getName()), schema.getNamespace())));
+      if (isViewed(schema)) {
+        files.add(new File(dst, makePath(mangle(schema.getName()) + "View", schema.getNamespace())));
+      }
+    }
+    if (protocol != null) {
+      files.add(new File(dst, makePath(mangle(protocol.getName()), protocol.getNamespace())));
+    }
+    return files;
+  }
+
+  /**
+   * Returns a fingerprint of all that the generated code depends on: the schemas
+   * or the protocol, including the types they use, and the options of this
+   * compiler. Build tools can skip generating code whose fingerprint did not
+   * change. Changes to templates are only noticed in a template directory on the
+   * file system.
+   */
+  public long getCodeFingerprint() {
+    StringBuilder b = new StringBuilder();
+    CodeSource compiler = SpecificCompiler.class.getProtectionDomain().getCodeSource();
+    b.append(compiler == null ? null : compiler.getLocation()).append(' ')
+        .append(SpecificCompiler.class.getPackage().getImplementationVersion()).append('\n');
+    Map<String, Schema> schemas = new TreeMap<>();
+    for (Schema schema : queue) {
+      schemas.put(schema.getFullName(), schema);
+    }
+    for (Schema schema : schemas.values()) {
+      b.append(schema).append('\n');
+    }
+    if (protocol != null) {
+      b.append(protocol).append('\n');
+    }
+    for (Schema writerSchema : writerSchemas) {
+      b.append(writerSchema).append('\n');
+    }
+    b.append(Arrays.asList(templateDir, fieldVisibility, createOptionalGetters, gettersReturnOptional, createSetters,
+        createViews, outputCharacterEncoding, enableDecimalLogicalType, enablePrimitiveArrays,
+        dateTimeLogicalTypeImplementation, suffix, stringType)).append('\n');
+    for (Conversion<?> conversion : specificData.getConversions()) {
+      b.append(conversion.getClass().getName()).append('\n');
+    }
+    for (Object velocityTool : additionalVelocityTools) {
+      b.append(velocityTool.getClass().getName()).append('\n');
+    }
+    File[] templates = new File(templateDir).listFiles();
+    if (templates != null) {
+      Arrays.sort(templates);
+      for (File template : templates) {
+        b.append(template.getName()).append(' ').append(template.lastModified()).append('\n');
+      }
+    }
+    return SchemaNormalization.fingerprint64(b.toString().getBytes(UTF_8));
+  }
+
   private String renderTemplate(String templateName, VelocityContext context) {
     Template template;
     try {
-      template = this.velocityEngine.getTemplate(templateName);
+      template = getVelocityEngine(templateDir).getTemplate(templateName);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -646,6 +760,28 @@ public class SpecificCompiler {
     return outputFile;
   }
 
+  private boolean isViewed(Schema schema) {
+    return createViews && schema.getType() == Schema.Type.RECORD && !schema.isError();
+  }
+
+  OutputFile compileView(Schema schema) {
+    schema = addStringType(schema); // annotate schema as needed
+    VelocityContext context = new VelocityContext();
+    context.put("this", this);
+    context.put("schema", schema);
+    for (Object velocityTool : additionalVelocityTools) {
+      String toolName = velocityTool.getClass().getSimpleName().toLowerCase();
+      context.put(toolName, velocityTool);
+    }
+
+    OutputFile outputFile = new OutputFile();
+    String name = mangle(schema.getName()) + "View";
+    outputFile.path = makePath(name, schema.getNamespace());
+    outputFile.contents = renderTemplate(templateDir + "view.vm", context);
+    outputFile.outputCharacterEncoding = outputCharacterEncoding;
+    return outputFile;
+  }
+
   private StringType stringType = StringType.CharSequence;
 
   /** Set the Java type to be emitted for string schemas. */
@@ -896,6 +1032,55 @@ public class SpecificCompiler {
     }
   }
 
+  /**
+   * Utility for template use. Returns the java type of a record field, which is
+   * that of its schema unless it is held in a primitive array.
+   */
+  public String javaType(Schema.Field field) {
+    return isPrimitiveArray(field.schema()) ? javaUnbox(field.schema().getElementType()) + "[]"
+        : javaType(field.schema());
+  }
+
+  /**
+   * Utility for template use. Returns the unboxed java type of a record field,
+   * which is that of its schema unless it is held in a primitive array.
+   */
+  public String javaUnbox(Schema.Field field) {
+    return isPrimitiveArray(field.schema()) ? javaType(field) : javaUnbox(field.schema());
+  }
+
+  /**
+   * Utility for template use. Returns true if a record field of the given schema
+   * is held in a primitive array: if that is enabled and the schema is an array
+   * of int, long, float or double values without a converted logical type.
+   */
+  public boolean isPrimitiveArray(Schema schema) {
+    if (!enablePrimitiveArrays || schema.getType() != Schema.Type.ARRAY) {
+      return false;
+    }
+    Schema element = schema.getElementType();
+    switch (element.getType()) {
+    case INT:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+      return getConvertedLogicalType(element) == null;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the expression converting a value given to
+   * {@link org.apache.avro.specific.SpecificRecord#put(int, Object)}, either a
+   * primitive array or a list, into the primitive array of a field.
+   */
+  public String generatePrimitiveArrayCode(Schema schema, String value) {
+    String type = javaUnbox(schema.getElementType());
+    return "org.apache.avro.specific.PrimitiveArrays.to" + Character.toUpperCase(type.charAt(0)) + type.substring(1)
+        + "Array(" + value + ")";
+  }
+
   /**
    * Utility for template use. Return a string with a given number of spaces to be
    * used for indentation purposes.
@@ -904,13 +1089,21 @@ public class SpecificCompiler {
     return new String(new char[n]).replace('\0', ' ');
   }
 
+  /**
+   * Utility for template use. Returns true if the schema is a two-branch union
+   * type with one null branch.
+   */
+  public boolean isNullableUnion(Schema s) {
+    return s.getType() == Schema.Type.UNION && s.getTypes().size() == 2 && s.getTypes().contains(NULL_SCHEMA);
+  }
+
   /**
    * Utility for template use. For a two-branch union type with one null branch,
    * returns the index of the null branch. It's an error to use on anything other
    * than a two-branch union with on null branch.
    */
   public int getNonNullIndex(Schema s) {
-    if (s.getType() != Schema.Type.UNION || s.getTypes().size() != 2 || !s.getTypes().contains(NULL_SCHEMA))
+    if (!isNullableUnion(s))
       throw new IllegalArgumentException("Can only be used on 2-branch union with a null branch: " + s);
     return (s.getTypes().get(0).equals(NULL_SCHEMA) ? 1 : 0);
   }
@@ -920,16 +1113,26 @@ public class SpecificCompiler {
    * record.vm can handle the schema being presented.
    */
   public boolean isCustomCodable(Schema schema) {
-    if (schema.isError())
-      return false;
     return isCustomCodable(schema, new HashSet<>());
   }
 
   private boolean isCustomCodable(Schema schema, Set<Schema> seen) {
     if (!seen.add(schema))
       return true;
-    if (schema.getLogicalType() != null)
-      return false;
+    if (getConvertedLogicalType(schema) != null) {
+      // Converted values are only handled for types the encoder reads and writes
+      // directly
+      switch (schema.getType()) {
+      case RECORD:
+      case ENUM:
+      case ARRAY:
+      case MAP:
+      case UNION:
+        return false;
+      default:
+        return true;
+      }
+    }
     boolean result = true;
     switch (schema.getType()) {
     case RECORD:
@@ -943,11 +1146,7 @@ public class SpecificCompiler {
       result = isCustomCodable(schema.getElementType(), seen);
       break;
     case UNION:
-      List<Schema> types = schema.getTypes();
-      // Only know how to handle "nulling" unions for now
-      if (types.size() != 2 || !types.contains(NULL_SCHEMA))
-        return false;
-      for (Schema s : types)
+      for (Schema s : schema.getTypes())
         result &= isCustomCodable(s, seen);
       break;
     default:
@@ -955,6 +1154,461 @@ public class SpecificCompiler {
     return result;
   }
 
+  /**
+   * Utility for template use. Returns the schemas, reachable from the fields of a
+   * record without entering a nested record, whose values are converted from a
+   * logical type by the custom coders. Each is declared once, in order, as a
+   * constant of the generated class.
+   */
+  public List<Schema> getConvertedSchemas(Schema record) {
+    List<Schema> schemas = new ArrayList<>();
+    collectConvertedSchemas(record, schemas, new ArrayList<>());
+    return schemas;
+  }
+
+  /**
+   * Utility for template use. Returns the expression, rooted at the record's
+   * SCHEMA$, of the converted schema at the given index of
+   * {@link #getConvertedSchemas(Schema)}.
+   */
+  public String getConvertedSchemaPath(Schema record, int index) {
+    List<String> paths = new ArrayList<>();
+    collectConvertedSchemas(record, new ArrayList<>(), paths);
+    return paths.get(index);
+  }
+
+  /**
+   * Utility for template use. Returns the index of a schema within
+   * {@link #getConvertedSchemas(Schema)}, or -1 if its values are not converted.
+   */
+  public int getConvertedSchemaIndex(Schema record, Schema schema) {
+    List<Schema> schemas = getConvertedSchemas(record);
+    for (int i = 0; i < schemas.size(); i++) {
+      if (schemas.get(i) == schema) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void collectConvertedSchemas(Schema record, List<Schema> schemas, List<String> paths) {
+    for (Schema.Field field : record.getFields()) {
+      collectConvertedSchemas(field.schema(), "SCHEMA$.getField(\"" + javaEscape(field.name()) + "\").schema()",
+          schemas, paths);
+    }
+  }
+
+  private void collectConvertedSchemas(Schema schema, String path, List<Schema> schemas, List<String> paths) {
+    if (getConvertedLogicalType(schema) != null) {
+      for (Schema s : schemas) {
+        if (s == schema) {
+          return;
+        }
+      }
+      schemas.add(schema);
+      paths.add(path);
+      return;
+    }
+    switch (schema.getType()) {
+    case ARRAY:
+      collectConvertedSchemas(schema.getElementType(), path + ".getElementType()", schemas, paths);
+      break;
+    case MAP:
+      collectConvertedSchemas(schema.getValueType(), path + ".getValueType()", schemas, paths);
+      break;
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      for (int i = 0; i < types.size(); i++) {
+        collectConvertedSchemas(types.get(i), path + ".getTypes().get(" + i + ")", schemas, paths);
+      }
+      break;
+    default:
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the java type a value is cast to when it is
+   * written as the given branch of a union: any {@link java.util.Collection} is
+   * written as an array and any {@link CharSequence} as a string.
+   */
+  public String javaUnionBranchType(Schema schema) {
+    if (getConvertedLogicalType(schema) == null) {
+      switch (schema.getType()) {
+      case ARRAY:
+        return "java.util.Collection<" + javaType(schema.getElementType()) + ">";
+      case STRING:
+        if (!isStringable(schema)) {
+          return "java.lang.CharSequence";
+        }
+        break;
+      default:
+      }
+    }
+    return javaType(schema);
+  }
+
+  /**
+   * Utility for template use. Returns a java type without its type arguments, as
+   * needed by instanceof tests.
+   */
+  public static String javaErasure(String type) {
+    int i = type.indexOf('<');
+    return i < 0 ? type : type.substring(0, i);
+  }
+
+  /**
+   * Utility for template use. Returns the writer's schemas, from those added with
+   * {@link #addWriterSchema(Schema)}, that a decoder is generated for in the
+   * given record: those naming the record whose fields can all be read directly
+   * into the record's fields.
+   */
+  public List<Schema> getWriterSchemas(Schema record) {
+    List<Schema> result = new ArrayList<>();
+    if (!isCustomCodable(record)) {
+      return result;
+    }
+    Set<Long> fingerprints = new HashSet<>();
+    for (Schema writer : writerSchemas) {
+      if (writer.getType() == Schema.Type.RECORD
+          && (writer.getFullName().equals(record.getFullName()) || record.getAliases().contains(writer.getFullName()))
+          && isWriterDecodable(record, writer) && fingerprints.add(fingerprint64(writer))) {
+        result.add(writer);
+      }
+    }
+    return result;
+  }
+
+  private boolean isWriterDecodable(Schema record, Schema writer) {
+    for (Schema.Field field : record.getFields()) {
+      Schema.Field writerField = getWriterField(writer, field);
+      if (writerField == null) {
+        if (!field.hasDefaultValue()) {
+          return false;
+        }
+      } else if (!isDirectlyDecodable(writerField.schema(), field.schema())) {
+        return false;
+      }
+    }
+    for (Schema.Field writerField : writer.getFields()) {
+      if (getReaderFieldPos(record, writerField) < 0 && !isSkippable(writerField.schema(), new HashSet<>())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Schema.Field getWriterField(Schema writer, Schema.Field field) {
+    Schema.Field writerField = writer.getField(field.name());
+    if (writerField == null) {
+      for (String alias : field.aliases()) {
+        writerField = writer.getField(alias);
+        if (writerField != null) {
+          break;
+        }
+      }
+    }
+    return writerField;
+  }
+
+  /**
+   * Values are read directly when both schemas agree, when they are primitives of
+   * the same type (the reader's schema then decides how the value is converted),
+   * or when the writer's number is promoted to the reader's unconverted one.
+   * Nested records are excluded, as their custom decoders need a
+   * {@link org.apache.avro.io.ResolvingDecoder}.
+   */
+  private boolean isDirectlyDecodable(Schema writer, Schema reader) {
+    if (writer.equals(reader)) {
+      return !containsRecord(reader, new HashSet<>());
+    }
+    switch (writer.getType()) {
+    case BOOLEAN:
+    case STRING:
+    case BYTES:
+      return reader.getType() == writer.getType();
+    case INT:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+      return reader.getType() == writer.getType()
+          || (isPromotion(writer, reader) && getConvertedLogicalType(reader) == null);
+    default:
+      return false;
+    }
+  }
+
+  private static boolean containsRecord(Schema schema, Set<Schema> seen) {
+    if (!seen.add(schema)) {
+      return false;
+    }
+    switch (schema.getType()) {
+    case RECORD:
+      return true;
+    case ARRAY:
+      return containsRecord(schema.getElementType(), seen);
+    case MAP:
+      return containsRecord(schema.getValueType(), seen);
+    case UNION:
+      for (Schema s : schema.getTypes()) {
+        if (containsRecord(s, seen)) {
+          return true;
+        }
+      }
+      return false;
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isSkippable(Schema schema, Set<Schema> seen) {
+    switch (schema.getType()) {
+    case RECORD:
+      if (!seen.add(schema)) {
+        return false; // recursive records have no finite skip code
+      }
+      for (Schema.Field field : schema.getFields()) {
+        if (!isSkippable(field.schema(), seen)) {
+          return false;
+        }
+      }
+      seen.remove(schema);
+      return true;
+    case ARRAY:
+      return isSkippable(schema.getElementType(), seen);
+    case MAP:
+      return isSkippable(schema.getValueType(), seen);
+    case UNION:
+      for (Schema s : schema.getTypes()) {
+        if (!isSkippable(s, seen)) {
+          return false;
+        }
+      }
+      return true;
+    default:
+      return true;
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the position of the record's field that a
+   * writer's field is read into, or -1 if it is skipped.
+   */
+  public int getReaderFieldPos(Schema record, Schema.Field writerField) {
+    for (Schema.Field field : record.getFields()) {
+      if (field.name().equals(writerField.name()) || field.aliases().contains(writerField.name())) {
+        return field.pos();
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Utility for template use. Returns the record's fields that are missing from a
+   * writer's schema, and so are set to their default values.
+   */
+  public List<Schema.Field> getDefaultedFields(Schema record, Schema writer) {
+    List<Schema.Field> result = new ArrayList<>();
+    for (Schema.Field field : record.getFields()) {
+      if (getWriterField(writer, field) == null) {
+        result.add(field);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Utility for template use. Returns true if a value of the writer's schema is
+   * widened to the reader's, which is then read according to the writer's schema.
+   */
+  public boolean isPromotion(Schema writer, Schema reader) {
+    switch (writer.getType()) {
+    case INT:
+      return reader.getType() == Schema.Type.LONG || reader.getType() == Schema.Type.FLOAT
+          || reader.getType() == Schema.Type.DOUBLE;
+    case LONG:
+      return reader.getType() == Schema.Type.FLOAT || reader.getType() == Schema.Type.DOUBLE;
+    case FLOAT:
+      return reader.getType() == Schema.Type.DOUBLE;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the statements, each indented like those of
+   * the decode macros, that read past a value of the writer's schema.
+   */
+  public String generateSkipCode(Schema schema, int indent) {
+    StringBuilder code = new StringBuilder();
+    generateSkipCode(schema, indent(indent + 4), 0, code);
+    return code.substring(0, code.length() - 1);
+  }
+
+  private void generateSkipCode(Schema schema, String indent, int depth, StringBuilder code) {
+    switch (schema.getType()) {
+    case RECORD:
+      for (Schema.Field field : schema.getFields()) {
+        generateSkipCode(field.schema(), indent, depth, code);
+      }
+      break;
+    case ARRAY:
+    case MAP:
+      String skip = schema.getType() == Schema.Type.ARRAY ? "in.skipArray()" : "in.skipMap()";
+      code.append(indent).append("for (long c").append(depth).append(" = ").append(skip).append("; c").append(depth)
+          .append(" > 0; c").append(depth).append(" = ").append(skip).append(") {\n");
+      code.append(indent).append("  for (long j").append(depth).append(" = 0; j").append(depth).append(" < c")
+          .append(depth).append("; j").append(depth).append("++) {\n");
+      if (schema.getType() == Schema.Type.ARRAY) {
+        generateSkipCode(schema.getElementType(), indent + "    ", depth + 1, code);
+      } else {
+        code.append(indent).append("    in.skipString();\n");
+        generateSkipCode(schema.getValueType(), indent + "    ", depth + 1, code);
+      }
+      code.append(indent).append("  }\n");
+      code.append(indent).append("}\n");
+      break;
+    case UNION:
+      code.append(indent).append("switch (in.readIndex()) {\n");
+      List<Schema> types = schema.getTypes();
+      for (int i = 0; i < types.size(); i++) {
+        code.append(indent).append("case ").append(i).append(":\n");
+        generateSkipCode(types.get(i), indent + "  ", depth + 1, code);
+        code.append(indent).append("  break;\n");
+      }
+      code.append(indent).append("default:\n");
+      code.append(indent).append("  throw new java.io.IOException(\"Corrupt union index.\");\n");
+      code.append(indent).append("}\n");
+      break;
+    case FIXED:
+      code.append(indent).append("in.skipFixed(").append(schema.getFixedSize()).append(");\n");
+      break;
+    case ENUM:
+      code.append(indent).append("in.readEnum();\n");
+      break;
+    case STRING:
+      code.append(indent).append("in.skipString();\n");
+      break;
+    case BYTES:
+      code.append(indent).append("in.skipBytes();\n");
+      break;
+    case INT:
+      code.append(indent).append("in.readInt();\n");
+      break;
+    case LONG:
+      code.append(indent).append("in.readLong();\n");
+      break;
+    case FLOAT:
+      code.append(indent).append("in.readFloat();\n");
+      break;
+    case DOUBLE:
+      code.append(indent).append("in.readDouble();\n");
+      break;
+    case BOOLEAN:
+      code.append(indent).append("in.readBoolean();\n");
+      break;
+    case NULL:
+      code.append(indent).append("in.readNull();\n");
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown type: " + schema);
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the type that a view's getter returns for a
+   * field of the given schema, or null if the view has no getter for it. Values
+   * are returned in their encoded form, without logical type conversions; arrays,
+   * maps, records and unions other than with null are read from the record.
+   */
+  public String viewType(Schema schema) {
+    switch (schema.getType()) {
+    case UNION:
+      int branch = viewBranch(schema);
+      if (branch < 0) {
+        return null;
+      }
+      Schema type = schema.getTypes().get(branch);
+      return viewType(type) == null ? null : viewType(type, true);
+    default:
+      return viewType(schema, false);
+    }
+  }
+
+  private String viewType(Schema schema, boolean boxed) {
+    switch (schema.getType()) {
+    case ENUM:
+      return mangle(schema.getFullName());
+    case STRING:
+      return "org.apache.avro.util.Utf8";
+    case BYTES:
+    case FIXED:
+      return "java.nio.ByteBuffer";
+    case INT:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+    case BOOLEAN:
+      return boxed ? javaType(schema, false) : schema.getType().getName();
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the index of the branch other than null of
+   * a union with null, or -1 for other unions.
+   */
+  public int viewBranch(Schema union) {
+    List<Schema> types = union.getTypes();
+    if (types.size() != 2 || !types.contains(NULL_SCHEMA)) {
+      return -1;
+    }
+    return types.get(0).equals(NULL_SCHEMA) ? 1 : 0;
+  }
+
+  /**
+   * Utility for template use. Returns the expression with which a view reads a
+   * value of the given schema at the offset p. Enums are read from the array
+   * named symbols and strings into the {@link org.apache.avro.util.Utf8} named
+   * reuse.
+   */
+  public String viewRead(Schema schema, String p, String symbols) {
+    switch (schema.getType()) {
+    case ENUM:
+      return symbols + "[readInt(" + p + ")]";
+    case STRING:
+      return "readString(" + p + ", reuse)";
+    case BYTES:
+      return "readBytes(" + p + ")";
+    case FIXED:
+      return "readFixed(" + p + ", " + schema.getFixedSize() + ")";
+    case INT:
+      return "readInt(" + p + ")";
+    case LONG:
+      return "readLong(" + p + ")";
+    case FLOAT:
+      return "readFloat(" + p + ")";
+    case DOUBLE:
+      return "readDouble(" + p + ")";
+    case BOOLEAN:
+      return "readBoolean(" + p + ")";
+    default:
+      throw new IllegalArgumentException("No view of type: " + schema);
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the name of a view's getter for a field, as
+   * {@link #generateGetMethod(Schema, Field)} but avoiding the methods of
+   * {@link org.apache.avro.specific.SpecificRecordView}.
+   */
+  public static String generateViewGetMethod(Schema schema, Field field) {
+    String name = generateGetMethod(schema, field);
+    return VIEW_METHODS.contains(name) ? name + "$" : name;
+  }
+
+  private static final Set<String> VIEW_METHODS = new HashSet<>(Arrays.asList("getBuffer", "getSchema"));
+
   public boolean hasLogicalTypeField(Schema schema) {
     for (Schema.Field field : schema.getFields()) {
       if (field.schema().getLogicalType() != null) {
@@ -1067,6 +1721,72 @@ public class SpecificCompiler {
     return word;
   }
 
+  /**
+   * Utility for template use. Returns the named types whose definitions the
+   * SCHEMA$ of a generated class takes from their own generated classes rather
+   * than parsing them again. These are the types used by the schema that do not
+   * lead back to it, as their classes could not be initialized first otherwise.
+   */
+  public List<Schema> getReferencedSchemas(Schema schema) {
+    List<Schema> referenced = new ArrayList<>();
+    collectReferencedSchemas(schema, schema, new HashSet<>(), referenced);
+    return referenced;
+  }
+
+  private static void collectReferencedSchemas(Schema root, Schema schema, Set<String> seen, List<Schema> referenced) {
+    switch (schema.getType()) {
+    case RECORD:
+    case ENUM:
+    case FIXED:
+      if (!seen.add(schema.getFullName()))
+        return;
+      if (schema != root && !isReachable(root, schema, new HashSet<>())) {
+        referenced.add(schema);
+      } else if (schema.getType() == Schema.Type.RECORD) {
+        for (Schema.Field field : schema.getFields())
+          collectReferencedSchemas(root, field.schema(), seen, referenced);
+      }
+      break;
+    case ARRAY:
+      collectReferencedSchemas(root, schema.getElementType(), seen, referenced);
+      break;
+    case MAP:
+      collectReferencedSchemas(root, schema.getValueType(), seen, referenced);
+      break;
+    case UNION:
+      for (Schema s : schema.getTypes())
+        collectReferencedSchemas(root, s, seen, referenced);
+      break;
+    default:
+    }
+  }
+
+  /** Returns true if the record target is schema or is used by it. */
+  private static boolean isReachable(Schema target, Schema schema, Set<String> seen) {
+    switch (schema.getType()) {
+    case RECORD:
+      if (schema.getFullName().equals(target.getFullName()))
+        return true;
+      if (!seen.add(schema.getFullName()))
+        return false;
+      for (Schema.Field field : schema.getFields())
+        if (isReachable(target, field.schema(), seen))
+          return true;
+      return false;
+    case ARRAY:
+      return isReachable(target, schema.getElementType(), seen);
+    case MAP:
+      return isReachable(target, schema.getValueType(), seen);
+    case UNION:
+      for (Schema s : schema.getTypes())
+        if (isReachable(target, s, seen))
+          return true;
+      return false;
+    default:
+      return false;
+    }
+  }
+
   /** Utility for use by templates. Return schema fingerprint as a long. */
   public static long fingerprint64(Schema schema) {
     return SchemaNormalization.parsingFingerprint64(schema);
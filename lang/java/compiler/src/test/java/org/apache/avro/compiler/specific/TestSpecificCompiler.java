@@ -21,26 +21,45 @@ import static org.apache.avro.compiler.specific.SpecificCompiler.DateTimeLogical
 import static org.apache.avro.compiler.specific.SpecificCompiler.DateTimeLogicalTypeImplementation.JSR310;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.equalTo;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.avro.LogicalTypes;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.StringType;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecordView;
+import org.apache.avro.util.Utf8;
 import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestName;
@@ -776,4 +795,268 @@ public class TestSpecificCompiler {
     }
     assertEquals(1, itWorksFound);
   }
+
+  @Test
+  public void testWriterSchemaDecoders() throws Exception {
+    Schema reader = new Schema.Parser().parse(new File("src/test/resources/evolved_record.avsc"));
+    Schema direct = new Schema.Parser().parse(new File("src/test/resources/writer_schemas/evolved_record_v1.avsc"));
+    Schema resolved = new Schema.Parser().parse(new File("src/test/resources/writer_schemas/evolved_record_v2.avsc"));
+    SpecificCompiler compiler = new SpecificCompiler(reader);
+    compiler.addWriterSchema(direct);
+    compiler.addWriterSchema(resolved);
+    assertEquals(Collections.singletonList(direct), compiler.getWriterSchemas(reader));
+    File dstDir = new File(OUTPUT_DIR.getRoot(), name.getMethodName());
+    assertCompilesWithJavaCompiler(dstDir, compiler.compile());
+
+    GenericRecord removed = new GenericData.Record(direct.getField("removed").schema());
+    removed.put("u",
+        new GenericData.Fixed(removed.getSchema().getField("u").schema().getTypes().get(2), new byte[] { 1, 2, 3 }));
+    removed.put("m", Collections.singletonMap("k", Arrays.asList("x", "y")));
+    GenericRecord v1 = new GenericData.Record(direct);
+    v1.put("removed", removed);
+    v1.put("ts", 1571435295123L);
+    v1.put("score", 2.5F);
+    v1.put("id", 7);
+    v1.put("tags", Arrays.asList("a", "b"));
+    v1.put("name", "n");
+    GenericRecord v2 = new GenericData.Record(resolved);
+    v2.put("id", 8L);
+    v2.put("name", ByteBuffer.wrap(new byte[] { 'm' }));
+    v2.put("score", 3.5);
+    v2.put("tags", Collections.emptyList());
+    v2.put("ts", 1571435295124L);
+
+    try (
+        URLClassLoader loader = new URLClassLoader(new URL[] { dstDir.toURI().toURL() }, getClass().getClassLoader())) {
+      SpecificData data = new SpecificData(loader);
+      data.setCustomCoders(true);
+      GenericRecord record = read(data, direct, reader, write(v1));
+      assertNotNull(record.getClass().getDeclaredMethod("customDecode0", Decoder.class));
+      assertEquals(7L, record.get("id"));
+      assertEquals("n", record.get("name").toString());
+      assertEquals(2.5, record.get("score"));
+      assertEquals(2, ((List<?>) record.get("tags")).size());
+      assertEquals(null, record.get("added"));
+      assertEquals(1, ((Map<?, ?>) record.get("counts")).size());
+      assertEquals(Instant.ofEpochMilli(1571435295123L), record.get("ts"));
+      assertEquals(read(new SpecificData(loader), direct, reader, write(v1)), record);
+
+      record = read(data, resolved, reader, write(v2));
+      assertEquals(8L, record.get("id"));
+      assertEquals("m", record.get("name").toString());
+      assertEquals(Instant.ofEpochMilli(1571435295124L), record.get("ts"));
+    }
+  }
+
+  @Test
+  public void testSchemaTakesNamedTypesFromTheirClasses() throws Exception {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Outer\","
+        + "\"namespace\":\"org.apache.avro.specific.test.shared\",\"fields\":["
+        + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"Kind\",\"symbols\":[\"A\",\"B\"]}},"
+        + "{\"name\":\"left\",\"type\":{\"type\":\"record\",\"name\":\"Node\",\"fields\":["
+        + "{\"name\":\"kind\",\"type\":\"Kind\"},{\"name\":\"next\",\"type\":[\"null\",\"Node\"]}]}},"
+        + "{\"name\":\"right\",\"type\":\"Node\"},"
+        + "{\"name\":\"back\",\"type\":[\"null\",{\"type\":\"record\",\"name\":\"Back\",\"fields\":["
+        + "{\"name\":\"outer\",\"type\":[\"null\",\"Outer\"]},{\"name\":\"node\",\"type\":\"Node\"}]}]}]}");
+    Schema kind = schema.getField("e").schema();
+    Schema node = schema.getField("left").schema();
+    Schema back = schema.getField("back").schema().getTypes().get(1);
+    SpecificCompiler compiler = new SpecificCompiler(schema);
+    // Back leads back to Outer, so its definition stays in Outer's schema
+    assertEquals(Arrays.asList(kind, node), compiler.getReferencedSchemas(schema));
+    assertEquals(Collections.singletonList(kind), compiler.getReferencedSchemas(node));
+    assertEquals(Arrays.asList(kind, node), compiler.getReferencedSchemas(back));
+    File dstDir = new File(OUTPUT_DIR.getRoot(), name.getMethodName());
+    assertCompilesWithJavaCompiler(dstDir, compiler.compile());
+
+    try (
+        URLClassLoader loader = new URLClassLoader(new URL[] { dstDir.toURI().toURL() }, getClass().getClassLoader())) {
+      SpecificData data = new SpecificData(loader);
+      Schema outer = data.getSchema(loader.loadClass("org.apache.avro.specific.test.shared.Outer"));
+      assertEquals(schema, outer);
+      assertEquals(schema.toString(), outer.toString());
+      assertTrue(outer.getField("left").schema() == data
+          .getSchema(loader.loadClass("org.apache.avro.specific.test.shared.Node")));
+      assertTrue(outer.getField("e").schema() == data
+          .getSchema(loader.loadClass("org.apache.avro.specific.test.shared.Kind")));
+    }
+  }
+
+  @Test
+  public void testViews() throws Exception {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Viewed\","
+        + "\"namespace\":\"org.apache.avro.specific.test.view\",\"fields\":["
+        + "{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"tags\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},"
+        + "{\"name\":\"name\",\"type\":\"string\"},{\"name\":\"nick\",\"type\":[\"null\",\"string\"]},"
+        + "{\"name\":\"kind\",\"type\":{\"type\":\"enum\",\"name\":\"Kind\",\"symbols\":[\"A\",\"B\"]}},"
+        + "{\"name\":\"score\",\"type\":\"double\"},{\"name\":\"count\",\"type\":[\"null\",\"int\"]},"
+        + "{\"name\":\"hash\",\"type\":{\"type\":\"fixed\",\"name\":\"Hash\",\"size\":2}}]}");
+    SpecificCompiler compiler = new SpecificCompiler(schema);
+    compiler.setCreateViews(true);
+    File dstDir = new File(OUTPUT_DIR.getRoot(), name.getMethodName());
+    Collection<SpecificCompiler.OutputFile> outputs = compiler.compile();
+    assertCompilesWithJavaCompiler(dstDir, outputs);
+    for (SpecificCompiler.OutputFile output : outputs) {
+      if (output.path.endsWith("ViewedView.java")) {
+        assertTrue(output.contents.contains("{@link #toRecord()}"));
+      }
+    }
+
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("id", -5L);
+    record.put("tags", Arrays.asList("a", "b"));
+    record.put("name", "n\u00e9");
+    record.put("kind", new GenericData.EnumSymbol(schema.getField("kind").schema(), "B"));
+    record.put("score", 2.5);
+    record.put("count", 300);
+    record.put("hash", new GenericData.Fixed(schema.getField("hash").schema(), new byte[] { 1, 2 }));
+    byte[] bytes = write(record);
+    byte[] padded = new byte[bytes.length + 2];
+    System.arraycopy(bytes, 0, padded, 1, bytes.length);
+    ByteBuffer buffer = ByteBuffer.wrap(padded, 1, bytes.length);
+
+    ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+    try (
+        URLClassLoader loader = new URLClassLoader(new URL[] { dstDir.toURI().toURL() }, getClass().getClassLoader())) {
+      Thread.currentThread().setContextClassLoader(loader);
+      Class<?> viewClass = loader.loadClass("org.apache.avro.specific.test.view.ViewedView");
+      SpecificRecordView<?> view = (SpecificRecordView<?>) viewClass.getConstructor(ByteBuffer.class)
+          .newInstance(buffer);
+      // fields are read in any order, skipping the array before them
+      assertEquals(300, viewClass.getMethod("getCount").invoke(view));
+      assertEquals(new Utf8("n\u00e9"), viewClass.getMethod("getName").invoke(view));
+      assertEquals(-5L, viewClass.getMethod("getId").invoke(view));
+      assertEquals(null, viewClass.getMethod("getNick").invoke(view));
+      assertEquals("B", viewClass.getMethod("getKind").invoke(view).toString());
+      assertEquals(2.5, viewClass.getMethod("getScore").invoke(view));
+      assertEquals(ByteBuffer.wrap(new byte[] { 1, 2 }), viewClass.getMethod("getHash").invoke(view));
+      Utf8 reuse = new Utf8();
+      assertTrue(reuse == viewClass.getMethod("getName", Utf8.class).invoke(view, reuse));
+      assertEquals(ByteBuffer.wrap(bytes), view.getBuffer());
+
+      GenericRecord decoded = (GenericRecord) view.toRecord();
+      assertEquals(loader.loadClass("org.apache.avro.specific.test.view.Viewed"), decoded.getClass());
+      assertEquals(-5L, decoded.get("id"));
+      assertEquals(2, ((List<?>) decoded.get("tags")).size());
+      assertEquals("n\u00e9", decoded.get("name").toString());
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextLoader);
+    }
+  }
+
+  @Test
+  public void testPrimitiveArrays() throws Exception {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Samples\","
+        + "\"namespace\":\"org.apache.avro.specific.test.primitive\",\"fields\":["
+        + "{\"name\":\"ints\",\"type\":{\"type\":\"array\",\"items\":\"int\"}},"
+        + "{\"name\":\"longs\",\"type\":{\"type\":\"array\",\"items\":\"long\"},\"default\":[1,2]},"
+        + "{\"name\":\"doubles\",\"type\":{\"type\":\"array\",\"items\":\"double\"}},"
+        + "{\"name\":\"dates\",\"type\":{\"type\":\"array\","
+        + "\"items\":{\"type\":\"int\",\"logicalType\":\"date\"}}},"
+        + "{\"name\":\"nested\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"array\",\"items\":\"float\"}}}]}");
+    SpecificCompiler compiler = new SpecificCompiler(schema);
+    compiler.setEnablePrimitiveArrays(true);
+    assertEquals("long[]", compiler.javaType(schema.getField("longs")));
+    assertEquals("java.util.List<java.time.LocalDate>", compiler.javaType(schema.getField("dates")));
+    assertEquals("java.util.List<java.util.List<java.lang.Float>>", compiler.javaType(schema.getField("nested")));
+    File dstDir = new File(OUTPUT_DIR.getRoot(), name.getMethodName());
+    assertCompilesWithJavaCompiler(dstDir, compiler.compile());
+
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("ints", Arrays.asList(1, -2, 3));
+    record.put("longs", Collections.singletonList(Long.MAX_VALUE));
+    record.put("doubles", Collections.emptyList());
+    record.put("dates", Collections.emptyList());
+    record.put("nested", Collections.singletonList(Arrays.asList(0.5F)));
+    byte[] bytes = write(record);
+
+    try (
+        URLClassLoader loader = new URLClassLoader(new URL[] { dstDir.toURI().toURL() }, getClass().getClassLoader())) {
+      Class<?> recordClass = loader.loadClass("org.apache.avro.specific.test.primitive.Samples");
+      assertEquals(int[].class, recordClass.getMethod("getInts").getReturnType());
+      assertEquals(List.class, recordClass.getMethod("getNested").getReturnType());
+      SpecificData data = new SpecificData(loader);
+      GenericRecord plain = read(data, schema, schema, bytes);
+      data.setCustomCoders(true);
+      GenericRecord custom = read(data, schema, schema, bytes);
+      assertTrue(Arrays.equals(new int[] { 1, -2, 3 }, (int[]) recordClass.getMethod("getInts").invoke(custom)));
+      assertTrue(
+          Arrays.equals(new long[] { Long.MAX_VALUE }, (long[]) recordClass.getMethod("getLongs").invoke(plain)));
+      assertEquals(plain, custom);
+      assertEquals(plain.hashCode(), custom.hashCode());
+      assertEquals(Arrays.asList(1, -2, 3), custom.get("ints"));
+      assertEquals(custom, data.deepCopy(schema, custom));
+
+      Object builder = recordClass.getMethod("newBuilder", recordClass).invoke(null, custom);
+      builder.getClass().getMethod("clearLongs").invoke(builder);
+      GenericRecord built = (GenericRecord) builder.getClass().getMethod("build").invoke(builder);
+      assertTrue(Arrays.equals(new long[] { 1, 2 }, (long[]) recordClass.getMethod("getLongs").invoke(built)));
+      assertTrue(recordClass.getMethod("getInts").invoke(custom) != recordClass.getMethod("getInts").invoke(built));
+      assertEquals(custom.get("ints"), built.get("ints"));
+    }
+  }
+
+  @Test
+  public void testCodeFingerprint() throws Exception {
+    long fingerprint = createCompiler().getCodeFingerprint();
+    assertEquals(fingerprint, createCompiler().getCodeFingerprint());
+
+    SpecificCompiler compiler = createCompiler();
+    compiler.setCreateSetters(false);
+    assertFalse(fingerprint == compiler.getCodeFingerprint());
+
+    compiler = createCompiler();
+    compiler.setSuffix(".txt");
+    assertFalse(fingerprint == compiler.getCodeFingerprint());
+  }
+
+  @Test
+  public void testOutputFiles() throws Exception {
+    SpecificCompiler compiler = createCompiler();
+    compiler.setCreateViews(true);
+    File dst = OUTPUT_DIR.getRoot();
+    compiler.compileToDestination(this.src, dst);
+    List<File> outputFiles = compiler.getOutputFiles(dst);
+    assertEquals(2, outputFiles.size());
+    for (File file : outputFiles) {
+      assertTrue(file + " not written", file.exists());
+    }
+  }
+
+  @Test
+  public void testSchemaTakesConvertedNamedTypesFromTheirClasses() throws Exception {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Amounts\","
+        + "\"namespace\":\"org.apache.avro.specific.test.shared\",\"fields\":["
+        + "{\"name\":\"a\",\"type\":{\"type\":\"fixed\",\"name\":\"Amount\",\"size\":8,"
+        + "\"logicalType\":\"decimal\",\"precision\":18,\"scale\":2}},"
+        + "{\"name\":\"b\",\"type\":[\"null\",\"Amount\"]}]}");
+    Schema amount = schema.getField("a").schema();
+    SpecificCompiler compiler = new SpecificCompiler(schema);
+    compiler.setEnableDecimalLogicalType(true);
+    assertEquals(Collections.singletonList(amount), compiler.getReferencedSchemas(schema));
+    File dstDir = new File(OUTPUT_DIR.getRoot(), name.getMethodName());
+    assertCompilesWithJavaCompiler(dstDir, compiler.compile());
+
+    try (
+        URLClassLoader loader = new URLClassLoader(new URL[] { dstDir.toURI().toURL() }, getClass().getClassLoader())) {
+      SpecificData data = new SpecificData(loader);
+      Schema amounts = data.getSchema(loader.loadClass("org.apache.avro.specific.test.shared.Amounts"));
+      assertEquals(schema, amounts);
+      assertTrue(amounts.getField("a").schema() == data
+          .getSchema(loader.loadClass("org.apache.avro.specific.test.shared.Amount")));
+    }
+  }
+
+  private static byte[] write(GenericRecord record) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private static GenericRecord read(SpecificData data, Schema writer, Schema reader, byte[] bytes) throws IOException {
+    return new SpecificDatumReader<GenericRecord>(writer, reader, data).read(null,
+        DecoderFactory.get().binaryDecoder(bytes, null));
+  }
 }
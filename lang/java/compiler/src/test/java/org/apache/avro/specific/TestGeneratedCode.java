@@ -20,6 +20,10 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.apache.avro.Schema;
 import org.apache.avro.io.Encoder;
@@ -34,14 +38,17 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.apache.avro.specific.test.FullErrorV3;
 import org.apache.avro.specific.test.FullRecordV1;
 import org.apache.avro.specific.test.FullRecordV2;
+import org.apache.avro.specific.test.FullRecordV3;
 
 public class TestGeneratedCode {
 
   private final static SpecificData MODEL = new SpecificData();
   private final static Schema V1S = FullRecordV1.getClassSchema();
   private final static Schema V2S = FullRecordV2.getClassSchema();
+  private final static Schema V3S = FullRecordV3.getClassSchema();
 
   @Before
   public void setUp() {
@@ -87,4 +94,66 @@ public class TestGeneratedCode {
     FullRecordV1 expected = new FullRecordV1(true, 87231, 731L, 54.2832F, 38.0, null, "Hello, world!");
     Assert.assertEquals(expected, dst);
   }
+
+  @Test
+  public void withLogicalTypesAndUnions() throws IOException {
+    Instant ts = Instant.ofEpochMilli(1571435295123L);
+    FullRecordV3 src = new FullRecordV3(ts, LocalDate.of(2019, 10, 18), ts.plusMillis(4), Arrays.asList("a", 7L, "b"),
+        "Hi there");
+    Assert.assertTrue("Test schema must allow for custom coders.", ((SpecificRecordBase) src).hasCustomCoders());
+
+    byte[] custom = write(MODEL, V3S, src);
+    Assert.assertArrayEquals("Custom coders must write what the generic writer writes", custom,
+        write(SpecificData.getForClass(FullRecordV3.class), V3S, src));
+
+    FullRecordV3 dst = read(V3S, V3S, custom);
+    Assert.assertEquals(src.getTs(), dst.getTs());
+    Assert.assertEquals(src.getD(), dst.getD());
+    Assert.assertEquals(src.getU(), dst.getU());
+    Assert.assertEquals(Arrays.asList(new Utf8("a"), 7L, new Utf8("b")), dst.getV());
+    Assert.assertEquals(new Utf8("Hi there"), dst.getE());
+
+    src.setD(null);
+    src.setU(42);
+    src.setV(Collections.singletonMap("k", 3));
+    dst = read(V3S, V3S, write(MODEL, V3S, src));
+    Assert.assertNull(dst.getD());
+    Assert.assertEquals(42, dst.getU());
+    Assert.assertEquals(Collections.singletonMap(new Utf8("k"), 3), dst.getV());
+  }
+
+  @Test
+  public void errorWithCustomCoders() throws IOException {
+    Instant ts = Instant.ofEpochMilli(1571435295123L);
+    FullErrorV3 error = FullErrorV3.newBuilder().setMessage$("failed").setWhen(ts).setCode(503).build();
+    Assert.assertTrue("Test schema must allow for custom coders.", ((SpecificExceptionBase) error).hasCustomCoders());
+    FullRecordV3 src = new FullRecordV3(ts, null, "u", null, error);
+
+    byte[] custom = write(MODEL, V3S, src);
+    Assert.assertArrayEquals("Custom coders must write what the generic writer writes", custom,
+        write(SpecificData.getForClass(FullRecordV3.class), V3S, src));
+
+    FullRecordV3 record = read(V3S, V3S, custom);
+    FullErrorV3 dst = (FullErrorV3) record.getE();
+    Assert.assertEquals(new Utf8("failed"), dst.getMessage$());
+    Assert.assertEquals(ts, dst.getWhen());
+    Assert.assertEquals(503, dst.getCode());
+  }
+
+  private static byte[] write(SpecificData model, Schema schema, Object datum) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    Encoder e = EncoderFactory.get().directBinaryEncoder(out, null);
+    @SuppressWarnings("unchecked")
+    DatumWriter<Object> w = (DatumWriter<Object>) model.createDatumWriter(schema);
+    w.write(datum, e);
+    e.flush();
+    return out.toByteArray();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T read(Schema writer, Schema reader, byte[] bytes) throws IOException {
+    Decoder d = DecoderFactory.get().directBinaryDecoder(new ByteArrayInputStream(bytes), null);
+    DatumReader<T> r = (DatumReader<T>) MODEL.createDatumReader(writer, reader);
+    return r.read(null, d);
+  }
 }
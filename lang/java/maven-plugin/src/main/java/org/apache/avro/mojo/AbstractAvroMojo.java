@@ -20,13 +20,23 @@ package org.apache.avro.mojo;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.avro.Schema;
 import org.apache.avro.compiler.specific.SpecificCompiler;
 import org.apache.avro.compiler.specific.SpecificCompiler.DateTimeLogicalTypeImplementation;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
@@ -154,6 +164,15 @@ public abstract class AbstractAvroMojo extends AbstractMojo {
    */
   protected boolean createSetters;
 
+  /**
+   * Determines whether or not to also create, for each record, a view class that
+   * reads the fields of a binary-encoded record without decoding it. The default
+   * is to not create views.
+   *
+   * @parameter default-value="false"
+   */
+  protected boolean createViews;
+
   /**
    * A set of fully qualified class names of custom
    * {@link org.apache.avro.Conversion} implementations to add to the compiler.
@@ -171,6 +190,14 @@ public abstract class AbstractAvroMojo extends AbstractMojo {
    */
   protected boolean enableDecimalLogicalType;
 
+  /**
+   * Determines whether or not to hold arrays of int, long, float and double in
+   * primitive Java arrays instead of lists
+   *
+   * @parameter default-value="false"
+   */
+  protected boolean enablePrimitiveArrays;
+
   /**
    * Determines which type of classes to generate for date/time related logical
    * types. Either 'joda' or 'jsr310'. Defaults to jsr310.
@@ -179,6 +206,38 @@ public abstract class AbstractAvroMojo extends AbstractMojo {
    */
   protected String dateTimeLogicalTypeImplementation = DateTimeLogicalTypeImplementation.JSR310.name().toLowerCase();
 
+  /**
+   * A directory of historical writer schemas (.avsc), one per file. Each
+   * generated record also gets a decoder for those of its name it can read
+   * without schema resolution, used when reading data written with them.
+   *
+   * @parameter property="writerSchemaDirectory"
+   */
+  protected File writerSchemaDirectory;
+
+  /**
+   * A file keeping, between builds, a fingerprint of the code generated for each
+   * source file. A source file is then only compiled again if its code was
+   * deleted or if its schemas, including the types they import, or the options
+   * changed. Compile every source file if not set.
+   *
+   * @parameter property="avro.fingerprintFile"
+   *            default-value="${project.build.directory}/avro-fingerprints.properties"
+   */
+  protected File fingerprintFile;
+
+  /**
+   * The number of threads generating code. Source files are parsed in order, one
+   * at a time, and the code of each is generated in parallel. Defaults to the
+   * number of available processors.
+   *
+   * @parameter property="avro.threads"
+   */
+  protected int threads;
+
+  /** The fingerprints of {@link #fingerprintFile}, by source file. */
+  private Properties fingerprints;
+
   /**
    * The current Maven project.
    *
@@ -198,6 +257,15 @@ public abstract class AbstractAvroMojo extends AbstractMojo {
           + testSourceDirectory + " are directories");
     }
 
+    loadFingerprints();
+    try {
+      compileAll(hasSourceDir, hasImports, hasTestDir);
+    } finally {
+      saveFingerprints();
+    }
+  }
+
+  private void compileAll(boolean hasSourceDir, boolean hasImports, boolean hasTestDir) throws MojoExecutionException {
     if (hasImports) {
       for (String importedFile : imports) {
         File file = new File(importedFile);
@@ -261,12 +329,120 @@ public abstract class AbstractAvroMojo extends AbstractMojo {
   }
 
   private void compileFiles(String[] files, File sourceDir, File outDir) throws MojoExecutionException {
+    List<Callable<Void>> generators = new ArrayList<>();
+    boolean legacy = overridesDoCompile();
     for (String filename : files) {
+      File src = new File(sourceDir, filename);
+      SpecificCompiler compiler;
       try {
-        doCompile(filename, sourceDir, outDir);
+        if (legacy) {
+          doCompile(filename, sourceDir, outDir);
+          continue;
+        }
+        compiler = createCompiler(filename, sourceDir);
       } catch (IOException e) {
         throw new MojoExecutionException("Error compiling protocol file " + filename + " to " + outDir, e);
       }
+      if (compiler == null) {
+        throw new MojoExecutionException(getClass().getName() + " implements neither createCompiler nor doCompile");
+      }
+      String key = src.getAbsolutePath();
+      String fingerprint = fingerprints == null ? null : Long.toHexString(compiler.getCodeFingerprint());
+      if (fingerprint != null && fingerprint.equals(fingerprints.getProperty(key))
+          && allExist(compiler.getOutputFiles(outDir))) {
+        getLog().debug("Skipping unchanged file: " + src);
+        continue;
+      }
+      generators.add(() -> {
+        if (fingerprint != null) {
+          fingerprints.remove(key); // until its code is complete again
+        }
+        try {
+          // a changed fingerprint may stem from an imported file: write all
+          compileToDestination(compiler, fingerprint == null ? src : null, outDir);
+        } catch (IOException | RuntimeException e) {
+          throw new MojoExecutionException("Error compiling protocol file " + filename + " to " + outDir, e);
+        }
+        if (fingerprint != null) {
+          fingerprints.setProperty(key, fingerprint);
+        }
+        return null;
+      });
+    }
+    generate(generators);
+  }
+
+  private void generate(List<Callable<Void>> generators) throws MojoExecutionException {
+    if (generators.isEmpty()) {
+      return;
+    }
+    int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(n, generators.size()));
+    try {
+      for (Future<Void> future : executor.invokeAll(generators)) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof MojoExecutionException) {
+            throw (MojoExecutionException) e.getCause();
+          }
+          throw new MojoExecutionException("Error generating code", e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while generating code", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** True if a subclass overrides the deprecated doCompile. */
+  private boolean overridesDoCompile() {
+    for (Class<?> c = getClass(); c != AbstractAvroMojo.class; c = c.getSuperclass()) {
+      try {
+        c.getDeclaredMethod("doCompile", String.class, File.class, File.class);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // not in this class
+      }
+    }
+    return false;
+  }
+
+  private static boolean allExist(List<File> files) {
+    for (File file : files) {
+      if (!file.isFile()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void loadFingerprints() throws MojoExecutionException {
+    if (fingerprintFile == null) {
+      fingerprints = null;
+      return;
+    }
+    fingerprints = new Properties();
+    if (fingerprintFile.isFile()) {
+      try (InputStream in = Files.newInputStream(fingerprintFile.toPath())) {
+        fingerprints.load(in);
+      } catch (IOException e) {
+        throw new MojoExecutionException("Error reading " + fingerprintFile, e);
+      }
+    }
+  }
+
+  private void saveFingerprints() throws MojoExecutionException {
+    if (fingerprints == null) {
+      return;
+    }
+    fingerprintFile.getParentFile().mkdirs();
+    try (OutputStream out = Files.newOutputStream(fingerprintFile.toPath())) {
+      fingerprints.store(out, "Fingerprints of the code generated from each source file");
+    } catch (IOException e) {
+      throw new MojoExecutionException("Error writing " + fingerprintFile, e);
     }
   }
 
@@ -295,6 +471,20 @@ public abstract class AbstractAvroMojo extends AbstractMojo {
     }
   }
 
+  /**
+   * Adds the schemas of {@link #writerSchemaDirectory}, if any, to a compiler.
+   */
+  protected void addWriterSchemas(SpecificCompiler compiler) throws IOException {
+    if (writerSchemaDirectory == null || !writerSchemaDirectory.isDirectory()) {
+      return;
+    }
+    String[] files = getIncludedFiles(writerSchemaDirectory.getAbsolutePath(), new String[0],
+        new String[] { "**/*.avsc" });
+    for (String file : files) {
+      compiler.addWriterSchema(new Schema.Parser().parse(new File(writerSchemaDirectory, file)));
+    }
+  }
+
   protected List<Object> instantiateAdditionalVelocityTools() {
     List<Object> velocityTools = new ArrayList<>(velocityToolsClassesNames.length);
     for (String velocityToolClassName : velocityToolsClassesNames) {
@@ -308,7 +498,41 @@ public abstract class AbstractAvroMojo extends AbstractMojo {
     return velocityTools;
   }
 
-  protected abstract void doCompile(String filename, File sourceDirectory, File outputDirectory) throws IOException;
+  /**
+   * Compiles a source file with {@link #createCompiler(String, File)}. If a
+   * subclass overrides this, it is called instead for every source file, one at a
+   * time, and every time the mojo is executed.
+   *
+   * @deprecated override {@link #createCompiler(String, File)} instead, so that
+   *             code is generated in parallel and unchanged files are skipped.
+   */
+  @Deprecated
+  protected void doCompile(String filename, File sourceDirectory, File outputDirectory) throws IOException {
+    SpecificCompiler compiler = createCompiler(filename, sourceDirectory);
+    if (compiler == null) {
+      throw new UnsupportedOperationException(
+          getClass().getName() + " implements neither createCompiler nor doCompile");
+    }
+    compileToDestination(compiler, new File(sourceDirectory, filename), outputDirectory);
+  }
+
+  /**
+   * Parses a source file and returns the compiler generating its code. Called for
+   * one file at a time, in order, on the thread executing the mojo. Subclasses
+   * that override the deprecated {@link #doCompile(String, File, File)} instead
+   * need not implement this.
+   */
+  protected SpecificCompiler createCompiler(String filename, File sourceDirectory) throws IOException {
+    return null;
+  }
+
+  /**
+   * Generates the code of a source file, unless its outputs are newer than src if
+   * that is not null. Called in parallel, for different compilers.
+   */
+  protected void compileToDestination(SpecificCompiler compiler, File src, File outputDirectory) throws IOException {
+    compiler.compileToDestination(src, outputDirectory);
+  }
 
   protected URLClassLoader createClassLoader() throws DependencyResolutionRequiredException, MalformedURLException {
     List<URL> urls = appendElements(project.getRuntimeClasspathElements());
@@ -61,7 +61,7 @@ public class IDLProtocolMojo extends AbstractAvroMojo {
   private String[] testIncludes = new String[] { "**/*.avdl" };
 
   @Override
-  protected void doCompile(String filename, File sourceDirectory, File outputDirectory) throws IOException {
+  protected SpecificCompiler createCompiler(String filename, File sourceDirectory) throws IOException {
     try {
       @SuppressWarnings("rawtypes")
       List runtimeClasspathElements = project.getRuntimeClasspathElements();
@@ -94,19 +94,27 @@ public class IDLProtocolMojo extends AbstractAvroMojo {
         compiler.setCreateOptionalGetters(createOptionalGetters);
         compiler.setGettersReturnOptional(gettersReturnOptional);
         compiler.setCreateSetters(createSetters);
+        compiler.setCreateViews(createViews);
         compiler.setAdditionalVelocityTools(instantiateAdditionalVelocityTools());
         compiler.setEnableDecimalLogicalType(enableDecimalLogicalType);
+        compiler.setEnablePrimitiveArrays(enablePrimitiveArrays);
+        addWriterSchemas(compiler);
         for (String customConversion : customConversions) {
           compiler.addCustomConversion(projPathLoader.loadClass(customConversion));
         }
         compiler.setOutputCharacterEncoding(project.getProperties().getProperty("project.build.sourceEncoding"));
-        compiler.compileToDestination(null, outputDirectory);
+        return compiler;
       }
     } catch (ParseException | ClassNotFoundException | DependencyResolutionRequiredException e) {
       throw new IOException(e);
     }
   }
 
+  @Override
+  protected void compileToDestination(SpecificCompiler compiler, File src, File outputDirectory) throws IOException {
+    compiler.compileToDestination(null, outputDirectory); // imported files may have changed
+  }
+
   @Override
   protected String[] getIncludes() {
     return includes;
@@ -56,7 +56,7 @@ public class ProtocolMojo extends AbstractAvroMojo {
   private String[] testIncludes = new String[] { "**/*.avpr" };
 
   @Override
-  protected void doCompile(String filename, File sourceDirectory, File outputDirectory) throws IOException {
+  protected SpecificCompiler createCompiler(String filename, File sourceDirectory) throws IOException {
     File src = new File(sourceDirectory, filename);
     Protocol protocol = Protocol.parse(src);
     SpecificCompiler compiler = new SpecificCompiler(protocol, getDateTimeLogicalTypeImplementation());
@@ -66,8 +66,11 @@ public class ProtocolMojo extends AbstractAvroMojo {
     compiler.setCreateOptionalGetters(createOptionalGetters);
     compiler.setGettersReturnOptional(gettersReturnOptional);
     compiler.setCreateSetters(createSetters);
+    compiler.setCreateViews(createViews);
     compiler.setAdditionalVelocityTools(instantiateAdditionalVelocityTools());
     compiler.setEnableDecimalLogicalType(enableDecimalLogicalType);
+    compiler.setEnablePrimitiveArrays(enablePrimitiveArrays);
+    addWriterSchemas(compiler);
     final URLClassLoader classLoader;
     try {
       classLoader = createClassLoader();
@@ -78,7 +81,7 @@ public class ProtocolMojo extends AbstractAvroMojo {
       throw new IOException(e);
     }
     compiler.setOutputCharacterEncoding(project.getProperties().getProperty("project.build.sourceEncoding"));
-    compiler.compileToDestination(src, outputDirectory);
+    return compiler;
   }
 
   @Override
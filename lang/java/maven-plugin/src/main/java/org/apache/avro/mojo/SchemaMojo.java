@@ -62,7 +62,7 @@ public class SchemaMojo extends AbstractAvroMojo {
   private String[] testIncludes = new String[] { "**/*.avsc" };
 
   @Override
-  protected void doCompile(String filename, File sourceDirectory, File outputDirectory) throws IOException {
+  protected SpecificCompiler createCompiler(String filename, File sourceDirectory) throws IOException {
     File src = new File(sourceDirectory, filename);
     Schema schema;
 
@@ -83,7 +83,10 @@ public class SchemaMojo extends AbstractAvroMojo {
     compiler.setCreateOptionalGetters(createOptionalGetters);
     compiler.setGettersReturnOptional(gettersReturnOptional);
     compiler.setCreateSetters(createSetters);
+    compiler.setCreateViews(createViews);
     compiler.setEnableDecimalLogicalType(enableDecimalLogicalType);
+    compiler.setEnablePrimitiveArrays(enablePrimitiveArrays);
+    addWriterSchemas(compiler);
     try {
       final URLClassLoader classLoader = createClassLoader();
       for (String customConversion : customConversions) {
@@ -94,7 +97,7 @@ public class SchemaMojo extends AbstractAvroMojo {
     }
     compiler.setOutputCharacterEncoding(project.getProperties().getProperty("project.build.sourceEncoding"));
     compiler.setAdditionalVelocityTools(instantiateAdditionalVelocityTools());
-    compiler.compileToDestination(src, outputDirectory);
+    return compiler;
   }
 
   @Override
@@ -20,6 +20,8 @@ package org.apache.avro.mojo;
 import org.codehaus.plexus.util.FileUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Test the Schema Mojo.
@@ -80,4 +82,82 @@ public class TestSchemaMojo extends AbstractAvroMojoTest {
     String schemaUserContent = FileUtils.fileRead(new File(outputDir, "SchemaUser.java"));
     assertTrue(schemaUserContent.contains("It works!"));
   }
+
+  public void testIncrementalSkipsUnchangedFiles() throws Exception {
+    File outputDir = new File(getBasedir(), "target/test-harness/schema-incremental");
+    FileUtils.deleteDirectory(outputDir);
+    File fingerprintFile = new File(outputDir, "fingerprints.properties");
+    String[] generatedFiles = new String[] { "PrivacyDirectImport.java", "PrivacyImport.java", "SchemaPrivacy.java",
+        "SchemaUser.java" };
+
+    executeSchemaMojo(outputDir, fingerprintFile, 0);
+    File packageDir = new File(outputDir, "test");
+    assertFilesExist(packageDir, generatedFiles);
+    assertTrue(fingerprintFile.isFile());
+
+    // a second run with unchanged input generates nothing
+    long modified = 1000000000000L;
+    for (String file : generatedFiles) {
+      assertTrue(new File(packageDir, file).setLastModified(modified));
+    }
+    executeSchemaMojo(outputDir, fingerprintFile, 0);
+    for (String file : generatedFiles) {
+      assertEquals(file, modified, new File(packageDir, file).lastModified());
+    }
+
+    // deleted code is generated again
+    assertTrue(new File(packageDir, "SchemaUser.java").delete());
+    executeSchemaMojo(outputDir, fingerprintFile, 0);
+    assertFilesExist(packageDir, generatedFiles);
+  }
+
+  public void testParallelCompile() throws Exception {
+    File sequentialDir = new File(getBasedir(), "target/test-harness/schema-sequential");
+    File parallelDir = new File(getBasedir(), "target/test-harness/schema-parallel");
+    FileUtils.deleteDirectory(sequentialDir);
+    FileUtils.deleteDirectory(parallelDir);
+
+    executeSchemaMojo(sequentialDir, null, 1);
+    executeSchemaMojo(parallelDir, null, 4);
+
+    String[] generatedFiles = new String[] { "PrivacyDirectImport.java", "PrivacyImport.java", "SchemaPrivacy.java",
+        "SchemaUser.java" };
+    assertFilesExist(new File(parallelDir, "test"), generatedFiles);
+    for (String file : generatedFiles) {
+      assertEquals(file, FileUtils.fileRead(new File(sequentialDir, "test/" + file)),
+          FileUtils.fileRead(new File(parallelDir, "test/" + file)));
+    }
+  }
+
+  public void testDeprecatedDoCompile() throws Exception {
+    File outputDir = new File(getBasedir(), "target/test-harness/schema-legacy");
+    FileUtils.deleteDirectory(outputDir);
+    LegacySchemaMojo mojo = new LegacySchemaMojo();
+    configureMojo(mojo, "avro-maven-plugin", jsr310TestPom);
+    setVariableValueToObject(mojo, "outputDirectory", outputDir);
+    mojo.execute();
+
+    assertEquals(3, mojo.compiled.get()); // User.avsc and both imports
+    assertFilesExist(new File(outputDir, "test"), "PrivacyDirectImport.java", "PrivacyImport.java",
+        "SchemaPrivacy.java", "SchemaUser.java");
+  }
+
+  private void executeSchemaMojo(File outputDir, File fingerprintFile, int threads) throws Exception {
+    SchemaMojo mojo = (SchemaMojo) lookupMojo("schema", jsr310TestPom);
+    setVariableValueToObject(mojo, "outputDirectory", outputDir);
+    setVariableValueToObject(mojo, "fingerprintFile", fingerprintFile);
+    setVariableValueToObject(mojo, "threads", threads);
+    mojo.execute();
+  }
+
+  /** A subclass written against the plugin's former API. */
+  private static class LegacySchemaMojo extends SchemaMojo {
+    final AtomicInteger compiled = new AtomicInteger();
+
+    @Override
+    protected void doCompile(String filename, File sourceDirectory, File outputDirectory) throws IOException {
+      compiled.incrementAndGet();
+      super.doCompile(filename, sourceDirectory, outputDirectory);
+    }
+  }
 }
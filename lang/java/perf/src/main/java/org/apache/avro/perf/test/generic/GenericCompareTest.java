@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.perf.test.generic;
+
+import java.util.Iterator;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.perf.test.BasicState;
+import org.apache.avro.util.RandomData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Validates, hashes and compares generic records with the functions
+ * {@link GenericData} compiles per schema, and with the interpreted
+ * implementations that a subclass overriding them falls back to.
+ */
+public class GenericCompareTest {
+
+  private static final String RECORD_SCHEMA = "{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+      + "{ \"name\": \"f1\", \"type\": \"double\" },\n" + "{ \"name\": \"f2\", \"type\": \"long\" },\n"
+      + "{ \"name\": \"f3\", \"type\": \"int\" },\n" + "{ \"name\": \"f4\", \"type\": [\"null\", \"string\"] },\n"
+      + "{ \"name\": \"f5\", \"type\": { \"type\": \"enum\", \"name\": \"E\", \"symbols\": [\"A\", \"B\", \"C\"] } },\n"
+      + "{ \"name\": \"f6\", \"type\": { \"type\": \"array\", \"items\": \"int\" } },\n"
+      + "{ \"name\": \"f7\", \"type\": \"string\" }\n" + "] }";
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void validate(final Blackhole blackhole, final TestState state) {
+    for (final Object datum : state.testData) {
+      blackhole.consume(state.data.validate(state.schema, datum));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void hashCode(final Blackhole blackhole, final TestState state) {
+    for (final Object datum : state.testData) {
+      blackhole.consume(state.data.hashCode(datum, state.schema));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void compare(final Blackhole blackhole, final TestState state) {
+    final Object[] testData = state.testData;
+    for (int i = 1; i < testData.length; i++) {
+      blackhole.consume(state.data.compare(testData[i - 1], testData[i], state.schema));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestState extends BasicState {
+
+    @Param({ "compiled", "interpreted" })
+    public String implementation;
+
+    private final Schema schema;
+
+    private GenericData data;
+    private Object[] testData;
+
+    public TestState() {
+      super();
+      this.schema = new Schema.Parser().parse(RECORD_SCHEMA);
+    }
+
+    /**
+     * Setup the trial data.
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() {
+      this.data = "compiled".equals(implementation) ? new GenericData() : new InterpretedData();
+      this.testData = new Object[getBatchSize()];
+      final Iterator<Object> records = new RandomData(schema, testData.length, getRandom().nextLong()).iterator();
+      for (int i = 0; i < testData.length; i++) {
+        testData[i] = records.next();
+      }
+    }
+  }
+
+  /** Overrides the compiled operations, so that they are interpreted. */
+  private static class InterpretedData extends GenericData {
+    @Override
+    public boolean validate(Schema schema, Object datum) {
+      return super.validate(schema, datum);
+    }
+
+    @Override
+    public int hashCode(Object o, Schema s) {
+      return super.hashCode(o, s);
+    }
+
+    @Override
+    protected int compare(Object o1, Object o2, Schema s, boolean equals) {
+      return super.compare(o1, o2, s, equals);
+    }
+  }
+}
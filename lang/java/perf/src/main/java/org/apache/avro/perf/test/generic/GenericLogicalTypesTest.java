@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.perf.test.generic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class GenericLogicalTypesTest {
+
+  private static final String LOGICAL_TYPES = "{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+      + "{ \"name\": \"amount\", \"type\": {\"type\": \"bytes\", \"logicalType\": \"decimal\", "
+      + "\"precision\": 12, \"scale\": 2} },\n"
+      + "{ \"name\": \"price\", \"type\": {\"type\": \"fixed\", \"name\": \"Price\", \"size\": 8, "
+      + "\"logicalType\": \"decimal\", \"precision\": 18, \"scale\": 4} },\n"
+      + "{ \"name\": \"created\", \"type\": {\"type\": \"long\", \"logicalType\": \"timestamp-millis\"} },\n"
+      + "{ \"name\": \"updated\", \"type\": {\"type\": \"long\", \"logicalType\": \"timestamp-micros\"} },\n"
+      + "{ \"name\": \"day\", \"type\": {\"type\": \"int\", \"logicalType\": \"date\"} }\n" + "] }";
+
+  private static GenericData newData() {
+    GenericData data = new GenericData();
+    data.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    data.addLogicalTypeConversion(new TimeConversions.TimestampMillisConversion());
+    data.addLogicalTypeConversion(new TimeConversions.TimestampMicrosConversion());
+    data.addLogicalTypeConversion(new TimeConversions.DateConversion());
+    return data;
+  }
+
+  private static GenericRecord newRecord(Schema schema, Random r) {
+    GenericRecord rec = new GenericData.Record(schema);
+    rec.put(0, BigDecimal.valueOf(r.nextInt(), 2));
+    rec.put(1, BigDecimal.valueOf(r.nextLong() % 1_000_000_000_000_000L, 4));
+    rec.put(2, Instant.ofEpochMilli(r.nextLong() % 10_000_000_000_000L));
+    rec.put(3, Instant.ofEpochSecond(r.nextInt(), r.nextInt(1_000_000) * 1_000));
+    rec.put(4, LocalDate.ofEpochDay(r.nextInt(100_000)));
+    return rec;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    final GenericDatumWriter<Object> writer = new GenericDatumWriter<>(state.readerSchema, state.data);
+    for (final GenericRecord rec : state.testData) {
+      writer.write(rec, e);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final Blackhole blackhole, final TestStateDecode state) throws Exception {
+    final Decoder d = state.decoder;
+    final GenericDatumReader<Object> reader = new GenericDatumReader<>(state.readerSchema, state.readerSchema,
+        state.data);
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(reader.read(null, d));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+
+    private final Schema readerSchema;
+    private final GenericData data;
+
+    private GenericRecord[] testData;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super();
+      this.readerSchema = new Schema.Parser().parse(LOGICAL_TYPES);
+      this.data = newData();
+    }
+
+    /**
+     * Setup the trial data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new GenericRecord[getBatchSize()];
+
+      for (int i = 0; i < testData.length; i++) {
+        testData[i] = newRecord(readerSchema, super.getRandom());
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+
+    private final Schema readerSchema;
+    private final GenericData data;
+
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super();
+      this.readerSchema = new Schema.Parser().parse(LOGICAL_TYPES);
+      this.data = newData();
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      Encoder encoder = super.newEncoder(true, baos);
+      GenericDatumWriter<Object> writer = new GenericDatumWriter<>(readerSchema, data);
+
+      for (int i = 0; i < getBatchSize(); i++) {
+        writer.write(newRecord(readerSchema, super.getRandom()), encoder);
+      }
+
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+}
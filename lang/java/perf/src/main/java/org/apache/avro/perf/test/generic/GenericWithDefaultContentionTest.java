@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.perf.test.generic;
+
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Looks up and builds default values from state shared by all threads, as
+ * record builders and readers resolving missing fields do. Run it with more
+ * than one thread (see the --threads option) to measure contention.
+ */
+public class GenericWithDefaultContentionTest {
+
+  private static final String RECORD_SCHEMA_WITH_DEFAULTS = "{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+      + "{ \"name\": \"f1\", \"type\": \"double\", \"default\": 0.0 },\n"
+      + "{ \"name\": \"f2\", \"type\": \"int\", \"default\": 0 },\n"
+      + "{ \"name\": \"f3\", \"type\": \"string\", \"default\": \"undefined\" },\n"
+      + "{ \"name\": \"f4\", \"type\": [\"null\", \"string\"], \"default\": null },\n"
+      + "{ \"name\": \"f5\", \"type\": { \"type\": \"array\", \"items\": \"int\" }, \"default\": [1, 2, 3] },\n"
+      + "{ \"name\": \"f6\", \"type\": { \"type\": \"map\", \"values\": \"long\" }, \"default\": {\"a\": 1} }\n"
+      + "] }";
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void getDefaultValue(final Blackhole blackhole, final TestState state) {
+    final GenericData data = state.data;
+    final List<Field> fields = state.fields;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(data.getDefaultValue(fields.get(i % fields.size())));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void buildWithDefaults(final Blackhole blackhole, final TestState state) {
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(new GenericRecordBuilder(state.schema).build());
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class TestState extends BasicState {
+
+    private final Schema schema;
+    private final List<Field> fields;
+    private final GenericData data;
+
+    public TestState() {
+      super();
+      this.schema = new Schema.Parser().parse(RECORD_SCHEMA_WITH_DEFAULTS);
+      this.fields = schema.getFields();
+      this.data = GenericData.get();
+    }
+  }
+}
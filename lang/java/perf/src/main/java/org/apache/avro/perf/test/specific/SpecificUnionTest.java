@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.perf.test.specific;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicState;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Generated records with a union of several branches, which their generated
+ * code resolves by type and writes directly.
+ */
+public class SpecificUnionTest {
+
+  private static UnionRecord newRecord(Random r, int i) {
+    Object value;
+    switch (i % 5) {
+    case 0:
+      value = null;
+      break;
+    case 1:
+      value = "value" + r.nextInt(1000);
+      break;
+    case 2:
+      value = r.nextLong();
+      break;
+    case 3:
+      value = r.nextDouble();
+      break;
+    default:
+      value = new UnionValue("name" + r.nextInt(1000), r.nextInt());
+    }
+    return new UnionRecord(r.nextLong(), value);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    final SpecificDatumWriter<UnionRecord> writer = new SpecificDatumWriter<>(UnionRecord.class);
+    for (final UnionRecord rec : state.testData) {
+      writer.write(rec, e);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final Blackhole blackhole, final TestStateDecode state) throws Exception {
+    final Decoder d = state.decoder;
+    final SpecificDatumReader<UnionRecord> reader = new SpecificDatumReader<>(UnionRecord.class);
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(reader.read(null, d));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+
+    private UnionRecord[] testData;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super();
+    }
+
+    /**
+     * Setup the trial data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new UnionRecord[getBatchSize()];
+
+      for (int i = 0; i < testData.length; i++) {
+        testData[i] = newRecord(super.getRandom(), i);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super();
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      Encoder encoder = super.newEncoder(true, baos);
+      SpecificDatumWriter<UnionRecord> writer = new SpecificDatumWriter<>(UnionRecord.class);
+
+      for (int i = 0; i < getBatchSize(); i++) {
+        writer.write(newRecord(super.getRandom(), i), encoder);
+      }
+
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+}
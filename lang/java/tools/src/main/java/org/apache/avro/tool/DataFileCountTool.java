@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.tool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.mapred.FsInput;
+
+/**
+ * Counts the records of a data file by walking its block headers, without
+ * decoding any records. Optionally verifies block checksums.
+ */
+public class DataFileCountTool implements Tool {
+
+  @Override
+  public String getName() {
+    return "count";
+  }
+
+  @Override
+  public String getShortDescription() {
+    return "Counts the records in an Avro data file without decoding them.";
+  }
+
+  @Override
+  public int run(InputStream stdin, PrintStream out, PrintStream err, List<String> args) throws Exception {
+    OptionParser p = new OptionParser();
+    OptionSpec<Void> blocksOption = p.accepts("blocks",
+        "Print the offset, record count and stored size of every block, followed by a summary.");
+    OptionSpec<Void> ratioOption = p.accepts("ratio",
+        "Also decompress each block (without decoding it) to report uncompressed sizes and compression ratios.");
+    OptionSpec<Void> verifyOption = p.accepts("verify",
+        "Read every block and verify its checksum, without decompressing it. Corrupt blocks are reported.");
+    OptionSet opts = p.parse(args.toArray(new String[0]));
+
+    List<String> nargs = (List<String>) opts.nonOptionArguments();
+    if (nargs.size() != 1) {
+      err.println("Expected 1 arg: input_file");
+      p.printHelpOn(err);
+      return 1;
+    }
+    boolean printBlocks = opts.has(blocksOption);
+    boolean ratio = opts.has(ratioOption);
+    boolean verify = opts.has(verifyOption);
+    if (ratio && verify) {
+      err.println("--ratio and --verify are exclusive");
+      return 1;
+    }
+
+    long blocks = 0;
+    long records = 0;
+    long bytes = 0;
+    long uncompressedBytes = 0;
+    long corrupt = 0;
+    FsInput in = Util.openSeekableFromFS(nargs.get(0));
+    try (DataFileReader<Void> reader = new DataFileReader<>(in, new GenericDatumReader<>())) {
+      while (true) {
+        long offset = reader.previousSync();
+        long uncompressed = 0;
+        if (ratio) {
+          if (!reader.hasNext())
+            break;
+          ByteBuffer block = reader.nextBlock();
+          uncompressed = block.remaining();
+        } else if (verify) {
+          try {
+            if (!reader.verifyBlock())
+              break;
+          } catch (IOException | AvroRuntimeException e) {
+            corrupt++;
+            err.println("Corrupt block at " + offset + ": " + e.getMessage());
+            reader.sync(offset); // move past the end of the corrupt block
+            continue;
+          }
+        } else if (!reader.skipBlock()) {
+          break;
+        }
+        long count = reader.getBlockCount();
+        long size = reader.getBlockSize();
+        blocks++;
+        records += count;
+        bytes += size;
+        uncompressedBytes += uncompressed;
+        if (printBlocks) {
+          out.print(offset + "\t" + count + "\t" + size);
+          if (ratio) {
+            out.print("\t" + uncompressed + "\t" + ratio(uncompressed, size));
+          }
+          out.println();
+        }
+      }
+      if (verify && !reader.hasBlockChecksums()) {
+        err.println("File has no block checksums, only the block framing was verified.");
+      }
+    }
+
+    if (printBlocks || ratio || verify) {
+      out.println("blocks\t" + blocks);
+      out.println("records\t" + records);
+      out.println("bytes\t" + bytes);
+      if (ratio) {
+        out.println("uncompressed\t" + uncompressedBytes);
+        out.println("ratio\t" + ratio(uncompressedBytes, bytes));
+      }
+      if (verify) {
+        out.println("corrupt\t" + corrupt);
+      }
+    } else {
+      out.println(records);
+    }
+    return corrupt == 0 ? 0 : 1;
+  }
+
+  private static String ratio(long uncompressed, long compressed) {
+    return compressed == 0 ? "-" : String.format("%.3f", (double) uncompressed / compressed);
+  }
+}
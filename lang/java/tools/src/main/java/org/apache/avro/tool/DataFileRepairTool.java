@@ -21,21 +21,52 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.avro.Schema;
 import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileConstants;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SyncMarkerScanner;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryData;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
 
-/** Recovers data from a corrupt Avro Data file */
+/**
+ * Recovers data from a corrupt Avro Data file. The file is scanned for sync
+ * markers in parallel, and the blocks that may follow each marker are read
+ * concurrently, then reported and recovered in file order.
+ */
 public class DataFileRepairTool implements Tool {
 
+  private final int parallelism;
+
+  public DataFileRepairTool() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /** @param parallelism the number of threads that scan and read blocks. */
+  DataFileRepairTool(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
   @Override
   public String getName() {
     return "repair";
@@ -133,125 +164,139 @@ public class DataFileRepairTool implements Tool {
             }
           }
           fileWriter.setCodec(codecFactory);
-          int result = innerRecover(fileReader, fileWriter, out, err, recoverPrior, recoverAfter, schema, outfile);
+          int result = innerRecover(infile, fileReader, fileWriter, out, err, recoverPrior, recoverAfter, schema,
+              outfile);
           return result;
         } catch (Exception e) {
           e.printStackTrace(err);
           return 1;
         }
       } else {
-        return innerRecover(fileReader, null, out, err, recoverPrior, recoverAfter, null, null);
+        return innerRecover(infile, fileReader, null, out, err, recoverPrior, recoverAfter, null, null);
       }
 
     }
   }
 
-  private int innerRecover(DataFileReader<Object> fileReader, DataFileWriter<Object> fileWriter, PrintStream out,
-      PrintStream err, boolean recoverPrior, boolean recoverAfter, Schema schema, File outfile) {
+  private int innerRecover(File infile, DataFileReader<Object> fileReader, DataFileWriter<Object> fileWriter,
+      PrintStream out, PrintStream err, boolean recoverPrior, boolean recoverAfter, Schema schema, File outfile) {
     int numBlocks = 0;
     int numCorruptBlocks = 0;
     int numRecords = 0;
     int numCorruptRecords = 0;
     int recordsWritten = 0;
-    long position = fileReader.previousSync();
-    long blockSize = 0;
-    long blockCount = 0;
     boolean fileWritten = false;
+
+    // blocks may start after the header and after each sync marker
+    long[] starts;
+    try {
+      starts = blockStarts(infile, fileReader);
+    } catch (IOException e) {
+      err.println("failed to scan for sync markers, aborting");
+      e.printStackTrace(err);
+      return 1;
+    }
+
+    // blocks are read concurrently, a bounded number ahead of the one reported
+    boolean keepData = recoverPrior || recoverAfter;
+    int ahead = parallelism * 4;
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    BlockReaders readers = new BlockReaders(infile);
+    TreeMap<Integer, Future<Block>> pending = new TreeMap<>();
+    int submitted = 0;
+    int index = 0;
     try {
       while (true) {
-        try {
-          if (!fileReader.hasNext()) {
-            out.println("File Summary: ");
-            out.println("  Number of blocks: " + numBlocks + " Number of corrupt blocks: " + numCorruptBlocks);
-            out.println("  Number of records: " + numRecords + " Number of corrupt records: " + numCorruptRecords);
-            if (recoverAfter || recoverPrior) {
-              out.println("  Number of records written " + recordsWritten);
-            }
-            out.println();
-            return 0;
+        Block block = null;
+        if (index < starts.length) {
+          submitted = Math.max(submitted, index);
+          while (submitted < starts.length && submitted < index + ahead) {
+            long position = starts[submitted++];
+            pending.put(submitted - 1, executor.submit(() -> readers.read(position, keepData)));
           }
-          position = fileReader.previousSync();
-          blockCount = fileReader.getBlockCount();
-          blockSize = fileReader.getBlockSize();
-          numRecords += blockCount;
-          long blockRemaining = blockCount;
-          numBlocks++;
-          boolean lastRecordWasBad = false;
-          long badRecordsInBlock = 0;
-          while (blockRemaining > 0) {
-            try {
-              Object datum = fileReader.next();
-              if ((recoverPrior && numCorruptBlocks == 0) || (recoverAfter && numCorruptBlocks > 0)) {
-                if (!fileWritten) {
-                  try {
-                    fileWriter.create(schema, outfile);
-                    fileWritten = true;
-                  } catch (Exception e) {
-                    e.printStackTrace(err);
-                    return 1;
-                  }
-                }
-                try {
-                  fileWriter.append(datum);
-                  recordsWritten++;
-                } catch (Exception e) {
-                  e.printStackTrace(err);
-                  throw e;
-                }
+          try {
+            block = pending.remove(index).get();
+          } catch (ExecutionException e) {
+            err.println("failed to read block at " + starts[index] + ", aborting");
+            e.getCause().printStackTrace(err);
+            return 1;
+          }
+        }
+        if (block == null || block.end) {
+          out.println("File Summary: ");
+          out.println("  Number of blocks: " + numBlocks + " Number of corrupt blocks: " + numCorruptBlocks);
+          out.println("  Number of records: " + numRecords + " Number of corrupt records: " + numCorruptRecords);
+          if (recoverAfter || recoverPrior) {
+            out.println("  Number of records written " + recordsWritten);
+          }
+          out.println();
+          return 0;
+        }
+
+        if (block.failure != null) {
+          err.println("Failed to read block " + numBlocks + ". Unknown record " + "count in block.  Skipping. Reason: "
+              + block.failure);
+          numCorruptBlocks++;
+          index = skip(pending, index + 1); // resume after the next sync marker
+          continue;
+        }
+
+        numRecords += block.count;
+        numBlocks++;
+        int clean = block.badRecords.isEmpty() ? block.datums.size() : block.clean;
+        for (int i = 0; i < block.datums.size(); i++) {
+          boolean afterCorruption = numCorruptBlocks > 0 || i >= clean;
+          if ((recoverPrior && !afterCorruption) || (recoverAfter && afterCorruption)) {
+            if (!fileWritten) {
+              try {
+                fileWriter.create(schema, outfile);
+                fileWritten = true;
+              } catch (Exception e) {
+                e.printStackTrace(err);
+                return 1;
               }
-              blockRemaining--;
-              lastRecordWasBad = false;
+            }
+            try {
+              fileWriter.append(block.datums.get(i));
+              recordsWritten++;
             } catch (Exception e) {
-              long pos = blockCount - blockRemaining;
-              if (badRecordsInBlock == 0) {
-                // first corrupt record
-                numCorruptBlocks++;
-                err.println("Corrupt block: " + numBlocks + " Records in block: " + blockCount
-                    + " uncompressed block size: " + blockSize);
-                err.println("Corrupt record at position: " + (pos));
-              } else {
-                // second bad record in block, if consecutive skip block.
-                err.println("Corrupt record at position: " + (pos));
-                if (lastRecordWasBad) {
-                  // consecutive bad record
-                  err.println(
-                      "Second consecutive bad record in block: " + numBlocks + ". Skipping remainder of block. ");
-                  numCorruptRecords += blockRemaining;
-                  badRecordsInBlock += blockRemaining;
-                  try {
-                    fileReader.sync(position);
-                  } catch (Exception e2) {
-                    err.println("failed to sync to sync marker, aborting");
-                    e2.printStackTrace(err);
-                    return 1;
-                  }
-                  break;
-                }
-              }
-              blockRemaining--;
-              lastRecordWasBad = true;
-              numCorruptRecords++;
-              badRecordsInBlock++;
+              e.printStackTrace(err);
+              return 1;
             }
           }
-          if (badRecordsInBlock != 0) {
-            err.println("** Number of unrecoverable records in block: " + (badRecordsInBlock));
-          }
-          position = fileReader.previousSync();
-        } catch (Exception e) {
-          err.println("Failed to read block " + numBlocks + ". Unknown record " + "count in block.  Skipping. Reason: "
-              + e.getMessage());
+        }
+        if (!block.badRecords.isEmpty() || block.partial) {
           numCorruptBlocks++;
-          try {
-            fileReader.sync(position);
-          } catch (Exception e2) {
-            err.println("failed to sync to sync marker, aborting");
-            e2.printStackTrace(err);
-            return 1;
+          err.println("Corrupt block: " + numBlocks + " Records in block: " + block.count + " uncompressed block size: "
+              + block.size);
+          for (long pos : block.badRecords) {
+            err.println("Corrupt record at position: " + pos);
+          }
+          if (block.skipped) {
+            err.println("Second consecutive bad record in block: " + numBlocks + ". Skipping remainder of block. ");
           }
+          if (block.partial) {
+            err.println("Block read partially, the data may be corrupt");
+          }
+          if (!block.badRecords.isEmpty()) {
+            numCorruptRecords += block.unrecoverable;
+            err.println("** Number of unrecoverable records in block: " + block.unrecoverable);
+          }
+        }
+        if (block.skipped) {
+          index = skip(pending, index + 1); // resume after the next sync marker
+        } else {
+          int next = Arrays.binarySearch(starts, block.next);
+          index = skip(pending, next >= 0 ? next : -next - 1);
         }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      err.println("interrupted, aborting");
+      return 1;
     } finally {
+      executor.shutdownNow();
+      readers.close(executor);
       if (fileWritten) {
         try {
           fileWriter.close();
@@ -263,6 +308,141 @@ public class DataFileRepairTool implements Tool {
     }
   }
 
+  /**
+   * Returns the positions at which blocks may start: after the header, and after
+   * each sync marker. The file is scanned for sync markers in parallel.
+   */
+  private long[] blockStarts(File infile, DataFileReader<Object> fileReader) throws IOException {
+    long start = fileReader.previousSync();
+    long[] markers = new SyncMarkerScanner(fileReader.getHeader()).findAll(infile, start, infile.length(), parallelism);
+    long[] starts = new long[markers.length + 1];
+    starts[0] = start;
+    for (int i = 0; i < markers.length; i++) {
+      starts[i + 1] = markers[i] + DataFileConstants.SYNC_SIZE;
+    }
+    return starts;
+  }
+
+  /** Moves on to another block, dropping the reads of the blocks skipped. */
+  private static int skip(TreeMap<Integer, Future<Block>> pending, int to) {
+    NavigableMap<Integer, Future<Block>> skipped = pending.headMap(to, false);
+    for (Future<Block> read : skipped.values()) {
+      read.cancel(false); // interrupting would close the channel of a pooled reader
+    }
+    skipped.clear();
+    return to;
+  }
+
+  /** What was read from a position at which a block may start. */
+  private static class Block {
+    /** True if the file ends at this position. */
+    boolean end;
+    /** Why no block could be read at this position, or null. */
+    String failure;
+    long count;
+    long size;
+    /** The position after the block's sync marker. */
+    long next;
+    /** The records read, if kept. */
+    final List<Object> datums = new ArrayList<>();
+    /** The number of records read before the first bad record. */
+    int clean;
+    /** The positions of bad records in the block. */
+    final List<Long> badRecords = new ArrayList<>();
+    /** True if the remainder of the block was skipped after two bad records. */
+    boolean skipped;
+    /** True if bytes of the block remain after its records. */
+    boolean partial;
+    long unrecoverable;
+  }
+
+  /**
+   * Reads blocks of a file from any thread. Each thread uses a reader of its own,
+   * taken from a pool.
+   */
+  private static class BlockReaders {
+    private final File file;
+    private final Queue<DataFileReader<Object>> idle = new ConcurrentLinkedQueue<>();
+    private final Queue<DataFileReader<Object>> opened = new ConcurrentLinkedQueue<>();
+
+    BlockReaders(File file) {
+      this.file = file;
+    }
+
+    Block read(long position, boolean keepData) throws IOException {
+      DataFileReader<Object> reader = idle.poll();
+      if (reader == null) {
+        reader = new DataFileReader<>(file, new GenericDatumReader<>());
+        opened.add(reader);
+      }
+      Block block = new Block();
+      reader.seek(position);
+      ByteBuffer data;
+      try {
+        if (!reader.hasNext()) {
+          block.end = true;
+          return block;
+        }
+        data = reader.nextBlock();
+      } catch (Exception e) {
+        block.failure = e.getMessage();
+        return block; // a reader that failed within a block is not reused
+      }
+      block.count = reader.getBlockCount();
+      block.size = reader.getBlockSize();
+      byte[] buf = new byte[10];
+      block.next = position + BinaryData.encodeLong(block.count, buf, 0) + BinaryData.encodeLong(block.size, buf, 0)
+          + block.size + DataFileConstants.SYNC_SIZE;
+
+      // records are decoded here rather than by the reader, to check that they
+      // take up the whole block
+      GenericDatumReader<Object> datumReader = new GenericDatumReader<>(reader.getSchema());
+      BinaryDecoder in = DecoderFactory.get().binaryDecoder(data.array(), data.arrayOffset() + data.position(),
+          data.remaining(), null);
+      boolean lastRecordWasBad = false;
+      for (long pos = 0; pos < block.count; pos++) {
+        try {
+          Object datum = datumReader.read(null, in);
+          if (keepData) {
+            block.datums.add(datum);
+          }
+          lastRecordWasBad = false;
+        } catch (Exception e) {
+          if (block.badRecords.isEmpty()) {
+            block.clean = block.datums.size();
+          }
+          block.badRecords.add(pos);
+          if (lastRecordWasBad) { // consecutive bad record
+            block.skipped = true;
+            block.unrecoverable += block.count - pos;
+            break;
+          }
+          lastRecordWasBad = true;
+          block.unrecoverable++;
+        }
+      }
+      block.partial = !block.skipped && !in.isEnd();
+      idle.add(reader);
+      return block;
+    }
+
+    /** Closes the readers once the executor using them has terminated. */
+    void close(ExecutorService executor) {
+      try {
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      for (DataFileReader<Object> reader : opened) {
+        try {
+          reader.close();
+        } catch (IOException e) {
+          // only read from
+        }
+      }
+    }
+  }
+
   private int reportOnly(String input, PrintStream out, PrintStream err) throws IOException {
     return recover(input, null, out, err, false, false);
   }
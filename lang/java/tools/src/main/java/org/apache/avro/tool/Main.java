@@ -39,10 +39,11 @@ public class Main {
     for (Tool tool : new Tool[] { new CatTool(), new SpecificCompilerTool(), new InduceSchemaTool(),
         new JsonToBinaryFragmentTool(), new BinaryFragmentToJsonTool(), new CreateRandomFileTool(),
         new DataFileReadTool(), new DataFileWriteTool(), new DataFileGetMetaTool(), new DataFileGetSchemaTool(),
-        new DataFileRepairTool(), new IdlTool(), new IdlToSchemataTool(), new RecodecTool(), new ConcatTool(),
-        new RpcReceiveTool(), new RpcSendTool(), new RpcProtocolTool(), new FromTextTool(), new ToTextTool(),
-        new ToTrevniTool(), new TetherTool(), new TrevniCreateRandomTool(), new TrevniMetadataTool(),
-        new TrevniToJsonTool(), new SchemaNormalizationTool(), new SchemaFingerprintTool() }) {
+        new DataFileCountTool(), new DataFileRepairTool(), new IdlTool(), new IdlToSchemataTool(), new RecodecTool(),
+        new ConcatTool(), new SortTool(), new RpcReceiveTool(), new RpcSendTool(), new RpcProtocolTool(),
+        new FromTextTool(), new ToTextTool(), new ToTrevniTool(), new TetherTool(), new TrevniCreateRandomTool(),
+        new TrevniMetadataTool(), new TrevniToJsonTool(), new SchemaNormalizationTool(),
+        new SchemaFingerprintTool() }) {
       Tool prev = tools.put(tool.getName(), tool);
       if (prev != null) {
         throw new AssertionError("Two tools with identical names: " + tool + ", " + prev);
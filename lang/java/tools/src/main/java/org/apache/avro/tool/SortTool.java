@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.tool;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileSorter;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+
+/**
+ * Sorts the entries of data files into a single data file, by the ordering
+ * their schema defines. Inputs larger than memory are sorted externally.
+ */
+public class SortTool implements Tool {
+  @Override
+  public int run(InputStream in, PrintStream out, PrintStream err, List<String> args) throws Exception {
+    OptionParser optParser = new OptionParser();
+    OptionSpec<Integer> memoryOpt = optParser.accepts("memory", "Memory for sorting, in MiB").withRequiredArg()
+        .ofType(Integer.class).defaultsTo(64);
+    OptionSpec<Integer> threadsOpt = optParser.accepts("threads", "Number of chunks to sort concurrently")
+        .withRequiredArg().ofType(Integer.class).defaultsTo(Runtime.getRuntime().availableProcessors());
+    OptionSpec<String> tmpdirOpt = optParser.accepts("tmpdir", "Directory for temporary files").withRequiredArg()
+        .ofType(String.class);
+    OptionSpec<String> codecOpt = Util.compressionCodecOption(optParser);
+    OptionSpec<Integer> levelOpt = Util.compressionLevelOption(optParser);
+    OptionSet opts = optParser.parse(args.toArray(new String[0]));
+
+    List<String> nargs = (List<String>) opts.nonOptionArguments();
+    if (nargs.size() < 2) {
+      err.println("Expected input file(s) and an output file.");
+      err.println("sort [options] input_file [input_file...] output_file");
+      optParser.printHelpOn(err);
+      return 1;
+    }
+
+    List<DataFileStream<Object>> readers = new ArrayList<>();
+    try {
+      for (String inFile : nargs.subList(0, nargs.size() - 1)) {
+        readers.add(new DataFileStream<>(Util.fileOrStdin(inFile, in), new GenericDatumReader<>()));
+      }
+      Schema schema = readers.get(0).getSchema();
+      for (DataFileStream<Object> reader : readers) {
+        if (!schema.equals(reader.getSchema())) {
+          err.println("input files have different schemas");
+          return 1;
+        }
+      }
+
+      DataFileSorter sorter = new DataFileSorter(schema).setMemoryLimit(memoryOpt.value(opts) * 1024L * 1024L)
+          .setParallelism(threadsOpt.value(opts));
+      if (opts.has(tmpdirOpt)) {
+        sorter.setTempDirectory(new File(tmpdirOpt.value(opts)));
+      }
+
+      OutputStream output = Util.fileOrStdout(nargs.get(nargs.size() - 1), out);
+      DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema));
+      CodecFactory codec = Util.codecFactory(opts, codecOpt, levelOpt);
+      writer.setCodec(codec);
+      for (String key : readers.get(0).getMetaKeys()) {
+        if (!DataFileWriter.isReservedMeta(key)) {
+          writer.setMeta(key, readers.get(0).getMeta(key));
+        }
+      }
+      writer.create(schema, output);
+      sorter.sort(readers, writer);
+      writer.close();
+    } finally {
+      for (DataFileStream<Object> reader : readers) {
+        reader.close();
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public String getName() {
+    return "sort";
+  }
+
+  @Override
+  public String getShortDescription() {
+    return "Sorts data files by their schema's ordering.";
+  }
+}
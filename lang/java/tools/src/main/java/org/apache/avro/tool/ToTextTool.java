@@ -20,7 +20,9 @@ package org.apache.avro.tool;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -30,9 +32,14 @@ import joptsimple.OptionSet;
 
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
 
-/** Reads an avro data file into a plain text file. */
+/**
+ * Reads an avro data file into a plain text file. Files of the generic text
+ * schema are written a line per datum, and other files a line of JSON per
+ * datum.
+ */
 public class ToTextTool implements Tool {
   private static final String TEXT_FILE_SCHEMA = "\"bytes\"";
   private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes(StandardCharsets.UTF_8);
@@ -44,7 +51,7 @@ public class ToTextTool implements Tool {
 
   @Override
   public String getShortDescription() {
-    return "Converts an Avro data file to a text file.";
+    return "Converts an Avro data file to a text file, or to lines of JSON.";
   }
 
   @Override
@@ -64,17 +71,22 @@ public class ToTextTool implements Tool {
     GenericDatumReader<Object> reader = new GenericDatumReader<>();
     DataFileStream<Object> fileReader = new DataFileStream<>(inStream, reader);
 
-    if (!fileReader.getSchema().equals(new Schema.Parser().parse(TEXT_FILE_SCHEMA))) {
-      err.println("Avro file is not generic text schema");
-      p.printHelpOn(err);
-      fileReader.close();
-      return 1;
-    }
-
-    while (fileReader.hasNext()) {
-      ByteBuffer outBuff = (ByteBuffer) fileReader.next();
-      outStream.write(outBuff.array());
-      outStream.write(LINE_SEPARATOR);
+    if (fileReader.getSchema().equals(new Schema.Parser().parse(TEXT_FILE_SCHEMA))) {
+      while (fileReader.hasNext()) {
+        ByteBuffer outBuff = (ByteBuffer) fileReader.next();
+        outStream.write(outBuff.array());
+        outStream.write(LINE_SEPARATOR);
+      }
+    } else {
+      // other data is written as a line of JSON per datum, rendered as it is read
+      Writer writer = new OutputStreamWriter(outStream, StandardCharsets.UTF_8);
+      Object datum = null;
+      while (fileReader.hasNext()) {
+        datum = fileReader.next(datum);
+        GenericData.get().toString(datum, writer);
+        writer.write(System.lineSeparator());
+      }
+      writer.flush();
     }
     fileReader.close();
     Util.close(inStream);
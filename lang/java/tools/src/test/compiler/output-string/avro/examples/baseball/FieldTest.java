@@ -652,6 +652,84 @@ static {
     READER$.read(this, SpecificData.getDecoder(in));
   }
 
+  private static final org.apache.avro.Schema CONVERSION_SCHEMA0$ = SCHEMA$.getField("timestamp").schema();
+  private static final org.apache.avro.Conversion<java.time.Instant> CONVERSION0$ = new org.apache.avro.data.TimeConversions.TimestampMillisConversion();
+  private static final org.apache.avro.Schema CONVERSION_SCHEMA1$ = SCHEMA$.getField("timestampMicros").schema();
+  private static final org.apache.avro.Conversion<java.time.Instant> CONVERSION1$ = new org.apache.avro.data.TimeConversions.TimestampMicrosConversion();
+  private static final org.apache.avro.Schema CONVERSION_SCHEMA2$ = SCHEMA$.getField("timeMillis").schema();
+  private static final org.apache.avro.Conversion<java.time.LocalTime> CONVERSION2$ = new org.apache.avro.data.TimeConversions.TimeMillisConversion();
+  private static final org.apache.avro.Schema CONVERSION_SCHEMA3$ = SCHEMA$.getField("timeMicros").schema();
+  private static final org.apache.avro.Conversion<java.time.LocalTime> CONVERSION3$ = new org.apache.avro.data.TimeConversions.TimeMicrosConversion();
+
+  @Override protected boolean hasCustomCoders() { return true; }
+
+  @Override public void customEncode(org.apache.avro.io.Encoder out)
+    throws java.io.IOException
+  {
+    out.writeInt(this.number);
+
+    out.writeString(this.last_name);
+
+    out.writeLong(CONVERSION0$.toLong(this.timestamp, CONVERSION_SCHEMA0$, CONVERSION_SCHEMA0$.getLogicalType()));
+
+    out.writeLong(CONVERSION1$.toLong(this.timestampMicros, CONVERSION_SCHEMA1$, CONVERSION_SCHEMA1$.getLogicalType()));
+
+    out.writeInt(CONVERSION2$.toInt(this.timeMillis, CONVERSION_SCHEMA2$, CONVERSION_SCHEMA2$.getLogicalType()));
+
+    out.writeLong(CONVERSION3$.toLong(this.timeMicros, CONVERSION_SCHEMA3$, CONVERSION_SCHEMA3$.getLogicalType()));
+
+  }
+
+  @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
+    throws java.io.IOException
+  {
+    org.apache.avro.Schema.Field[] fieldOrder = in.readFieldOrderIfDiff();
+    if (fieldOrder == null) {
+      this.number = in.readInt();
+
+      this.last_name = in.readString();
+
+      this.timestamp = CONVERSION0$.fromLong(in.readLong(), CONVERSION_SCHEMA0$, CONVERSION_SCHEMA0$.getLogicalType());
+
+      this.timestampMicros = CONVERSION1$.fromLong(in.readLong(), CONVERSION_SCHEMA1$, CONVERSION_SCHEMA1$.getLogicalType());
+
+      this.timeMillis = CONVERSION2$.fromInt(in.readInt(), CONVERSION_SCHEMA2$, CONVERSION_SCHEMA2$.getLogicalType());
+
+      this.timeMicros = CONVERSION3$.fromLong(in.readLong(), CONVERSION_SCHEMA3$, CONVERSION_SCHEMA3$.getLogicalType());
+
+    } else {
+      for (int i = 0; i < 6; i++) {
+        switch (fieldOrder[i].pos()) {
+        case 0:
+          this.number = in.readInt();
+          break;
+
+        case 1:
+          this.last_name = in.readString();
+          break;
+
+        case 2:
+          this.timestamp = CONVERSION0$.fromLong(in.readLong(), CONVERSION_SCHEMA0$, CONVERSION_SCHEMA0$.getLogicalType());
+          break;
+
+        case 3:
+          this.timestampMicros = CONVERSION1$.fromLong(in.readLong(), CONVERSION_SCHEMA1$, CONVERSION_SCHEMA1$.getLogicalType());
+          break;
+
+        case 4:
+          this.timeMillis = CONVERSION2$.fromInt(in.readInt(), CONVERSION_SCHEMA2$, CONVERSION_SCHEMA2$.getLogicalType());
+          break;
+
+        case 5:
+          this.timeMicros = CONVERSION3$.fromLong(in.readLong(), CONVERSION_SCHEMA3$, CONVERSION_SCHEMA3$.getLogicalType());
+          break;
+
+        default:
+          throw new java.io.IOException("Corrupt ResolvingDecoder.");
+        }
+      }
+    }
+  }
 }
 
 
@@ -663,3 +741,5 @@ static {
 
 
 
+
+
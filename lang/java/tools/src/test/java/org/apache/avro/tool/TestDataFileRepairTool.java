@@ -23,7 +23,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileConstants;
@@ -178,6 +180,49 @@ public class TestDataFileRepairTool {
     checkFileContains(repairedFile, "guava", "hazelnut");
   }
 
+  @Test
+  public void testRepairLargeFileInParallel() throws Exception {
+    // large enough that sync markers are scanned for in several segments
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    List<Long> syncs = new ArrayList<>();
+    int records = 0;
+    try (DataFileWriter<Utf8> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.create(SCHEMA, baos);
+      while (baos.size() < 12 * 1024 * 1024) {
+        w.append(new Utf8(String.format("record %08d with some padding to make it longer", records++)));
+        if (records % 1000 == 0) {
+          syncs.add(w.sync());
+        }
+      }
+    }
+    byte[] bytes = baos.toByteArray();
+    // damage the sync markers after two blocks in the middle of the file: each
+    // block is lost with the one that follows, up to the next intact marker
+    for (int block : new int[] { 50, 150 }) {
+      bytes[(int) (long) syncs.get(block) - 1] ^= 0x01;
+    }
+    File file = new File(DIR.getRoot(), "large.avro");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(bytes);
+    }
+
+    String output = run(new DataFileRepairTool(4), "-o", "all", file.getPath(), repairedFile.getPath());
+    int blocks = (records + 999) / 1000;
+    assertTrue(output, output.contains("Number of blocks: " + (blocks - 4) + " Number of corrupt blocks: 2"));
+    assertTrue(output, output.contains("Number of records: " + (records - 4000) + " Number of corrupt records: 0"));
+    assertTrue(output, output.contains("Number of records written " + (records - 4000)));
+    int expected = 0;
+    try (DataFileReader<Utf8> r = new DataFileReader<>(repairedFile, new GenericDatumReader<>(SCHEMA))) {
+      for (Utf8 datum : r) {
+        if (expected / 1000 == 50 || expected / 1000 == 150) {
+          expected += 2000; // the records of the lost blocks
+        }
+        assertEquals(String.format("record %08d with some padding to make it longer", expected++), datum.toString());
+      }
+    }
+    assertEquals(records, expected);
+  }
+
   private void checkFileContains(File repairedFile, String... lines) throws IOException {
     DataFileReader r = new DataFileReader<>(repairedFile, new GenericDatumReader<>(SCHEMA));
     for (String line : lines) {
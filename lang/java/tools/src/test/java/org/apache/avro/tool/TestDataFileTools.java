@@ -186,6 +186,63 @@ public class TestDataFileTools {
     assertEquals(schema.toString() + "\n", run(new DataFileGetSchemaTool(), sampleFile.getPath()));
   }
 
+  @Test
+  public void testCount() throws Exception {
+    assertEquals(COUNT + "\n", run(new DataFileCountTool(), sampleFile.getPath()));
+  }
+
+  @Test
+  public void testCountBlocks() throws Exception {
+    String output = run(new DataFileCountTool(), "--blocks", sampleFile.getPath());
+    assertTrue(output, output.contains("\t" + COUNT + "\t"));
+    assertTrue(output, output.contains("blocks\t1\n"));
+    assertTrue(output, output.contains("records\t" + COUNT + "\n"));
+  }
+
+  @Test
+  public void testCountRatio() throws Exception {
+    String output = run(new DataFileCountTool(), "--ratio", sampleFile.getPath());
+    assertTrue(output, output.contains("records\t" + COUNT + "\n"));
+    assertTrue(output, output.contains("uncompressed\t"));
+    assertTrue(output, output.contains("ratio\t"));
+  }
+
+  @Test
+  public void testCountVerify() throws Exception {
+    File file = new File(DIR.getRoot(), "checksums.avro");
+    try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+      writer.setBlockChecksum(true);
+      writer.create(schema, file);
+      for (int i = 0; i < COUNT; ++i) {
+        writer.append(i);
+      }
+    }
+    String output = run(new DataFileCountTool(), "--verify", file.getPath());
+    assertTrue(output, output.contains("records\t" + COUNT + "\n"));
+    assertTrue(output, output.contains("corrupt\t0\n"));
+  }
+
+  @Test
+  public void testSort() throws Exception {
+    File unsorted = new File(DIR.getRoot(), "unsorted.avro");
+    try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+      writer.create(schema, unsorted);
+      for (int i = COUNT - 1; i >= 0; --i) {
+        writer.append(i);
+      }
+    }
+    File sorted = new File(DIR.getRoot(), "sorted.avro");
+    assertEquals("", run(new SortTool(), "--memory", "1", "--threads", "2", sampleFile.getPath(), unsorted.getPath(),
+        sorted.getPath()));
+    try (DataFileReader<Object> reader = new DataFileReader<>(sorted, new GenericDatumReader<>())) {
+      for (int i = 0; i < COUNT; ++i) {
+        assertEquals(i, reader.next());
+        assertEquals(i, reader.next());
+      }
+      assertTrue(!reader.hasNext());
+    }
+  }
+
   @Test
   public void testWriteWithDeflate() throws Exception {
     testWrite("deflate", Arrays.asList("--codec", "deflate"), "deflate");
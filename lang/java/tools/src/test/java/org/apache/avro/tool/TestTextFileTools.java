@@ -31,6 +31,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -38,8 +39,13 @@ import java.util.Random;
 
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Type;
+import org.apache.avro.SchemaBuilder;
 import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
 import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 
@@ -135,6 +141,28 @@ public class TestTextFileTools {
     }
   }
 
+  @Test
+  public void testToTextJson() throws Exception {
+    Schema recordSchema = SchemaBuilder.record("R").fields().requiredString("s").requiredInt("i").endRecord();
+    File avroFile = new File(DIR.getRoot(), "records.avro");
+    File outFile = new File(DIR.getRoot(), "records.json");
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<>(recordSchema))) {
+      writer.create(recordSchema, avroFile);
+      for (int i = 0; i < 2; i++) {
+        GenericRecord record = new GenericData.Record(recordSchema);
+        record.put("s", "a\t" + i);
+        record.put("i", i);
+        writer.append(record);
+      }
+    }
+
+    assertEquals(0, new ToTextTool().run(null, null, null, Arrays.asList(avroFile.toString(), outFile.toString())));
+
+    String separator = System.lineSeparator();
+    String expected = "{\"s\": \"a\\t0\", \"i\": 0}" + separator + "{\"s\": \"a\\t1\", \"i\": 1}" + separator;
+    assertEquals(expected, new String(Files.readAllBytes(outFile.toPath()), StandardCharsets.UTF_8));
+  }
+
   @Test
   public void testDefaultCodec() throws Exception {
     // The default codec for fromtext is deflate